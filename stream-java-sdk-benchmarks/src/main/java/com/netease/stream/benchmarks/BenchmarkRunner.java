@@ -0,0 +1,28 @@
+package com.netease.stream.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the JMH command line options, allocation profiling always enabled so
+ * every result comes with the bytes allocated per operation (gc.alloc.rate.norm).
+ * <p>
+ * For example, to compare two SDK builds on the putRecords bodies of 1000 records:
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar Serialization -p records=1000 -rf json -rff before.json
+ * </pre>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder().parent(commandLine)
+                .addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.netease.stream.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netease.stream.http.HttpResponse;
+import com.netease.stream.model.GetLogsResult;
+import com.netease.stream.model.GetRecordsResult;
+import com.netease.stream.model.transform.GetLogsResultHandler;
+import com.netease.stream.model.transform.GetRecordsResultHandler;
+import com.netease.stream.util.json.JSONObject;
+import com.netease.stream.util.json.JSONTokener;
+
+/**
+ * Parsing of getRecords and getLogs responses of 10 to 10000 records: into a JSONObject with the
+ * {@link JSONTokener}, and into results with the streaming result handlers the client uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParsingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int records;
+
+    private byte[] getRecordsResponse;
+
+    private byte[] getLogsResponse;
+
+    private final GetRecordsResultHandler getRecordsHandler = new GetRecordsResultHandler();
+
+    private final GetLogsResultHandler getLogsHandler = new GetLogsResultHandler();
+
+    @Setup
+    public void setUp() throws Exception {
+        getRecordsResponse = Payloads.getRecordsResponse(records);
+        getLogsResponse = Payloads.getLogsResponse(records);
+    }
+
+    @Benchmark
+    public JSONObject jsonTokenerGetRecords() throws Exception {
+        return parse(getRecordsResponse);
+    }
+
+    @Benchmark
+    public JSONObject jsonTokenerGetLogs() throws Exception {
+        return parse(getLogsResponse);
+    }
+
+    @Benchmark
+    public GetRecordsResult resultHandlerGetRecords() throws Exception {
+        return getRecordsHandler.handle(response(getRecordsResponse));
+    }
+
+    @Benchmark
+    public GetLogsResult resultHandlerGetLogs() throws Exception {
+        return getLogsHandler.handle(response(getLogsResponse));
+    }
+
+    private static JSONObject parse(byte[] body) throws Exception {
+        return new JSONObject(new JSONTokener(new InputStreamReader(new ByteArrayInputStream(
+                body), StandardCharsets.UTF_8)));
+    }
+
+    private static HttpResponse response(byte[] body) {
+        HttpResponse response = new HttpResponse(null, null);
+        response.setStatusCode(200);
+        response.setContentStream(new ByteArrayInputStream(body));
+        return response;
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.netease.stream.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netease.stream.http.DefaultRequest;
+import com.netease.stream.http.Headers;
+import com.netease.stream.http.HttpMethod;
+import com.netease.stream.http.Request;
+import com.netease.stream.util.ContentWriter;
+import com.netease.stream.util.Md5Utils;
+import com.netease.stream.util.json.JSONException;
+import com.netease.stream.util.json.JSONWriter;
+
+/**
+ * Realistic payloads shared by the benchmarks: access-log like records of about 200 bytes, the
+ * putRecords bodies holding them, and the getRecords and getLogs responses returning them.
+ */
+final class Payloads {
+
+    static final URI ENDPOINT = URI.create("http://stream.example.com");
+
+    static final String TOPIC_NAME = "benchmark-topic";
+
+    private Payloads() {}
+
+    /**
+     * Creates records with the fields of an access log line.
+     *
+     * @param count The number of records.
+     * @return The records, each with a distinct content.
+     */
+    static List<Map<String, String>> records(int count) {
+        List<Map<String, String>> records = new ArrayList<Map<String, String>>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, String> record = new LinkedHashMap<String, String>();
+            record.put("time", String.valueOf(1500000000000L + i));
+            record.put("host", "web-" + (i % 16) + ".example.com");
+            record.put("ip", "10.0." + (i % 256) + "." + (i * 7 % 256));
+            record.put("request", "GET /api/v1/items/" + i + "?fields=id,name,price HTTP/1.1");
+            record.put("status", i % 50 == 0 ? "500" : "200");
+            record.put("agent", "Mozilla/5.0 (X11; Linux x86_64) \"benchmark\"");
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Writes a putRecords body the way the client does.
+     *
+     * @param writer The writer to write to.
+     * @param records The records of the body.
+     */
+    static void writePutRecords(ContentWriter writer, List<Map<String, String>> records)
+            throws JSONException {
+        JSONWriter content = new JSONWriter(writer);
+        content.object().key("topic_name").value(TOPIC_NAME).key("partition_id").value(0)
+                .key("records").array();
+        for (Map<String, String> record : records) {
+            content.object();
+            for (Map.Entry<String, String> field : record.entrySet()) {
+                content.key(field.getKey()).value(field.getValue());
+            }
+            content.endObject();
+        }
+        content.endArray().key("count").value(records.size()).endObject();
+    }
+
+    /**
+     * Returns the body of a putRecords request.
+     *
+     * @param count The number of records.
+     * @return The UTF-8 body.
+     */
+    static byte[] putRecordsBody(int count) throws JSONException, NoSuchAlgorithmException {
+        ContentWriter writer = new ContentWriter();
+        writePutRecords(writer, records(count));
+        return writer.toByteArray();
+    }
+
+    /**
+     * Returns the body of a getRecords response.
+     *
+     * @param count The number of records returned.
+     * @return The UTF-8 body.
+     */
+    static byte[] getRecordsResponse(int count) throws JSONException, NoSuchAlgorithmException {
+        return response("records", "next_offset", String.valueOf(count), count);
+    }
+
+    /**
+     * Returns the body of a getLogs response.
+     *
+     * @param count The number of logs returned.
+     * @return The UTF-8 body.
+     */
+    static byte[] getLogsResponse(int count) throws JSONException, NoSuchAlgorithmException {
+        return response("subscription_logs", "next_position",
+                "AAAAAAAAAQIAAAAAAAAAAQ==", count);
+    }
+
+    private static byte[] response(String recordsName, String nextName, String next, int count)
+            throws JSONException, NoSuchAlgorithmException {
+        ContentWriter writer = new ContentWriter();
+        JSONWriter content = new JSONWriter(writer);
+        content.object().key("code").value(200).key(recordsName).array();
+        for (Map<String, String> record : records(count)) {
+            content.object();
+            for (Map.Entry<String, String> field : record.entrySet()) {
+                content.key(field.getKey()).value(field.getValue());
+            }
+            content.endObject();
+        }
+        content.endArray().key(nextName).value(next).endObject();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Creates an unsigned putRecords request, as built before signing.
+     *
+     * @param body The body of the request.
+     * @return The request.
+     */
+    static Request putRecordsRequest(byte[] body) throws NoSuchAlgorithmException, IOException {
+        Request request = new DefaultRequest();
+        request.setHttpMethod(HttpMethod.POST);
+        request.setEndpoint(ENDPOINT);
+        request.setResourcePath("/put_records");
+        request.addHeader(Headers.CONTENT_TYPE, "application/json");
+        request.addHeader("User-Agent", "streamproxy-sdk-java/0.1");
+        request.setEncryptContent(Md5Utils.getHex(Md5Utils.computeMD5Hash(body)));
+        request.setContentBytes(body);
+        return request;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.netease.stream.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netease.stream.auth.BasicCredentials;
+import com.netease.stream.auth.StreamSigner;
+import com.netease.stream.http.Headers;
+import com.netease.stream.http.HttpMethod;
+import com.netease.stream.http.HttpRequestFactory;
+import com.netease.stream.http.Request;
+import com.netease.stream.http.RequestTemplate;
+
+/**
+ * Construction of a request: the SDK request created from the template of its operation, and the
+ * Apache HttpClient request {@link HttpRequestFactory#createHttpRequest} turns a signed one into.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestBenchmark {
+
+    private final HttpRequestFactory httpRequestFactory = new HttpRequestFactory();
+
+    private RequestTemplate template;
+
+    private Request signedRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put(Headers.CONTENT_TYPE, "application/json");
+        headers.put("User-Agent", "streamproxy-sdk-java/0.1");
+        template = new RequestTemplate(HttpMethod.POST, Payloads.ENDPOINT, "/put_records",
+                headers);
+        signedRequest = Payloads.putRecordsRequest(Payloads.putRecordsBody(100));
+        new StreamSigner().sign(signedRequest, new BasicCredentials("benchmarkAccessKeyId",
+                "benchmarkSecretKey"));
+    }
+
+    @Benchmark
+    public Request newRequest() {
+        return template.newRequest();
+    }
+
+    @Benchmark
+    public HttpRequestBase createHttpRequest() {
+        return httpRequestFactory.createHttpRequest(signedRequest);
+    }
+
+}
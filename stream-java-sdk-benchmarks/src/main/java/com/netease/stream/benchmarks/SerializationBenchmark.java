@@ -0,0 +1,66 @@
+package com.netease.stream.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.netease.stream.util.ContentWriter;
+import com.netease.stream.util.json.JSONObject;
+
+/**
+ * Serialization of putRecords bodies of 10 to 10000 records: {@link JSONObject#toString()} of the
+ * body built as a JSONObject, as the client first did, against the streaming JSONWriter into the
+ * {@link ContentWriter} of the thread which the client uses now, MD5 and bytes included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int records;
+
+    private List<Map<String, String>> recordList;
+
+    private JSONObject content;
+
+    @Setup
+    public void setUp() throws Exception {
+        recordList = Payloads.records(records);
+        content = new JSONObject();
+        content.put("topic_name", Payloads.TOPIC_NAME);
+        content.put("partition_id", 0);
+        content.put("records", recordList);
+        content.put("count", records);
+    }
+
+    @Benchmark
+    public String jsonObjectToString() {
+        return content.toString();
+    }
+
+    @Benchmark
+    public void contentWriter(Blackhole blackhole) throws Exception {
+        ContentWriter writer = ContentWriter.getInstance();
+        Payloads.writePutRecords(writer, recordList);
+        blackhole.consume(writer.getMD5Hex());
+        blackhole.consume(writer.toByteArray());
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.netease.stream.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.netease.stream.auth.BasicCredentials;
+import com.netease.stream.auth.Credentials;
+import com.netease.stream.auth.StreamSigner;
+import com.netease.stream.http.Request;
+import com.netease.stream.util.Md5Utils;
+import com.netease.stream.util.StringUtils;
+
+/**
+ * Signing of a putRecords request: the whole {@link StreamSigner#sign}, the canonical string it
+ * signs, and the MD5 of bodies of 10 to 10000 records which goes into the canonical string.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SigningBenchmark {
+
+    private final StreamSigner signer = new StreamSigner();
+
+    private final Credentials credentials = new BasicCredentials("benchmarkAccessKeyId",
+            "benchmarkSecretKey");
+
+    private Request request;
+
+    @Setup
+    public void setUp() throws Exception {
+        request = Payloads.putRecordsRequest(Payloads.putRecordsBody(10));
+        // The Date and Authorization headers are overwritten by every call from then on.
+        signer.sign(request, credentials);
+    }
+
+    @Benchmark
+    public Request sign() {
+        signer.sign(request, credentials);
+        return request;
+    }
+
+    @Benchmark
+    public String makeCanonicalString() {
+        return StringUtils.makeCanonicalString(request);
+    }
+
+    @Benchmark
+    public byte[] computeMD5Hash(Body body) throws Exception {
+        return Md5Utils.computeMD5Hash(body.bytes);
+    }
+
+    /** A putRecords body, only the MD5 benchmark depends on its size. */
+    @State(Scope.Benchmark)
+    public static class Body {
+
+        @Param({"10", "100", "1000", "10000"})
+        public int records;
+
+        byte[] bytes;
+
+        @Setup
+        public void setUp() throws Exception {
+            bytes = Payloads.putRecordsBody(records);
+        }
+    }
+
+}
@@ -0,0 +1,277 @@
+package com.netease.stream.benchmarks.loadtest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.netease.stream.client.NeteaseHttpClient;
+import com.netease.stream.client.StreamClient;
+import com.netease.stream.config.ClientConfiguration;
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.http.ApacheHttpTransport;
+import com.netease.stream.http.ConnectionPoolStats;
+import com.netease.stream.http.HttpTransport;
+import com.netease.stream.http.NioHttpTransport;
+import com.netease.stream.http.TransportType;
+import com.netease.stream.metrics.Histogram;
+import com.netease.stream.model.GetLogsResult;
+import com.netease.stream.model.GetRecordsResult;
+import com.netease.stream.policy.RetryPolicy;
+
+/**
+ * Command line load generator: producer threads putting batches of records and consumer threads
+ * reading records and subscription logs, against the embedded {@link MockStreamProxy} or an
+ * existing proxy, reporting the throughput and latency percentiles of each operation.
+ * <p>
+ * Requests are sent back to back by each thread, so the offered load is set by the number of
+ * threads and the latency. Latencies include retries; the warmup is not measured. Run with
+ * {@code --help} for the options.
+ */
+public class LoadGenerator {
+
+    private static final String USAGE = "Usage: LoadGenerator [options]\n"
+            + "  --producers N         threads putting records (default 4)\n"
+            + "  --consumers N         threads getting records and logs (default 4)\n"
+            + "  --duration S          measured seconds (default 30)\n"
+            + "  --warmup S            seconds run before measuring (default 5)\n"
+            + "  --batch N             records per putRecords (default 100)\n"
+            + "  --record-size N       characters per record (default 200)\n"
+            + "  --limit N             records per getRecords and getLogs (default 100)\n"
+            + "  --transport T         BLOCKING or NIO (default BLOCKING)\n"
+            + "  --max-connections N   connections of the client (default producers+consumers)\n"
+            + "  --attempts N          attempts of a request, retries included (default 3)\n"
+            + "  --latency-ms N        latency of the mock proxy (default 0)\n"
+            + "  --jitter-ms N         extra random latency of the mock proxy (default 0)\n"
+            + "  --error-rate F        fraction of requests the mock proxy fails (default 0)\n"
+            + "  --error-status N      status of the failed requests (default 503)\n"
+            + "  --endpoint HOST:PORT  load an existing proxy instead of the mock proxy\n"
+            + "  --access-key K, --secret-key K   credentials (default: mock credentials)\n";
+
+    private static final String TOPIC_NAME = "load-test";
+
+    private static final String SUBSCRIPTION_NAME = "load-test";
+
+    private final Map<String, String> options;
+
+    private volatile boolean measuring;
+
+    private volatile boolean stopped;
+
+    private final OperationStats putRecords = new OperationStats("putRecords");
+
+    private final OperationStats getRecords = new OperationStats("getRecords");
+
+    private final OperationStats getLogs = new OperationStats("getLogs");
+
+    private LoadGenerator(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<String, String>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || args[i].equals("--help") || i + 1 == args.length) {
+                System.out.print(USAGE);
+                System.exit(args[i].equals("--help") ? 0 : 1);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        new LoadGenerator(options).run();
+    }
+
+    private void run() throws Exception {
+        int producers = intOption("producers", 4);
+        int consumers = intOption("consumers", 4);
+        String accessKey = option("access-key", "load-test-access-key");
+        String secretKey = option("secret-key", "load-test-secret-key");
+
+        MockStreamProxy proxy = null;
+        String endpoint = options.get("endpoint");
+        if (endpoint == null) {
+            proxy = new MockStreamProxy(accessKey, secretKey)
+                    .withLatency(intOption("latency-ms", 0), intOption("jitter-ms", 0))
+                    .withErrors(Double.parseDouble(option("error-rate", "0")),
+                            intOption("error-status", 503))
+                    .withPayload(intOption("limit", 100), intOption("record-size", 200))
+                    .withThreads(Math.max(16, 2 * (producers + consumers))).start();
+            endpoint = proxy.getEndpoint();
+        }
+
+        ClientConfiguration config = new ClientConfiguration()
+                .withTransportType(TransportType.valueOf(option("transport", "BLOCKING")))
+                .withMaxConnections(intOption("max-connections", Math.max(1, producers
+                        + consumers)))
+                .withRetryPolicy(new RetryPolicy(intOption("attempts",
+                        RetryPolicy.DEFAULT_MAX_ATTEMPTS),
+                        RetryPolicy.DEFAULT_BASE_DELAY_MILLIS,
+                        RetryPolicy.DEFAULT_MAX_DELAY_MILLIS,
+                        RetryPolicy.DEFAULT.getRetryCondition()));
+        LoadTestClient client = new LoadTestClient(accessKey, secretKey, config,
+                URI.create(config.getProtocol() + "://" + endpoint));
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < producers; i++) {
+            threads.add(new Thread(producer(client, i), "producer-" + i));
+        }
+        for (int i = 0; i < consumers; i++) {
+            threads.add(new Thread(consumer(client), "consumer-" + i));
+        }
+        System.out.println("Loading " + endpoint + " with " + producers + " producers and "
+                + consumers + " consumers over the " + config.getTransportType()
+                + " transport");
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        TimeUnit.SECONDS.sleep(intOption("warmup", 5));
+        measuring = true;
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(intOption("duration", 30));
+        measuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        stopped = true;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-12s %10s %8s %10s %12s %9s %9s %9s %9s"
+                + " %9s", "operation", "requests", "errors", "req/s", "records/s", "p50 ms",
+                "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (OperationStats stats : Arrays.asList(putRecords, getRecords, getLogs)) {
+            stats.print(seconds);
+        }
+        for (ConnectionPoolStats stats : client.getConnectionPoolStats()) {
+            System.out.println("Connection pool " + stats);
+        }
+        if (proxy != null) {
+            System.out.println("Mock proxy: " + proxy.getRequestCount() + " requests, "
+                    + proxy.getInjectedErrorCount() + " injected errors, "
+                    + proxy.getRejectedCount() + " signatures rejected");
+            proxy.close();
+        }
+        client.shutdown();
+    }
+
+    private Runnable producer(final StreamClient client, final int partitionId) {
+        final int recordSize = intOption("record-size", 200);
+        final List<Map<String, String>> batch = new ArrayList<Map<String, String>>();
+        for (int i = 0; i < intOption("batch", 100); i++) {
+            char[] data = new char[recordSize];
+            Arrays.fill(data, (char) ('a' + i % 26));
+            Map<String, String> record = new HashMap<String, String>();
+            record.put("data", new String(data));
+            batch.add(record);
+        }
+        return new Runnable() {
+            public void run() {
+                while (!stopped) {
+                    long start = System.nanoTime();
+                    try {
+                        client.putRecords(TOPIC_NAME, partitionId, batch, batch.size());
+                        putRecords.record(start, batch.size(), measuring);
+                    } catch (ClientException e) {
+                        putRecords.fail(start, measuring);
+                    }
+                }
+            }
+        };
+    }
+
+    private Runnable consumer(final StreamClient client) {
+        final int limit = intOption("limit", 100);
+        return new Runnable() {
+            public void run() {
+                String offset = "0";
+                String position = "0";
+                while (!stopped) {
+                    long start = System.nanoTime();
+                    try {
+                        GetRecordsResult records = client.getRecords(offset, limit);
+                        getRecords.record(start, records.getRecords().size(), measuring);
+                        offset = records.getNextOffset();
+                    } catch (ClientException e) {
+                        getRecords.fail(start, measuring);
+                    }
+                    start = System.nanoTime();
+                    try {
+                        GetLogsResult logs = client.getLogs(position, limit, SUBSCRIPTION_NAME);
+                        getLogs.record(start, logs.getSubscriptionLogs().size(), measuring);
+                        position = logs.getNextPosition();
+                    } catch (ClientException e) {
+                        getLogs.fail(start, measuring);
+                    }
+                }
+            }
+        };
+    }
+
+    private String option(String name, String defaultValue) {
+        String value = options.get(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(option(name, String.valueOf(defaultValue)));
+    }
+
+    /** Requests, errors, records and latencies of one operation while measuring. */
+    private static final class OperationStats {
+
+        private final String name;
+
+        private final Histogram latency = new Histogram();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final LongAdder records = new LongAdder();
+
+        OperationStats(String name) {
+            this.name = name;
+        }
+
+        void record(long start, int records, boolean measuring) {
+            if (measuring) {
+                latency.record(System.nanoTime() - start);
+                this.records.add(records);
+            }
+        }
+
+        void fail(long start, boolean measuring) {
+            if (measuring) {
+                latency.record(System.nanoTime() - start);
+                errors.increment();
+            }
+        }
+
+        void print(double seconds) {
+            long requests = latency.getCount();
+            System.out.println(String.format(Locale.ROOT, "%-12s %10d %8d %10.1f %12.1f %9.3f"
+                    + " %9.3f %9.3f %9.3f %9.3f", name, requests, errors.sum(), requests
+                    / seconds, records.sum() / seconds, millis(50), millis(90), millis(99),
+                    millis(99.9), latency.getMax() / 1e6));
+        }
+
+        private double millis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+
+    /** Client sending all its requests to the endpoint under load. */
+    private static final class LoadTestClient extends StreamClient {
+
+        LoadTestClient(String accessKey, String secretKey, ClientConfiguration config,
+                URI endpoint) {
+            super(accessKey, secretKey, config);
+            HttpTransport transport = config.getTransportType() == TransportType.NIO
+                    ? new NioHttpTransport(config) : new ApacheHttpTransport(config);
+            client.shutdown();
+            client = new NeteaseHttpClient(config, new RedirectingTransport(transport, endpoint));
+        }
+    }
+
+}
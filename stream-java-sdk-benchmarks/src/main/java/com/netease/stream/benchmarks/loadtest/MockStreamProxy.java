@@ -0,0 +1,341 @@
+package com.netease.stream.benchmarks.loadtest;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.netease.stream.http.ContentEncoding;
+import com.netease.stream.http.DefaultRequest;
+import com.netease.stream.http.Headers;
+import com.netease.stream.http.HttpMethod;
+import com.netease.stream.util.Md5Utils;
+import com.netease.stream.util.NamedThreadFactory;
+import com.netease.stream.util.StringUtils;
+import com.netease.stream.util.json.JSONObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stream proxy answering on the loopback interface, to load the client without a network or a
+ * real proxy.
+ * <p>
+ * It serves /put_records, /get_records, /get_offset, /get_logs and /get_subscription_position,
+ * and rejects with 403 the requests whose signature does not verify, computed like
+ * {@link com.netease.stream.auth.StreamSigner} over the body as received. Each request can be
+ * delayed by a latency, and failed with an error status at a given rate. Reads return up to the
+ * configured number of records of the configured size; response bodies are built once per size.
+ * <p>
+ * Settings are changed before {@link #start()}.
+ */
+public class MockStreamProxy implements Closeable {
+
+    public static final String PUT_RECORDS = "/put_records";
+
+    public static final String GET_RECORDS = "/get_records";
+
+    public static final String GET_OFFSET = "/get_offset";
+
+    public static final String GET_LOGS = "/get_logs";
+
+    public static final String GET_SUBSCRIPTION_POSITION = "/get_subscription_position";
+
+    static {
+        // The server writes the response headers and body separately: without TCP_NODELAY each
+        // response waits for the delayed acknowledgement of the client, about 40ms.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final String accessKey;
+
+    private final String secretKey;
+
+    private long latencyMillis;
+
+    private long latencyJitterMillis;
+
+    private double errorRate;
+
+    private int errorStatusCode = 503;
+
+    private int recordsPerResponse = 100;
+
+    private int recordSize = 200;
+
+    private int threads = 64;
+
+    private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>();
+
+    /** Bodies of the read responses, per number of records. */
+    private final ConcurrentMap<String, byte[]> responses = new ConcurrentHashMap<String, byte[]>();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder injectedErrors = new LongAdder();
+
+    private final LongAdder recordsReceived = new LongAdder();
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    /**
+     * Constructs a new mock proxy accepting the requests signed with the specified credentials.
+     *
+     * @param accessKey The access key of the clients.
+     * @param secretKey The secret key of the clients.
+     */
+    public MockStreamProxy(String accessKey, String secretKey) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+    }
+
+    /**
+     * Delays every response, to model the proxy and the network.
+     *
+     * @param latencyMillis The minimum delay, in milliseconds.
+     * @param latencyJitterMillis The maximum extra delay, uniformly distributed, in milliseconds.
+     * @return This mock proxy.
+     */
+    public MockStreamProxy withLatency(long latencyMillis, long latencyJitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        return this;
+    }
+
+    /**
+     * Fails a fraction of the requests which signature verified.
+     *
+     * @param errorRate The fraction of the requests failed, between 0 and 1.
+     * @param errorStatusCode The status code of the failed requests, such as 500, 503 or 429.
+     * @return This mock proxy.
+     */
+    public MockStreamProxy withErrors(double errorRate, int errorStatusCode) {
+        this.errorRate = errorRate;
+        this.errorStatusCode = errorStatusCode;
+        return this;
+    }
+
+    /**
+     * Sets the size of the read responses.
+     *
+     * @param recordsPerResponse The maximum number of records or logs returned by a read.
+     * @param recordSize The number of characters of the data of each record.
+     * @return This mock proxy.
+     */
+    public MockStreamProxy withPayload(int recordsPerResponse, int recordSize) {
+        this.recordsPerResponse = recordsPerResponse;
+        this.recordSize = recordSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads serving requests, which bounds the requests delayed at once.
+     *
+     * @param threads The number of threads.
+     * @return This mock proxy.
+     */
+    public MockStreamProxy withThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Starts serving on an ephemeral port of the loopback interface.
+     *
+     * @return This mock proxy.
+     * @throws IOException If the port can not be bound.
+     */
+    public MockStreamProxy start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                1024);
+        executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory(
+                "mock-stream-proxy"));
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    serve(exchange);
+                } catch (Exception e) {
+                    respond(exchange, 500, error(500, e.toString()));
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        return this;
+    }
+
+    /**
+     * Returns the host and port to send the requests to.
+     *
+     * @return The endpoint, such as 127.0.0.1:41234.
+     */
+    public String getEndpoint() {
+        InetSocketAddress address = server.getAddress();
+        return address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
+    /** Returns the number of requests received. */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /** Returns the number of requests rejected because their signature did not verify. */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /** Returns the number of requests failed on purpose. */
+    public long getInjectedErrorCount() {
+        return injectedErrors.sum();
+    }
+
+    /** Returns the number of records put successfully. */
+    public long getRecordsReceived() {
+        return recordsReceived.sum();
+    }
+
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws Exception {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        requests.increment();
+        String path = exchange.getRequestURI().getPath();
+        long delay = latencyMillis;
+        if (latencyJitterMillis > 0) {
+            delay += ThreadLocalRandom.current().nextLong(latencyJitterMillis + 1);
+        }
+        if (delay > 0) {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        }
+        if (!verify(exchange, path, body)) {
+            rejected.increment();
+            respond(exchange, 403, error(403, "The request signature does not match"));
+            return;
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            injectedErrors.increment();
+            respond(exchange, errorStatusCode, error(errorStatusCode, "Injected error"));
+            return;
+        }
+        if (ContentEncoding.GZIP.equals(exchange.getRequestHeaders()
+                .getFirst(Headers.CONTENT_ENCODING))) {
+            body = new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes();
+        }
+        JSONObject content = new JSONObject(new String(body, StandardCharsets.UTF_8));
+        if (PUT_RECORDS.equals(path)) {
+            recordsReceived.add(content.getJSONArray("records").length());
+            respond(exchange, 200, "{}".getBytes(StandardCharsets.UTF_8));
+        } else if (GET_RECORDS.equals(path)) {
+            long offset = Long.parseLong(content.getString("offset"));
+            int records = (int) Math.min(content.getLong("limit"), recordsPerResponse);
+            respond(exchange, 200, page("records", "next_offset",
+                    String.valueOf(offset + records), records));
+        } else if (GET_LOGS.equals(path)) {
+            int records = (int) Math.min(content.getLong("limit"), recordsPerResponse);
+            respond(exchange, 200, page("subscription_logs", "next_position",
+                    content.getString("position"), records));
+        } else if (GET_OFFSET.equals(path)) {
+            respond(exchange, 200, "{\"offset\":\"0\"}".getBytes(StandardCharsets.UTF_8));
+        } else if (GET_SUBSCRIPTION_POSITION.equals(path)) {
+            respond(exchange, 200, "{\"position\":\"0\"}".getBytes(StandardCharsets.UTF_8));
+        } else {
+            respond(exchange, 404, error(404, "Unknown resource " + path));
+        }
+    }
+
+    /**
+     * Verifies the Authorization header against the signature of the canonical string of the
+     * request, the MD5 being computed over the body as received.
+     */
+    private boolean verify(HttpExchange exchange, String path, byte[] body) throws Exception {
+        DefaultRequest request = new DefaultRequest();
+        request.setHttpMethod(HttpMethod.valueOf(exchange.getRequestMethod()));
+        request.setResourcePath(path);
+        request.addHeader(Headers.CONTENT_TYPE,
+                exchange.getRequestHeaders().getFirst(Headers.CONTENT_TYPE));
+        request.addHeader(Headers.DATE, exchange.getRequestHeaders().getFirst(Headers.DATE));
+        request.setEncryptContent(Md5Utils.getHex(Md5Utils.computeMD5Hash(body)));
+        byte[] signature = mac().doFinal(StringUtils.makeCanonicalString(request).getBytes(
+                StandardCharsets.UTF_8));
+        String expected = "LOG " + accessKey + ":" + Base64.getEncoder().encodeToString(signature);
+        return expected.equals(exchange.getRequestHeaders().getFirst("Authorization"));
+    }
+
+    private Mac mac() throws GeneralSecurityException {
+        Mac mac = macs.get();
+        if (mac == null) {
+            mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8),
+                    "HmacSHA256"));
+            macs.set(mac);
+        }
+        return mac;
+    }
+
+    /** Returns the body of a read response of the specified number of records. */
+    private byte[] page(String recordsName, String nextName, String next, int records) {
+        String key = recordsName + records;
+        byte[] prefix = responses.get(key);
+        if (prefix == null) {
+            char[] data = new char[recordSize];
+            Arrays.fill(data, 'x');
+            String record = "{\"data\":\"" + new String(data) + "\"}";
+            StringBuilder page = new StringBuilder("{\"").append(recordsName).append("\":[");
+            for (int i = 0; i < records; i++) {
+                page.append(i == 0 ? "" : ",").append(record);
+            }
+            page.append("],\"").append(nextName).append("\":");
+            prefix = page.toString().getBytes(StandardCharsets.UTF_8);
+            responses.putIfAbsent(key, prefix);
+        }
+        byte[] suffix = (JSONObject.quote(next) + "}").getBytes(StandardCharsets.UTF_8);
+        byte[] body = Arrays.copyOf(prefix, prefix.length + suffix.length);
+        System.arraycopy(suffix, 0, body, prefix.length, suffix.length);
+        return body;
+    }
+
+    private static byte[] error(int code, String message) {
+        return ("{\"code\":" + code + ",\"message\":" + JSONObject.quote(message) + "}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set(Headers.CONTENT_TYPE, "application/json");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.netease.stream.benchmarks.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.netease.stream.http.ConnectionPoolStats;
+import com.netease.stream.http.HttpResponseHandler;
+import com.netease.stream.http.HttpTransport;
+import com.netease.stream.http.Request;
+
+/**
+ * Transport sending every request to one endpoint, whichever host the client addressed it to,
+ * so the log subscription hosts, named after the subscriptions, need not resolve. The endpoint is
+ * not signed, so signatures still verify.
+ */
+class RedirectingTransport implements HttpTransport {
+
+    private final HttpTransport transport;
+
+    private final URI endpoint;
+
+    RedirectingTransport(HttpTransport transport, URI endpoint) {
+        this.transport = transport;
+        this.endpoint = endpoint;
+    }
+
+    public <T> T execute(Request request, HttpResponseHandler<T> responseHandler)
+            throws IOException {
+        request.setEndpoint(endpoint);
+        return transport.execute(request, responseHandler);
+    }
+
+    public <T> CompletableFuture<T> executeAsync(Request request,
+            HttpResponseHandler<T> responseHandler) {
+        request.setEndpoint(endpoint);
+        return transport.executeAsync(request, responseHandler);
+    }
+
+    public List<ConnectionPoolStats> getConnectionPoolStats() {
+        return transport.getConnectionPoolStats();
+    }
+
+    public void shutdown() {
+        transport.shutdown();
+    }
+
+}
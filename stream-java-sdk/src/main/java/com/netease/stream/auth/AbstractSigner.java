@@ -2,13 +2,12 @@ package com.netease.stream.auth;
 
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
-
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
+import java.security.NoSuchAlgorithmException;
 
 import org.apache.commons.codec.binary.Base64;
 
 import com.netease.stream.exception.ClientException;
+import com.netease.stream.util.ThreadCache;
 
 /**
  * Abstract base class for signing protocol implementations. Provides utilities commonly needed by
@@ -20,6 +19,14 @@ public abstract class AbstractSigner implements Signer {
     /** The default encoding to use when URL encoding */
     private static final String DEFAULT_ENCODING = "UTF-8";
 
+    /** SHA-256 digest of each thread, reset before every use. */
+    private static final ThreadCache<MessageDigest> sha256 = new ThreadCache<MessageDigest>() {
+        @Override
+        protected MessageDigest create() throws NoSuchAlgorithmException {
+            return MessageDigest.getInstance("SHA-256");
+        }
+    };
+
     /**
      * Computes an RFC 2104-compliant HMAC signature and returns the result as a Base64 encoded
      * string.
@@ -95,9 +102,7 @@ public abstract class AbstractSigner implements Signer {
     protected byte[] sign(byte[] data, byte[] key, SigningAlgorithm algorithm)
             throws ClientException {
         try {
-            Mac mac = Mac.getInstance(algorithm.toString());
-            mac.init(new SecretKeySpec(key, algorithm.toString()));
-            return mac.doFinal(data);
+            return MacCache.sign(algorithm, key, data);
         } catch (Exception e) {
             throw new ClientException("Unable to calculate a request signature: " + e.getMessage(),
                     e);
@@ -113,9 +118,14 @@ public abstract class AbstractSigner implements Signer {
      */
     protected byte[] hash(String text) throws ClientException {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(text.getBytes(DEFAULT_ENCODING));
-            return md.digest();
+            MessageDigest md = sha256.acquire();
+            try {
+                md.reset();
+                md.update(text.getBytes(DEFAULT_ENCODING));
+                return md.digest();
+            } finally {
+                sha256.release(md);
+            }
         } catch (Exception e) {
             throw new ClientException("Unable to compute hash while signing request: "
                     + e.getMessage(), e);
@@ -125,7 +135,8 @@ public abstract class AbstractSigner implements Signer {
     /**
      * Loads the individual access key ID and secret key from the specified credentials, ensuring
      * that access to the credentials is synchronized on the credentials object itself, and trimming
-     * any extra whitespace from the credentials.
+     * any extra whitespace from the credentials. Immutable {@link BasicCredentials} are read
+     * without taking their monitor, which would pin a virtual thread to its carrier.
      * 
      * @param credentials.
      * @return Credentials A new credentials object with the sanitized credentials.
@@ -133,10 +144,14 @@ public abstract class AbstractSigner implements Signer {
     protected Credentials sanitizeCredentials(Credentials credentials) {
         String accessKeyId = null;
         String secretKey = null;
-        synchronized (credentials) {
+        if (credentials instanceof BasicCredentials) {
             accessKeyId = credentials.getAccessKeyId();
             secretKey = credentials.getSecretKey();
-
+        } else {
+            synchronized (credentials) {
+                accessKeyId = credentials.getAccessKeyId();
+                secretKey = credentials.getSecretKey();
+            }
         }
         if (secretKey != null)
             secretKey = secretKey.trim();
@@ -2,9 +2,6 @@ package com.netease.stream.auth;
 
 import java.io.UnsupportedEncodingException;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-
 import org.apache.commons.codec.binary.Base64;
 
 import com.netease.stream.exception.ClientException;
@@ -88,9 +85,7 @@ public abstract class AbstractStringSigner implements StringSigner {
     protected byte[] sign(byte[] data, byte[] key, SigningAlgorithm algorithm)
             throws ClientException {
         try {
-            Mac mac = Mac.getInstance(algorithm.toString());
-            mac.init(new SecretKeySpec(key, algorithm.toString()));
-            return mac.doFinal(data);
+            return MacCache.sign(algorithm, key, data);
         } catch (Exception e) {
             throw new ClientException("Unable to calculate a request signature: " + e.getMessage(),
                     e);
@@ -100,7 +95,8 @@ public abstract class AbstractStringSigner implements StringSigner {
     /**
      * Loads the individual access key ID and secret key from the specified credentials, ensuring
      * that access to the credentials is synchronized on the credentials object itself, and trimming
-     * any extra whitespace from the credentials.
+     * any extra whitespace from the credentials. Immutable {@link BasicCredentials} are read
+     * without taking their monitor, which would pin a virtual thread to its carrier.
      * 
      * @param credentials.
      * @return Credentials A new credentials object with the sanitized credentials.
@@ -108,10 +104,14 @@ public abstract class AbstractStringSigner implements StringSigner {
     protected Credentials sanitizeCredentials(Credentials credentials) {
         String accessKeyId = null;
         String secretKey = null;
-        synchronized (credentials) {
+        if (credentials instanceof BasicCredentials) {
             accessKeyId = credentials.getAccessKeyId();
             secretKey = credentials.getSecretKey();
-
+        } else {
+            synchronized (credentials) {
+                accessKeyId = credentials.getAccessKeyId();
+                secretKey = credentials.getSecretKey();
+            }
         }
         if (secretKey != null)
             secretKey = secretKey.trim();
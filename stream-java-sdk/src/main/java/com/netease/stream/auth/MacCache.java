@@ -0,0 +1,118 @@
+package com.netease.stream.auth;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.netease.stream.util.ThreadCache;
+
+/**
+ * Per-thread cache of initialized {@link Mac} instances, keyed by signing algorithm and key.
+ * <p>
+ * Looking up a Mac through the JCA providers and initializing it with a key costs far more than
+ * signing the few hundred bytes of a canonical request string. Since a Mac is reset by
+ * {@link Mac#doFinal(byte[])}, an initialized instance can be reused for every request signed with
+ * the same credentials on the same thread. Virtual threads share a few caches instead, see
+ * {@link ThreadCache}.
+ */
+final class MacCache {
+
+    /** The maximum number of keys a thread keeps initialized Macs for. */
+    private static final int MAX_ENTRIES = 16;
+
+    private static final ThreadCache<MacCache> cache = new ThreadCache<MacCache>() {
+        @Override
+        protected MacCache create() {
+            return new MacCache();
+        }
+    };
+
+    /** The most recently used entry, checked first since most clients sign with one key. */
+    private CachedMac last;
+
+    private final Map<CachedMac, CachedMac> entries = new LinkedHashMap<CachedMac, CachedMac>(
+            MAX_ENTRIES, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CachedMac, CachedMac> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private MacCache() {}
+
+    /**
+     * Signs data with a Mac of the calling thread initialized with the specified key.
+     *
+     * @param algorithm The signing algorithm.
+     * @param key The signing key.
+     * @param data The data to sign.
+     * @return The signature.
+     * @throws GeneralSecurityException If the algorithm is not available or the key is invalid.
+     */
+    static byte[] sign(SigningAlgorithm algorithm, byte[] key, byte[] data)
+            throws GeneralSecurityException {
+        MacCache macs = cache.acquire();
+        try {
+            return macs.lookup(algorithm, key).doFinal(data);
+        } finally {
+            cache.release(macs);
+        }
+    }
+
+    private Mac lookup(SigningAlgorithm algorithm, byte[] key) throws GeneralSecurityException {
+        CachedMac entry = last;
+        if (entry != null && entry.matches(algorithm, key)) {
+            return entry.mac;
+        }
+
+        CachedMac probe = new CachedMac(algorithm, key.clone(), null);
+        entry = entries.get(probe);
+        if (entry == null) {
+            Mac mac = Mac.getInstance(algorithm.toString());
+            mac.init(new SecretKeySpec(probe.key, algorithm.toString()));
+            entry = new CachedMac(algorithm, probe.key, mac);
+            entries.put(entry, entry);
+        }
+        last = entry;
+        return entry.mac;
+    }
+
+    private static final class CachedMac {
+        private final SigningAlgorithm algorithm;
+        private final byte[] key;
+        private final Mac mac;
+        private final int hash;
+
+        CachedMac(SigningAlgorithm algorithm, byte[] key, Mac mac) {
+            this.algorithm = algorithm;
+            this.key = key;
+            this.mac = mac;
+            this.hash = 31 * algorithm.hashCode() + Arrays.hashCode(key);
+        }
+
+        boolean matches(SigningAlgorithm algorithm, byte[] key) {
+            return this.algorithm == algorithm && Arrays.equals(this.key, key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CachedMac)) {
+                return false;
+            }
+            CachedMac other = (CachedMac) obj;
+            return matches(other.algorithm, other.key);
+        }
+    }
+
+}
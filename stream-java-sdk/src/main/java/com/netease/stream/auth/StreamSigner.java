@@ -1,14 +1,12 @@
 package com.netease.stream.auth;
 
-import java.util.Date;
-
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.netease.stream.exception.ClientException;
 import com.netease.stream.http.Headers;
 import com.netease.stream.http.Request;
-import com.netease.stream.util.DateUtils;
+import com.netease.stream.util.DateHeaderProvider;
 import com.netease.stream.util.StringUtils;
 
 /**
@@ -19,6 +17,9 @@ public class StreamSigner extends AbstractSigner {
     /** Shared log for signing debug output */
     private static final Log log = LogFactory.getLog(StreamSigner.class);
 
+    /** Source of the Date header signed into every request. */
+    private final DateHeaderProvider dateHeaderProvider = DateHeaderProvider.getInstance();
+
     /**
      * Constructs a new S3Signer to sign requests based on the credentials, HTTP method and
      * canonical S3 resource path.
@@ -40,7 +41,7 @@ public class StreamSigner extends AbstractSigner {
 
         Credentials sanitizedCredentials = sanitizeCredentials(credentials);
 
-        request.addHeader(Headers.DATE, new DateUtils().formatRfc1123Date(new Date()));
+        request.addHeader(Headers.DATE, dateHeaderProvider.currentDate());
         String canonicalString = StringUtils.makeCanonicalString(request);
 
         String signature =
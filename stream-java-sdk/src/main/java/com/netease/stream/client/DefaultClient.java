@@ -15,10 +15,10 @@ public abstract class DefaultClient {
     protected URI endpoint;
 
     /** The client configuration */
-    protected ClientConfiguration clientConfiguration;
+    protected volatile ClientConfiguration clientConfiguration;
 
     /** Low level client for sending requests to services. */
-    protected NeteaseHttpClient client;
+    protected volatile NeteaseHttpClient client;
 
 
     /**
@@ -43,6 +43,18 @@ public abstract class DefaultClient {
      * @throws IllegalArgumentException If any problems are detected with the specified endpoint.
      */
     public void setEndpoint(String endpoint) throws IllegalArgumentException {
+        this.endpoint = toEndpointURI(endpoint);
+    }
+
+    /**
+     * Turns an endpoint or a full URL into a URI without changing the state of this client, so it
+     * is safe to call from any number of threads.
+     * 
+     * @param endpoint The endpoint or a full URL, including the protocol.
+     * @return The endpoint URI.
+     * @throws IllegalArgumentException If any problems are detected with the specified endpoint.
+     */
+    protected URI toEndpointURI(String endpoint) throws IllegalArgumentException {
         /*
          * If the endpoint doesn't explicitly specify a protocol to use, then we'll defer to the
          * default protocol specified in the client configuration.
@@ -52,7 +64,7 @@ public abstract class DefaultClient {
         }
 
         try {
-            this.endpoint = new URI(endpoint);
+            return new URI(endpoint);
         } catch (URISyntaxException e) {
             throw new IllegalArgumentException(e);
         }
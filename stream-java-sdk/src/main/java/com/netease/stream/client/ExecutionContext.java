@@ -0,0 +1,64 @@
+package com.netease.stream.client;
+
+import com.netease.stream.auth.Credentials;
+import com.netease.stream.auth.Signer;
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.http.Request;
+
+/**
+ * State needed to execute a request beyond the request itself: the signer and credentials used
+ * to sign it again before each retry, since the signature covers the Date header, and whether the
+ * request may be sent more than once at a time.
+ */
+public class ExecutionContext {
+
+    private final Signer signer;
+
+    private final Credentials credentials;
+
+    private final boolean idempotent;
+
+    /**
+     * Constructs a new execution context for a request which is not idempotent.
+     *
+     * @param signer The signer the request is signed with.
+     * @param credentials The credentials the request is signed with.
+     */
+    public ExecutionContext(Signer signer, Credentials credentials) {
+        this(signer, credentials, false);
+    }
+
+    /**
+     * Constructs a new execution context.
+     *
+     * @param signer The signer the request is signed with.
+     * @param credentials The credentials the request is signed with.
+     * @param idempotent Whether the request is a read, which may be hedged.
+     */
+    public ExecutionContext(Signer signer, Credentials credentials, boolean idempotent) {
+        this.signer = signer;
+        this.credentials = credentials;
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * Signs the request again, replacing its Date and Authorization headers.
+     *
+     * @param request The request to sign.
+     * @throws ClientException If the request can not be signed.
+     */
+    public void sign(Request request) throws ClientException {
+        signer.sign(request, credentials);
+    }
+
+    /**
+     * Returns whether the request is idempotent, so a copy of it may be sent while it is in
+     * flight.
+     *
+     * @return true for reads.
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+}
@@ -1,22 +1,42 @@
 package com.netease.stream.client;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.http.Header;
-import org.apache.http.HttpStatus;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpRequestBase;
 
 import com.netease.stream.config.ClientConfiguration;
 import com.netease.stream.exception.ClientException;
 import com.netease.stream.exception.ServiceException;
-import com.netease.stream.http.HttpClientFactory;
-import com.netease.stream.http.HttpRequestFactory;
+import com.netease.stream.http.ApacheHttpTransport;
+import com.netease.stream.http.ConnectionPoolStats;
+import com.netease.stream.http.DefaultRequest;
 import com.netease.stream.http.HttpResponse;
-import com.netease.stream.http.IdleConnectionReaper;
+import com.netease.stream.http.HttpResponseHandler;
+import com.netease.stream.http.HttpTransport;
+import com.netease.stream.http.NioHttpTransport;
 import com.netease.stream.http.Request;
+import com.netease.stream.http.TransportType;
+import com.netease.stream.policy.CircuitBreaker;
+import com.netease.stream.policy.CircuitState;
+import com.netease.stream.policy.ConcurrencyLimiter;
+import com.netease.stream.policy.HedgingPolicy;
+import com.netease.stream.policy.LoadBalancer;
+import com.netease.stream.policy.RetryPolicy;
 import com.netease.stream.util.StringUtils;
 
 public class NeteaseHttpClient {
@@ -25,23 +45,43 @@ public class NeteaseHttpClient {
      * Logger providing detailed information on requests/responses.
      */
     private static final Log log = LogFactory.getLog(NeteaseHttpClient.class);
-    /** Internal client for sending HTTP requests */
-    private HttpClient httpClient;
+    /** Transport sending the HTTP requests */
+    private final HttpTransport transport;
     /** Client configuration options, such as proxy settings, max retries, etc. */
     private final ClientConfiguration config;
-    private static HttpRequestFactory httpRequestFactory = new HttpRequestFactory();
-    private static HttpClientFactory httpClientFactory = new HttpClientFactory();
+    private static final HttpResponseHandler<HttpResponse> contentHandler =
+            new ContentResponseHandler();
+    private static final HttpResponseHandler<HttpResponse> bufferingHandler =
+            new BufferingResponseHandler();
 
     /**
      * Constructs a new client using the specified client configuration options (ex: max retry
-     * attempts, proxy settings, etc).
+     * attempts, proxy settings, etc), sending requests with the transport selected by
+     * {@link ClientConfiguration#getTransportType()}.
      * 
      * @param clientConfiguration Configuration options specifying how this client will communicate.
      * 
      */
     public NeteaseHttpClient(ClientConfiguration clientConfiguration) {
+        this(clientConfiguration, createTransport(clientConfiguration));
+    }
+
+    /**
+     * Constructs a new client sending requests with the specified transport.
+     * 
+     * @param clientConfiguration Configuration options specifying how this client will communicate.
+     * @param transport The transport sending the requests.
+     */
+    public NeteaseHttpClient(ClientConfiguration clientConfiguration, HttpTransport transport) {
         this.config = clientConfiguration;
-        this.httpClient = httpClientFactory.createHttpClient(config);
+        this.transport = transport;
+    }
+
+    private static HttpTransport createTransport(ClientConfiguration config) {
+        if (config.getTransportType() == TransportType.NIO) {
+            return new NioHttpTransport(config);
+        }
+        return new ApacheHttpTransport(config);
     }
 
     /**
@@ -52,47 +92,411 @@ public class NeteaseHttpClient {
      * 
      */
     public HttpResponse execute(Request request) throws ClientException, ServiceException {
+        return execute(request, contentHandler);
+    }
+
+    /**
+     * Executes the request once and hands the response, with its body still streaming from the
+     * connection, to the specified handler.
+     * 
+     * @param request The Services request to send to the remote server.
+     * @param responseHandler Handler turning the response into the result.
+     * @return The result returned by the response handler.
+     */
+    public <T> T execute(Request request, HttpResponseHandler<T> responseHandler)
+            throws ClientException, ServiceException {
+        return execute(request, responseHandler, null);
+    }
+
+    /**
+     * Executes the request and hands the response, with its body still streaming from the
+     * connection, to the specified handler. Failures accepted by the
+     * {@link ClientConfiguration#getRetryPolicy() retry policy} are retried after a backoff, the
+     * request signed again with the execution context. With a
+     * {@link ClientConfiguration#getConcurrencyLimiter() concurrency limiter}, every attempt first
+     * waits for a slot of the host. With a {@link ClientConfiguration#getCircuitBreaker() circuit
+     * breaker}, attempts to a host whose circuit is open fail right away with a
+     * {@link com.netease.stream.exception.CircuitBreakerOpenException}, which is not retried.
+     * Requests to an endpoint of the {@link ClientConfiguration#getLoadBalancer() load balancer}
+     * are retried on another endpoint, and sent to another one right away if the circuit of their
+     * endpoint is open. Idempotent requests are hedged by the
+     * {@link ClientConfiguration#getHedgingPolicy() hedging policy}, if there is one; the request
+     * and its copy each take a permit of the circuit breaker and of the load balancer, released
+     * with their own outcome, and share the slot of the concurrency limiter.
+     * 
+     * @param request The Services request to send to the remote server.
+     * @param responseHandler Handler turning the response into the result.
+     * @param context The context signing retries, or null to send the request once.
+     * @return The result returned by the response handler.
+     */
+    public <T> T execute(Request request, HttpResponseHandler<T> responseHandler,
+            ExecutionContext context) throws ClientException, ServiceException {
+        for (int retries = 0;; retries++) {
+            ClientException failure = null;
+            reroute(request, retries > 0);
+            CircuitBreaker.Permit circuit = acquireCircuit(request);
+            ConcurrencyLimiter.Permit permit;
+            try {
+                permit = acquirePermit(request);
+            } catch (ClientException e) {
+                if (circuit != null) {
+                    circuit.cancel();
+                }
+                throw e;
+            }
+            LoadBalancer.Permit node = startNode(request);
+            try {
+                HedgingPolicy hedgingPolicy = getHedgingPolicy(context);
+                if (hedgingPolicy != null) {
+                    // The hedged execution releases the circuit and node of each request it sends.
+                    HedgedExecution hedged = new HedgedExecution(request, context, hedgingPolicy,
+                            circuit, node);
+                    circuit = null;
+                    node = null;
+                    return executeHedged(hedged, responseHandler);
+                }
+                return transport.execute(request, responseHandler);
+            } catch (IOException ioe) {
+                failure = toClientException(ioe);
+            } catch (ClientException e) {
+                failure = e;
+            } finally {
+                if (node != null) {
+                    node.release(failure);
+                }
+                if (permit != null) {
+                    permit.release(failure);
+                }
+                if (circuit != null) {
+                    circuit.release(failure);
+                }
+            }
+            if (!shouldRetry(request, failure, retries, context)) {
+                throw failure;
+            }
+            long delay = config.getRetryPolicy().getDelayMillis(retries);
+            logRetry(request, failure, retries, delay);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting to retry request", e);
+            }
+            context.sign(request);
+        }
+    }
 
+    /**
+     * Executes the request once without blocking the calling thread. The returned future completes
+     * with the result of the handler, or exceptionally with a ClientException or
+     * ServiceException.
+     * 
+     * @param request The Services request to send to the remote server.
+     * @param responseHandler Handler turning the response into the result.
+     * @return A future completed with the result returned by the response handler.
+     */
+    public <T> CompletableFuture<T> executeAsync(Request request,
+            HttpResponseHandler<T> responseHandler) {
+        return executeAsync(request, responseHandler, null);
+    }
+
+    /**
+     * Executes the request without blocking the calling thread, retrying failures accepted by the
+     * retry policy like {@link #execute(Request, HttpResponseHandler, ExecutionContext)}. No thread
+     * is held during the backoff, nor while waiting for the concurrency limiter. Cancelling the
+     * returned future aborts the request in flight and stops further retries.
+     * 
+     * @param request The Services request to send to the remote server.
+     * @param responseHandler Handler turning the response into the result.
+     * @param context The context signing retries, or null to send the request once.
+     * @return A future completed with the result returned by the response handler.
+     */
+    public <T> CompletableFuture<T> executeAsync(Request request,
+            HttpResponseHandler<T> responseHandler, ExecutionContext context) {
+        CompletableFuture<T> result = new CompletableFuture<T>();
+        executeAsync(request, responseHandler, context, 0, result);
+        return result;
+    }
+
+    private <T> void executeAsync(final Request request,
+            final HttpResponseHandler<T> responseHandler, final ExecutionContext context,
+            final int retries, final CompletableFuture<T> result) {
+        if (result.isDone()) {
+            // Cancelled by the caller while waiting to retry.
+            return;
+        }
+        final CircuitBreaker.Permit circuit;
         try {
-            return executeHelper(request);
+            reroute(request, retries > 0);
+            circuit = acquireCircuit(request);
         } catch (ClientException e) {
-            throw e;
+            result.completeExceptionally(e);
+            return;
         }
+        ConcurrencyLimiter limiter = config.getConcurrencyLimiter();
+        if (limiter == null) {
+            sendAsync(request, responseHandler, context, retries, result, circuit, null);
+            return;
+        }
+        limiter.acquireAsync(getHost(request)).whenComplete(
+                new BiConsumer<ConcurrencyLimiter.Permit, Throwable>() {
+                    public void accept(ConcurrencyLimiter.Permit permit, Throwable t) {
+                        if (t == null) {
+                            sendAsync(request, responseHandler, context, retries, result,
+                                    circuit, permit);
+                            return;
+                        }
+                        if (circuit != null) {
+                            circuit.cancel();
+                        }
+                        result.completeExceptionally(t);
+                    }
+                });
+    }
+
+    private <T> void sendAsync(final Request request,
+            final HttpResponseHandler<T> responseHandler, final ExecutionContext context,
+            final int retries, final CompletableFuture<T> result,
+            final CircuitBreaker.Permit circuit, final ConcurrencyLimiter.Permit permit) {
+        final HedgingPolicy hedgingPolicy = getHedgingPolicy(context);
+        final LoadBalancer.Permit node = startNode(request);
+        BiConsumer<T, Throwable> completion = new BiConsumer<T, Throwable>() {
+            public void accept(T value, Throwable t) {
+                Throwable cause = t instanceof CompletionException && t.getCause() != null
+                        ? t.getCause() : t;
+                if (cause instanceof IOException) {
+                    cause = toClientException((IOException) cause);
+                }
+                if (hedgingPolicy == null && cause instanceof CancellationException) {
+                    // Aborted by the caller, which says nothing about the host.
+                    if (node != null) {
+                        node.cancel();
+                    }
+                    if (circuit != null) {
+                        circuit.cancel();
+                    }
+                } else if (hedgingPolicy == null) {
+                    if (node != null) {
+                        node.release(cause);
+                    }
+                    if (circuit != null) {
+                        circuit.release(cause);
+                    }
+                }
+                if (permit != null) {
+                    permit.release(cause);
+                }
+                if (t == null) {
+                    result.complete(value);
+                    return;
+                }
+                if (!(cause instanceof ClientException)
+                        || !shouldRetry(request, (ClientException) cause, retries, context)) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                long delay = config.getRetryPolicy().getDelayMillis(retries);
+                logRetry(request, (ClientException) cause, retries, delay);
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(
+                        new Runnable() {
+                            public void run() {
+                                try {
+                                    context.sign(request);
+                                } catch (RuntimeException e) {
+                                    result.completeExceptionally(e);
+                                    return;
+                                }
+                                executeAsync(request, responseHandler, context, retries + 1,
+                                        result);
+                            }
+                        });
+            }
+        };
+        final CompletableFuture<?> attempt;
+        if (hedgingPolicy == null) {
+            CompletableFuture<T> sent = transport.executeAsync(request, responseHandler);
+            sent.whenComplete(completion);
+            attempt = sent;
+        } else {
+            CompletableFuture<HttpResponse> hedged =
+                    new HedgedExecution(request, context, hedgingPolicy, circuit, node).start();
+            hedged.thenApply(new Function<HttpResponse, T>() {
+                public T apply(HttpResponse response) {
+                    try {
+                        return responseHandler.handle(response);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }
+            }).whenComplete(completion);
+            attempt = hedged;
+        }
+        result.whenComplete(new BiConsumer<T, Throwable>() {
+            public void accept(T value, Throwable t) {
+                if (result.isCancelled()) {
+                    // Cancelling the result does not reach the transport by itself.
+                    attempt.cancel(true);
+                }
+            }
+        });
     }
 
     /**
-     * Internal method to execute the HTTP method given.
+     * Executes a hedged request and hands the response which won to the handler, on the calling
+     * thread.
+     */
+    private <T> T executeHedged(HedgedExecution hedged, HttpResponseHandler<T> responseHandler)
+            throws IOException {
+        CompletableFuture<HttpResponse> response = hedged.start();
+        HttpResponse winner;
+        try {
+            winner = response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while executing HTTP request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ClientException("Unable to execute HTTP request: " + cause.getMessage(),
+                    cause);
+        }
+        return responseHandler.handle(winner);
+    }
+
+    private HedgingPolicy getHedgingPolicy(ExecutionContext context) {
+        return context != null && context.isIdempotent() ? config.getHedgingPolicy() : null;
+    }
+
+    /**
+     * Waits for a slot of the host of the request, if the requests in flight are limited.
      * 
-     * @see NeteaseHttpClient#execute(Request)
+     * @return The permit to release once the request completed, or null without a limiter.
      */
-    private HttpResponse executeHelper(Request request) throws ClientException, ServiceException {
+    private ConcurrencyLimiter.Permit acquirePermit(Request request) throws ClientException {
+        ConcurrencyLimiter limiter = config.getConcurrencyLimiter();
+        return limiter != null ? limiter.acquire(getHost(request)) : null;
+    }
 
-        HttpRequestBase httpRequest = httpRequestFactory.createHttpRequest(request);
-        org.apache.http.HttpResponse response = null;
-        try {
-            response = httpClient.execute(httpRequest);
-            if (isRequestSuccessful(response)) {
-                log.info("execute HTTP request successfully");
-            } else {
-                log.warn("Unable to execute HTTP request Code:"
-                        + response.getStatusLine().getStatusCode() + ", message:"
-                        + response.getStatusLine().getReasonPhrase());
-            }
-            return createResponse(httpRequest, request, response);
-        } catch (IOException ioe) {
-            log.warn("Unable to execute HTTP request: " + ioe.getMessage(), ioe);
-            throw new ClientException("Unable to execute HTTP request: " + ioe.getMessage(), ioe);
-        } finally {
-            /*
-             * Some response handlers need to manually manage the HTTP connection and will take care
-             * of releasing the connection on their own, but if this response handler doesn't need
-             * the connection left open, we go ahead and release the it to free up resources.
-             */
-            try {
-                response.getEntity().getContent().close();
-            } catch (Throwable t) {
+    /**
+     * Admits the request through the circuit breaker of its host, if there is one.
+     * 
+     * @return The permit to release once the request completed, or null without a breaker.
+     */
+    private CircuitBreaker.Permit acquireCircuit(Request request) throws ClientException {
+        CircuitBreaker circuitBreaker = config.getCircuitBreaker();
+        return circuitBreaker != null ? circuitBreaker.acquire(getHost(request)) : null;
+    }
+
+    /**
+     * Moves a request to another endpoint of the load balancer on failover or a retry, or if the
+     * circuit of its endpoint is open. Requests to other hosts are left alone. The
+     * signature does not cover the host, so the request needs not be signed again.
+     */
+    private void reroute(Request request, boolean failover) {
+        LoadBalancer loadBalancer = config.getLoadBalancer();
+        if (loadBalancer == null) {
+            return;
+        }
+        String host = getHost(request);
+        if (!loadBalancer.contains(host) || (!failover && !isCircuitOpen(host))) {
+            return;
+        }
+        String other = loadBalancer.select(host);
+        if (!other.equals(host)) {
+            request.setEndpoint(URI.create(request.getEndpoint().getScheme() + "://" + other));
+        }
+    }
+
+    private boolean isCircuitOpen(String host) {
+        CircuitBreaker circuitBreaker = config.getCircuitBreaker();
+        return circuitBreaker != null && circuitBreaker.getState(host) == CircuitState.OPEN;
+    }
+
+    /**
+     * Picks the host of the hedged copy of a request: another endpoint of the load balancer which
+     * is not ejected and whose circuit is closed, or the host of the request itself if it is not
+     * load balanced and its circuit is closed. Hedges never probe a host which is recovering.
+     * 
+     * @return true if the copy was addressed to such a host, false if it must not be sent.
+     */
+    private boolean routeHedge(Request copy) {
+        String host = getHost(copy);
+        LoadBalancer loadBalancer = config.getLoadBalancer();
+        if (loadBalancer == null || !loadBalancer.contains(host)) {
+            return isCircuitClosed(host);
+        }
+        String other = loadBalancer.select(host);
+        if (!isHedgeTarget(loadBalancer, other, host)) {
+            other = null;
+            for (String endpoint : loadBalancer.getEndpoints()) {
+                if (isHedgeTarget(loadBalancer, endpoint, host)) {
+                    other = endpoint;
+                    break;
+                }
+            }
+            if (other == null) {
+                return false;
             }
         }
+        copy.setEndpoint(URI.create(copy.getEndpoint().getScheme() + "://" + other));
+        return true;
+    }
+
+    private boolean isHedgeTarget(LoadBalancer loadBalancer, String endpoint, String host) {
+        return !endpoint.equals(host) && !loadBalancer.isEjected(endpoint)
+                && isCircuitClosed(endpoint);
+    }
+
+    private boolean isCircuitClosed(String host) {
+        CircuitBreaker circuitBreaker = config.getCircuitBreaker();
+        return circuitBreaker == null || circuitBreaker.getState(host) == CircuitState.CLOSED;
+    }
+
+    /**
+     * Records the request with its endpoint, if the endpoint belongs to the load balancer.
+     * 
+     * @return The permit to release once the request completed, or null.
+     */
+    private LoadBalancer.Permit startNode(Request request) {
+        LoadBalancer loadBalancer = config.getLoadBalancer();
+        return loadBalancer != null ? loadBalancer.start(getHost(request)) : null;
+    }
+
+    private static String getHost(Request request) {
+        return request.getEndpoint().getAuthority();
+    }
+
+    private boolean shouldRetry(Request request, ClientException failure, int retries,
+            ExecutionContext context) {
+        RetryPolicy retryPolicy = config.getRetryPolicy();
+        return context != null && retryPolicy != null
+                && retryPolicy.shouldRetry(request, context.isIdempotent(), failure, retries);
+    }
+
+    private static void logRetry(Request request, ClientException failure, int retries,
+            long delay) {
+        log.info("Retrying request to " + request.getResourcePath() + " in " + delay
+                + " ms, retry " + (retries + 1) + ": " + failure.getMessage());
+    }
+
+    private static ClientException toClientException(IOException ioe) {
+        log.warn("Unable to execute HTTP request: " + ioe.getMessage(), ioe);
+        return new ClientException("Unable to execute HTTP request: " + ioe.getMessage(), ioe);
+    }
+
+    /**
+     * Returns a snapshot of the connections of each route the transport connected to.
+     * 
+     * @return The snapshots, one per route, empty if the transport does not expose its pool.
+     */
+    public List<ConnectionPoolStats> getConnectionPoolStats() {
+        return transport.getConnectionPoolStats();
     }
 
     /**
@@ -102,42 +506,223 @@ public class NeteaseHttpClient {
      * make more requests.
      */
     public void shutdown() {
-        IdleConnectionReaper.removeConnectionManager(httpClient.getConnectionManager());
-        httpClient.getConnectionManager().shutdown();
+        transport.shutdown();
     }
 
-    private boolean isRequestSuccessful(org.apache.http.HttpResponse response) {
-        int status = response.getStatusLine().getStatusCode();
-        return status / 100 == HttpStatus.SC_OK / 100;
+    /**
+     * One request sent with its hedging policy. The request is sent and, if no response arrived
+     * within the hedging delay, a copy of it signed again is sent too, on another connection, to
+     * another endpoint if the request is load balanced. The copy is only sent to a host whose
+     * circuit is closed. The first response which is not a server error wins, and the request
+     * still in flight is cancelled. Responses are buffered, so the response handler runs on the
+     * winner only.
+     * <p>
+     * Each request holds its own permits of the circuit breaker and of the load balancer, released
+     * with its own outcome once it completes, or cancelled without an outcome if it lost. A host
+     * whose requests are always rescued by their copy is therefore never credited with their
+     * success.
+     */
+    private final class HedgedExecution {
+
+        private final Request request;
+
+        private final ExecutionContext context;
+
+        private final HedgingPolicy policy;
+
+        private final CircuitBreaker.Permit circuit;
+
+        private final LoadBalancer.Permit node;
+
+        private final long startNanos = System.nanoTime();
+
+        private final CompletableFuture<HttpResponse> result =
+                new CompletableFuture<HttpResponse>();
+
+        private final Queue<CompletableFuture<HttpResponse>> attempts =
+                new ConcurrentLinkedQueue<CompletableFuture<HttpResponse>>();
+
+        /** Number of requests sent without a response yet. */
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        /**
+         * @param circuit The circuit permit of the request, or null without a circuit breaker.
+         * @param node The load balancer permit of the request, or null if it is not balanced.
+         */
+        HedgedExecution(Request request, ExecutionContext context, HedgingPolicy policy,
+                CircuitBreaker.Permit circuit, LoadBalancer.Permit node) {
+            this.request = request;
+            this.context = context;
+            this.policy = policy;
+            this.circuit = circuit;
+            this.node = node;
+        }
+
+        CompletableFuture<HttpResponse> start() {
+            result.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+                public void accept(HttpResponse response, Throwable t) {
+                    // The loser, or both requests if the caller gave up.
+                    for (CompletableFuture<HttpResponse> attempt : attempts) {
+                        attempt.cancel(true);
+                    }
+                }
+            });
+            send(request, circuit, node);
+            long delay = policy.getDelayNanos(request.getResourcePath());
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(
+                    new Runnable() {
+                        public void run() {
+                            hedge();
+                        }
+                    });
+            return result;
+        }
+
+        private void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            Request copy = copyRequest(request);
+            CircuitBreaker.Permit copyCircuit;
+            try {
+                if (!routeHedge(copy)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Not hedging request to " + request.getResourcePath()
+                                + ": no other host has a closed circuit");
+                    }
+                    return;
+                }
+                copyCircuit = acquireCircuit(copy);
+            } catch (ClientException e) {
+                // The circuit opened since it was checked.
+                return;
+            }
+            try {
+                context.sign(copy);
+            } catch (RuntimeException e) {
+                if (copyCircuit != null) {
+                    copyCircuit.cancel();
+                }
+                log.warn("Unable to sign hedged request: " + e.getMessage(), e);
+                return;
+            }
+            pending.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Hedging request to " + request.getResourcePath() + " on "
+                        + getHost(copy));
+            }
+            send(copy, copyCircuit, startNode(copy));
+        }
+
+        private void send(Request attemptRequest, final CircuitBreaker.Permit attemptCircuit,
+                final LoadBalancer.Permit attemptNode) {
+            CompletableFuture<HttpResponse> attempt;
+            try {
+                attempt = transport.executeAsync(attemptRequest, bufferingHandler);
+            } catch (RuntimeException e) {
+                attempt = CompletableFuture.failedFuture(e);
+            }
+            attempts.add(attempt);
+            attempt.whenComplete(new BiConsumer<HttpResponse, Throwable>() {
+                public void accept(HttpResponse response, Throwable t) {
+                    release(attemptCircuit, attemptNode, response, t);
+                    onResponse(response, t);
+                }
+            });
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+
+        /**
+         * Records the outcome of one request with the circuit and the endpoint it was sent to, or
+         * cancels its permits if it was cancelled.
+         */
+        private void release(CircuitBreaker.Permit attemptCircuit,
+                LoadBalancer.Permit attemptNode, HttpResponse response, Throwable t) {
+            Throwable failure = t instanceof CompletionException && t.getCause() != null
+                    ? t.getCause() : t;
+            if (failure instanceof CancellationException) {
+                if (attemptNode != null) {
+                    attemptNode.cancel();
+                }
+                if (attemptCircuit != null) {
+                    attemptCircuit.cancel();
+                }
+                return;
+            }
+            if (failure == null && response.getStatusCode() >= 500) {
+                ServiceException serverError =
+                        new ServiceException("Server error " + response.getStatusCode());
+                serverError.setStatusCode(response.getStatusCode());
+                failure = serverError;
+            }
+            if (attemptNode != null) {
+                attemptNode.release(failure);
+            }
+            if (attemptCircuit != null) {
+                attemptCircuit.release(failure);
+            }
+        }
+
+        private void onResponse(HttpResponse response, Throwable t) {
+            boolean last = pending.decrementAndGet() == 0;
+            if (t == null && (response.getStatusCode() < 500 || last)) {
+                if (result.complete(response)) {
+                    policy.recordLatency(request.getResourcePath(),
+                            System.nanoTime() - startNanos);
+                }
+            } else if (last) {
+                result.completeExceptionally(t instanceof CompletionException
+                        && t.getCause() != null ? t.getCause() : t);
+            }
+        }
     }
 
     /**
-     * Creates and initializes an HttpResponse object suitable to be passed to an HTTP response
-     * handler object.
-     * 
-     * @param method The HTTP method that was invoked to get the response.
-     * @param request The HTTP request associated with the response.
-     * @return The new, initialized HttpResponse object ready to be passed to an HTTP response
-     *         handler object.
-     * @throws IOException If there were any problems getting any response information from the
-     *         HttpClient method object.
+     * Copies a request, so a copy can be signed and sent while the original is in flight.
      */
-    private HttpResponse createResponse(HttpRequestBase method, Request request,
-            org.apache.http.HttpResponse apacheHttpResponse) throws IOException {
-        HttpResponse httpResponse = new HttpResponse(request, method);
+    private static Request copyRequest(Request request) {
+        DefaultRequest copy = new DefaultRequest();
+        copy.setHttpMethod(request.getHttpMethod());
+        copy.setEndpoint(request.getEndpoint());
+        copy.setResourcePath(request.getResourcePath());
+        copy.setServiceName(request.getServiceName());
+        copy.setHeaders(request.getHeaders());
+        copy.setParameters(request.getParameters());
+        copy.setContent(request.getContent());
+        copy.setContentBytes(request.getContentBytes());
+        copy.setEncryptContent(request.getEncryptContent());
+        return copy;
+    }
 
-        if (apacheHttpResponse.getEntity() != null) {
-            httpResponse.setContent(new StringUtils().convertStreamToString(apacheHttpResponse
-                    .getEntity().getContent()));
+    /**
+     * Response handler reading the whole body into the content of the response, for callers of
+     * {@link #execute(Request)}.
+     */
+    private static final class ContentResponseHandler implements HttpResponseHandler<HttpResponse> {
+        public HttpResponse handle(HttpResponse response) throws IOException {
+            if (response.getContentStream() != null) {
+                response.setContent(new StringUtils().convertStreamToString(
+                        response.getContentStream(), response.getContentLength()));
+            }
+            return response;
         }
+    }
 
-        httpResponse.setStatusCode(apacheHttpResponse.getStatusLine().getStatusCode());
-        httpResponse.setStatusText(apacheHttpResponse.getStatusLine().getReasonPhrase());
-        for (Header header : apacheHttpResponse.getAllHeaders()) {
-            httpResponse.addHeader(header.getName(), header.getValue());
+    /**
+     * Response handler receiving the whole body, so the response can be handled after its
+     * connection has been released.
+     */
+    private static final class BufferingResponseHandler
+            implements HttpResponseHandler<HttpResponse> {
+        public HttpResponse handle(HttpResponse response) throws IOException {
+            InputStream content = response.getContentStream();
+            if (content != null) {
+                response.setContentStream(new ByteArrayInputStream(content.readAllBytes()));
+            }
+            return response;
         }
-
-        return httpResponse;
     }
 
 }
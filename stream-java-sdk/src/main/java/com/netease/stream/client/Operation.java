@@ -0,0 +1,44 @@
+package com.netease.stream.client;
+
+/**
+ * Operations of the streamproxy client, the unit metrics are recorded by.
+ */
+public enum Operation {
+
+    PUT_RECORDS("putRecords", false),
+
+    GET_RECORDS("getRecords", true),
+
+    GET_LOGS("getLogs", true),
+
+    GET_OFFSET("getOffset", true),
+
+    GET_SUBSCRIPTION_POSITION("getSubscriptionPosition", true);
+
+    private final String name;
+
+    private final boolean idempotent;
+
+    private Operation(String name, boolean idempotent) {
+        this.name = name;
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * Returns the name of the method of {@link StreamClient} running this operation.
+     * 
+     * @return name of the operation, such as "getRecords".
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns whether the operation is a read, which may be sent more than once at a time.
+     * 
+     * @return true for reads.
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+}
@@ -0,0 +1,322 @@
+package com.netease.stream.client;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import com.netease.stream.config.ClientConfiguration;
+import com.netease.stream.http.HttpResponseHandler;
+import com.netease.stream.http.Request;
+import com.netease.stream.model.GetLogsResult;
+import com.netease.stream.model.GetRecordsResult;
+import com.netease.stream.model.OffsetResult;
+import com.netease.stream.model.PutRecordsResult;
+import com.netease.stream.model.SubscriptionPositionResult;
+import com.netease.stream.model.transform.PutRecordsResultHandler;
+import com.netease.stream.policy.RateLimiter;
+import com.netease.stream.util.VirtualThreads;
+
+/**
+ * Client for accessing the Netease streamproxy service asynchronously. Every operation of
+ * {@link StreamClient} has an asynchronous counterpart returning a CompletableFuture, which
+ * completes with the result or exceptionally with a ClientException or ServiceException.
+ * <p>
+ * Without an executor, requests are signed on the calling thread and handed to the transport of
+ * the client: the {@link com.netease.stream.http.TransportType#NIO} transport sends them without
+ * occupying any thread while waiting for the response, the blocking transport runs them on its own
+ * pool. With an executor, each operation runs as a blocking call on that executor, for example an
+ * executor starting a virtual thread per task. The executor is owned by the caller and is not shut
+ * down by {@link #shutdown()}.
+ * <p>
+ * With {@link ClientConfiguration#isUseVirtualThreads()} set and no executor, the client creates
+ * its own executor starting a virtual thread per operation, and shuts it down with the client.
+ */
+public class StreamAsyncClient extends StreamClient {
+
+    /** Executor running the operations, or null to use the transport. */
+    private final Executor executor;
+
+    /** Virtual thread executor created by this client, shut down with it. */
+    private final ExecutorService virtualThreadExecutor;
+
+    /**
+     * Constructs a new asynchronous streamproxy client sending requests with the transport.
+     *
+     * @param accessKey The access id to use when making requests to streamproxy with this client.
+     * @param secretKey The secret key to use when making requests to streamproxy with this client.
+     */
+    public StreamAsyncClient(String accessKey, String secretKey) {
+        this(accessKey, secretKey, new ClientConfiguration());
+    }
+
+    /**
+     * Constructs a new asynchronous streamproxy client sending requests with the transport
+     * selected by the client configuration.
+     *
+     * @param accessKey The access id to use when making requests to streamproxy with this client.
+     * @param secretKey The secret key to use when making requests to streamproxy with this client.
+     * @param clientConfiguration The client configuration options controlling how this client
+     *        connects to streamproxy.
+     */
+    public StreamAsyncClient(String accessKey, String secretKey,
+            ClientConfiguration clientConfiguration) {
+        this(accessKey, secretKey, clientConfiguration, null);
+    }
+
+    /**
+     * Constructs a new asynchronous streamproxy client running the operations on the specified
+     * executor.
+     *
+     * @param accessKey The access id to use when making requests to streamproxy with this client.
+     * @param secretKey The secret key to use when making requests to streamproxy with this client.
+     * @param clientConfiguration The client configuration options controlling how this client
+     *        connects to streamproxy.
+     * @param executor The executor running the operations, or null to use the transport.
+     * @throws com.netease.stream.exception.ClientException If no executor is specified, the
+     *         configuration asks for virtual threads and the JVM does not support them.
+     */
+    public StreamAsyncClient(String accessKey, String secretKey,
+            ClientConfiguration clientConfiguration, Executor executor) {
+        this(accessKey, secretKey, clientConfiguration, executor,
+                createVirtualThreadExecutor(clientConfiguration, executor));
+    }
+
+    private StreamAsyncClient(String accessKey, String secretKey,
+            ClientConfiguration clientConfiguration, Executor executor,
+            ExecutorService virtualThreadExecutor) {
+        super(accessKey, secretKey, clientConfiguration);
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.executor = virtualThreadExecutor != null ? virtualThreadExecutor : executor;
+    }
+
+    /**
+     * Creates the virtual thread executor before the transport, so a JVM without virtual threads
+     * fails the constructor without leaving a connection pool behind.
+     */
+    private static ExecutorService createVirtualThreadExecutor(
+            ClientConfiguration clientConfiguration, Executor executor) {
+        if (executor == null && clientConfiguration.isUseVirtualThreads()) {
+            return VirtualThreads.newThreadPerTaskExecutor();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the executor running the operations of this client.
+     *
+     * @return The executor, or null if the operations are handed to the transport.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get subscription position asynchronously.
+     *
+     * @param positionType wanted log position type.
+     * @param subscriptionName subscription logs name.
+     * @return future completed with the position of the subscription.
+     * @see StreamClient#getSubscriptionPosition(String, String)
+     */
+    public CompletableFuture<SubscriptionPositionResult> getSubscriptionPositionAsync(
+            final String positionType, final String subscriptionName) {
+        if (executor != null) {
+            return runAsync(new Supplier<SubscriptionPositionResult>() {
+                public SubscriptionPositionResult get() {
+                    return getSubscriptionPosition(positionType, subscriptionName);
+                }
+            });
+        }
+        return executeAsync(subscriptionName, new Supplier<Request>() {
+            public Request get() {
+                return newSubscriptionPositionRequest(positionType, subscriptionName);
+            }
+        }, subscriptionPositionHandler, Operation.GET_SUBSCRIPTION_POSITION);
+    }
+
+    /**
+     * Get logs asynchronously.
+     *
+     * @param logsPosition Position to get logs.
+     * @param limit how many logs to get.
+     * @param subscriptionName which topic logs to get.
+     * @return future completed with the logs and the position of the following log.
+     * @see StreamClient#getLogs(String, long, String)
+     */
+    public CompletableFuture<GetLogsResult> getLogsAsync(String logsPosition, long limit,
+            String subscriptionName) {
+        return getLogsAsync(logsPosition, limit, subscriptionName, getLogsHandler);
+    }
+
+    /**
+     * Get logs asynchronously, handing the response to the specified handler. With the NIO
+     * transport the handler runs on a thread of the transport and reads a body already received.
+     *
+     * @param logsPosition Position to get logs.
+     * @param limit how many logs to get.
+     * @param subscriptionName which topic logs to get.
+     * @param responseHandler Handler turning the response into the result.
+     * @return future completed with the result returned by the handler.
+     * @see StreamClient#getLogs(String, long, String, HttpResponseHandler)
+     */
+    public <T> CompletableFuture<T> getLogsAsync(final String logsPosition, final long limit,
+            final String subscriptionName, final HttpResponseHandler<T> responseHandler) {
+        if (executor != null) {
+            return runAsync(new Supplier<T>() {
+                public T get() {
+                    return getLogs(logsPosition, limit, subscriptionName, responseHandler);
+                }
+            });
+        }
+        return executeAsync(subscriptionName, new Supplier<Request>() {
+            public Request get() {
+                return newGetLogsRequest(logsPosition, limit, subscriptionName);
+            }
+        }, responseHandler, Operation.GET_LOGS);
+    }
+
+    /**
+     * Get logs offset asynchronously.
+     *
+     * @param topicName topic name.
+     * @param partitionId partition id.
+     * @param offsetType offset type.
+     * @return future completed with the offset of the specified type.
+     * @see StreamClient#getOffset(String, int, String)
+     */
+    public CompletableFuture<OffsetResult> getOffsetAsync(final String topicName,
+            final int partitionId, final String offsetType) {
+        if (executor != null) {
+            return runAsync(new Supplier<OffsetResult>() {
+                public OffsetResult get() {
+                    return getOffset(topicName, partitionId, offsetType);
+                }
+            });
+        }
+        return executeAsync(topicName, new Supplier<Request>() {
+            public Request get() {
+                return newGetOffsetRequest(topicName, partitionId, offsetType);
+            }
+        }, offsetHandler, Operation.GET_OFFSET);
+    }
+
+    /**
+     * Get records asynchronously.
+     *
+     * @param offset which position to get logs.
+     * @param limit number of records to get once.
+     * @return future completed with the records and the offset of the following record.
+     * @see StreamClient#getRecords(String, long)
+     */
+    public CompletableFuture<GetRecordsResult> getRecordsAsync(String offset, long limit) {
+        return getRecordsAsync(offset, limit, getRecordsHandler);
+    }
+
+    /**
+     * Get records asynchronously, handing the response to the specified handler. With the NIO
+     * transport the handler runs on a thread of the transport and reads a body already received.
+     *
+     * @param offset which position to get logs.
+     * @param limit number of records to get once.
+     * @param responseHandler Handler turning the response into the result.
+     * @return future completed with the result returned by the handler.
+     * @see StreamClient#getRecords(String, long, HttpResponseHandler)
+     */
+    public <T> CompletableFuture<T> getRecordsAsync(final String offset, final long limit,
+            final HttpResponseHandler<T> responseHandler) {
+        if (executor != null) {
+            return runAsync(new Supplier<T>() {
+                public T get() {
+                    return getRecords(offset, limit, responseHandler);
+                }
+            });
+        }
+        return executeAsync(RateLimiter.GET_RECORDS_KEY, new Supplier<Request>() {
+            public Request get() {
+                return newGetRecordsRequest(offset, limit);
+            }
+        }, responseHandler, Operation.GET_RECORDS);
+    }
+
+    /**
+     * put records asynchronously. The records are serialized before the method returns, so the
+     * list may be changed as soon as it does, unless the operation runs on an executor.
+     *
+     * @param topicName topic name.
+     * @param partitionId partition id.
+     * @param records logs needed upload.
+     * @param count number of logs needed upload.
+     * @return future completed with the number of records written.
+     * @see StreamClient#putRecords(String, int, List, int)
+     */
+    public CompletableFuture<PutRecordsResult> putRecordsAsync(final String topicName,
+            final int partitionId, final List<Map<String, String>> records, final int count) {
+        if (executor != null) {
+            return runAsync(new Supplier<PutRecordsResult>() {
+                public PutRecordsResult get() {
+                    return putRecords(topicName, partitionId, records, count);
+                }
+            });
+        }
+        return executeAsync(topicName, new Supplier<Request>() {
+            public Request get() {
+                return newPutRecordsRequest(topicName, partitionId, records, count);
+            }
+        }, new PutRecordsResultHandler(count), Operation.PUT_RECORDS);
+    }
+
+    /**
+     * Creates the request on the calling thread and sends it with the transport once its rate
+     * limit admits it. A request that can not be created fails the returned future rather than
+     * throwing.
+     */
+    private <T> CompletableFuture<T> executeAsync(String rateLimitKey,
+            Supplier<Request> requestSupplier, HttpResponseHandler<T> responseHandler,
+            Operation operation) {
+        Request request;
+        try {
+            request = requestSupplier.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return executeRequestAsync(rateLimitKey, request, responseHandler, operation);
+    }
+
+    /**
+     * Runs a blocking operation on the executor. The future fails with the exception thrown by
+     * the operation itself, as it does when the transport sends the request.
+     */
+    private <T> CompletableFuture<T> runAsync(final Supplier<T> operation) {
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        result.complete(operation.get());
+                    } catch (Throwable t) {
+                        result.completeExceptionally(t);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Shuts down this client, together with the virtual thread executor it created. An executor
+     * passed to the constructor is left running.
+     */
+    @Override
+    public void shutdown() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+        super.shutdown();
+    }
+
+}
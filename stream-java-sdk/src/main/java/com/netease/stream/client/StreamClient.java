@@ -4,11 +4,15 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import com.netease.stream.auth.BasicCredentials;
 import com.netease.stream.auth.CredentialsProvider;
@@ -16,16 +20,40 @@ import com.netease.stream.auth.StaticCredentialsProvider;
 import com.netease.stream.auth.StreamSigner;
 import com.netease.stream.config.ClientConfiguration;
 import com.netease.stream.exception.ClientException;
+import com.netease.stream.exception.RateLimitExceededException;
 import com.netease.stream.exception.ServiceException;
-import com.netease.stream.http.DefaultRequest;
+import com.netease.stream.http.ConnectionPoolStats;
+import com.netease.stream.http.ContentEncoding;
+import com.netease.stream.http.Headers;
 import com.netease.stream.http.HttpMethod;
 import com.netease.stream.http.HttpResponse;
+import com.netease.stream.http.HttpResponseHandler;
 import com.netease.stream.http.Request;
+import com.netease.stream.http.RequestTemplate;
+import com.netease.stream.http.WireLogger;
+import com.netease.stream.metrics.MetricsCollector;
+import com.netease.stream.metrics.NoOpMetricsCollector;
+import com.netease.stream.model.GetLogsResult;
+import com.netease.stream.model.GetRecordsResult;
+import com.netease.stream.model.OffsetResult;
+import com.netease.stream.model.PutRecordsResult;
+import com.netease.stream.model.SubscriptionPositionResult;
+import com.netease.stream.model.transform.GetLogsResultHandler;
+import com.netease.stream.model.transform.GetRecordsResultHandler;
+import com.netease.stream.model.transform.OffsetResultHandler;
+import com.netease.stream.model.transform.PutRecordsResultHandler;
+import com.netease.stream.model.transform.SubscriptionPositionResultHandler;
+import com.netease.stream.policy.CircuitBreaker;
+import com.netease.stream.policy.CircuitState;
+import com.netease.stream.policy.LoadBalancer;
+import com.netease.stream.policy.RateLimiter;
 import com.netease.stream.util.CommonUtils;
+import com.netease.stream.util.ContentWriter;
 import com.netease.stream.util.Md5Utils;
 import com.netease.stream.util.PropertiesUtils;
 import com.netease.stream.util.json.JSONException;
 import com.netease.stream.util.json.JSONObject;
+import com.netease.stream.util.json.JSONWriter;
 
 /**
  * 
@@ -35,12 +63,39 @@ import com.netease.stream.util.json.JSONObject;
  */
 public class StreamClient extends DefaultClient implements Stream {
 
-    /** Shared logger for client events */
-    private static Log log = LogFactory.getLog(StreamClient.class);
-
     /** Provider for credentials. */
     private CredentialsProvider CredentialsProvider;
 
+    /** Handlers turning responses into results; they keep no state and are shared. */
+    static final SubscriptionPositionResultHandler subscriptionPositionHandler =
+            new SubscriptionPositionResultHandler();
+    static final GetLogsResultHandler getLogsHandler = new GetLogsResultHandler();
+    static final OffsetResultHandler offsetHandler = new OffsetResultHandler();
+    static final GetRecordsResultHandler getRecordsHandler = new GetRecordsResultHandler();
+
+    /** Handler of putRecords, whose record count is set on the result by the caller. */
+    static final PutRecordsResultHandler putRecordsHandler = new PutRecordsResultHandler(0);
+
+    /**
+     * The shared handler of each operation wrapped to record its responses, by operation ordinal,
+     * so metering a request made with it allocates nothing.
+     */
+    private final MeteredResponseHandler<?>[] meteredHandlers = createMeteredHandlers();
+
+    /** Signer shared by all requests of this client. */
+    private final StreamSigner signer = new StreamSigner();
+
+    /** Maximum number of subscriptions, and of stream hosts, whose request templates are kept. */
+    static final int MAX_CACHED_ENDPOINTS = 1024;
+
+    /** Request templates by subscription name, so polling does not resolve endpoints again. */
+    private final ConcurrentMap<String, SubscriptionTemplates> subscriptionTemplates =
+            new ConcurrentHashMap<String, SubscriptionTemplates>();
+
+    /** Request templates by stream host. */
+    private final ConcurrentMap<String, StreamTemplates> streamTemplates =
+            new ConcurrentHashMap<String, StreamTemplates>();
+
     /**
      * Constructs a new streamproxy client using the specified credentials and client configuration
      * to access streamproxy.
@@ -50,35 +105,331 @@ public class StreamClient extends DefaultClient implements Stream {
      * 
      */
     public StreamClient(String accessKey, String secretKey) {
-        super(new ClientConfiguration());
+        this(accessKey, secretKey, new ClientConfiguration());
+    }
+
+    /**
+     * Constructs a new streamproxy client using the specified credentials and client configuration
+     * to access streamproxy, for example to send requests with the
+     * {@link com.netease.stream.http.TransportType#NIO} transport.
+     * 
+     * @param accessKey The access id to use when making requests to streamproxy with this client.
+     * @param secretKey The secret key to use when making requests to streamproxy with this client.
+     * @param clientConfiguration The client configuration options controlling how this client
+     *        connects to streamproxy.
+     */
+    public StreamClient(String accessKey, String secretKey,
+            ClientConfiguration clientConfiguration) {
+        super(clientConfiguration);
         this.CredentialsProvider =
                 new StaticCredentialsProvider(new BasicCredentials(accessKey, secretKey));
     }
 
     /**
-     * set streams proxy host
+     * Resolves the endpoint a request for the specified host is sent to. The endpoint is resolved
+     * per request and never stored in the client, so one client can be shared by any number of
+     * threads talking to different hosts.
+     * 
+     * @param host host, with optional port, of the service.
+     * @return endpoint URI, consisting of protocol and authority only.
+     */
+    private URI resolveEndpoint(String host) {
+        URI uri = toEndpointURI(host);
+        if (uri.getPath() == null || uri.getPath().length() == 0) {
+            return uri;
+        }
+        try {
+            return new URI(uri.getScheme() + "://" + uri.getAuthority());
+        } catch (URISyntaxException e) {
+            throw new ClientException("Can't turn" + uri + "into a URI: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the request templates of a subscription, resolving its endpoint on first use only.
+     * 
+     * @param subscriptionName subscription logs name.
+     * @return templates of the requests to the log subscription host of the subscription.
+     */
+    private SubscriptionTemplates getSubscriptionTemplates(String subscriptionName) {
+        new CommonUtils().assertParameterNotNull(subscriptionName,
+                "The subscription name parameter must be specified.");
+        SubscriptionTemplates templates = subscriptionTemplates.get(subscriptionName);
+        if (templates == null) {
+            URI endpoint = resolveEndpoint(subscriptionName + "."
+                    + PropertiesUtils.getLogSubscriptionHost());
+            templates = cache(subscriptionTemplates, subscriptionName,
+                    new SubscriptionTemplates(endpoint));
+        }
+        return templates;
+    }
+
+    /**
+     * Returns the request templates of the stream host: the endpoint picked by the load balancer
+     * of the configuration if there is one, the stream host of the properties file otherwise.
+     * 
+     * @return templates of the requests to the stream host.
+     */
+    private StreamTemplates getStreamTemplates() {
+        LoadBalancer loadBalancer = clientConfiguration.getLoadBalancer();
+        String host = loadBalancer != null ? loadBalancer.select()
+                : PropertiesUtils.getStreamHost();
+        StreamTemplates templates = streamTemplates.get(host);
+        if (templates == null) {
+            templates = cache(streamTemplates, host, new StreamTemplates(resolveEndpoint(host)));
+        }
+        return templates;
+    }
+
+    /**
+     * Adds templates to a cache, evicting an arbitrary entry first if the cache is full, so the
+     * cache stays bounded without a lock.
+     */
+    private static <T> T cache(ConcurrentMap<String, T> cache, String key, T templates) {
+        if (cache.size() >= MAX_CACHED_ENDPOINTS) {
+            Iterator<String> keys = cache.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        T existing = cache.putIfAbsent(key, templates);
+        return existing != null ? existing : templates;
+    }
+
+    /**
+     * Creates the template of the requests of one operation to one endpoint.
      * 
-     * @param subscriptionName subscription name.
+     * @param endpoint endpoint the requests are sent to.
+     * @param resourcePath resource path of the operation.
+     * @return request template.
      */
-    private void initStreamsHost(String uri) {
-        setEndpoint(uri);
+    private static RequestTemplate createTemplate(URI endpoint, String resourcePath) {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put(Headers.CONTENT_TYPE, "application/json");
+        headers.put("User-Agent", PropertiesUtils.getUserAgent());
+        return new RequestTemplate(HttpMethod.POST, endpoint, resourcePath, headers);
     }
 
     /**
-     * execute request; send request and get respone.
+     * Set configuration, dropping the request templates since the protocol may have changed.
      * 
+     * @param clientConfiguration clientConfiguration.
+     */
+    @Override
+    public void setConfiguration(ClientConfiguration clientConfiguration) {
+        super.setConfiguration(clientConfiguration);
+        subscriptionTemplates.clear();
+        streamTemplates.clear();
+    }
+
+    /**
+     * execute request; wait for the rate limit of the request, send request and hand the
+     * streaming respone to the handler.
+     * 
+     * @param rateLimitKey topic or subscription name the request is rate limited by.
      * @param request Request.
-     * @return String respone.
+     * @param responseHandler Handler turning the respone into the result.
+     * @param operation operation of the request, which reads may be hedged.
+     * @return result returned by the handler.
      */
-    private String executeRequest(Request request) {
+    private <T> T executeRequest(String rateLimitKey, Request request,
+            HttpResponseHandler<T> responseHandler, Operation operation) {
+        MetricsCollector metrics = clientConfiguration.getMetricsCollector();
+        long start = System.nanoTime();
         try {
-            log.info("Send request: " + request.toString());
-            HttpResponse respone = client.execute(request);
-            log.info("recevie responses: " + respone.toString());
-            return respone.toString();
+            ExecutionContext context = createExecutionContext(operation.isIdempotent());
+            long wait = acquireRateLimit(rateLimitKey, request);
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+                // The Date header signed into the request must not have aged while waiting.
+                context.sign(request);
+            }
+            T result = client.execute(request,
+                    logWire(request, meter(responseHandler, operation), operation), context);
+            recordRecords(operation, result);
+            return result;
+        } catch (ClientException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting for rate limit", e);
         } catch (Exception e) {
             throw new ClientException("Execute error " + e.getMessage(), e);
+        } finally {
+            metrics.recordLatency(operation, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * execute request without blocking; send request once its rate limit admits it, and hand the
+     * respone to the handler once it arrives. No thread is held while waiting for the rate limit.
+     * 
+     * @param rateLimitKey topic or subscription name the request is rate limited by.
+     * @param request Request.
+     * @param responseHandler Handler turning the respone into the result.
+     * @param operation operation of the request, which reads may be hedged.
+     * @return future completed with the result returned by the handler.
+     */
+    <T> CompletableFuture<T> executeRequestAsync(String rateLimitKey, final Request request,
+            HttpResponseHandler<T> responseHandler, final Operation operation) {
+        final long start = System.nanoTime();
+        final ExecutionContext context = createExecutionContext(operation.isIdempotent());
+        final HttpResponseHandler<T> meteredHandler = meter(responseHandler, operation);
+        long wait;
+        try {
+            wait = acquireRateLimit(rateLimitKey, request);
+        } catch (ClientException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (wait <= 0) {
+            return recordAsync(sendRequestAsync(request, meteredHandler, context, operation),
+                    operation, start);
+        }
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS).execute(new Runnable() {
+            public void run() {
+                if (result.isDone()) {
+                    // Cancelled while waiting for the rate limit.
+                    return;
+                }
+                try {
+                    context.sign(request);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                final CompletableFuture<T> sent =
+                        sendRequestAsync(request, meteredHandler, context, operation);
+                sent.whenComplete(new BiConsumer<T, Throwable>() {
+                    public void accept(T value, Throwable t) {
+                        if (t == null) {
+                            result.complete(value);
+                        } else {
+                            result.completeExceptionally(t);
+                        }
+                    }
+                });
+                result.whenComplete(new BiConsumer<T, Throwable>() {
+                    public void accept(T value, Throwable t) {
+                        if (result.isCancelled()) {
+                            sent.cancel(true);
+                        }
+                    }
+                });
+            }
+        });
+        return recordAsync(result, operation, start);
+    }
+
+    /**
+     * Records the latency, and the records received, of an asynchronous request once it
+     * completed. The future itself is returned.
+     */
+    private <T> CompletableFuture<T> recordAsync(CompletableFuture<T> future,
+            final Operation operation, final long start) {
+        future.whenComplete(new BiConsumer<T, Throwable>() {
+            public void accept(T result, Throwable t) {
+                clientConfiguration.getMetricsCollector().recordLatency(operation,
+                        System.nanoTime() - start);
+                if (t == null) {
+                    recordRecords(operation, result);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Wraps the response handler to record the status code and size of each response, unless
+     * measurements are dropped anyway. The shared handlers of the operations come wrapped
+     * already; any other handler, such as the per-request one of putRecordsAsync, gets a wrapper
+     * allocated for the request.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> HttpResponseHandler<T> meter(HttpResponseHandler<T> responseHandler,
+            Operation operation) {
+        if (clientConfiguration.getMetricsCollector() instanceof NoOpMetricsCollector) {
+            return responseHandler;
+        }
+        MeteredResponseHandler<?> metered = meteredHandlers[operation.ordinal()];
+        if (metered != null && metered.responseHandler == responseHandler) {
+            return (HttpResponseHandler<T>) metered;
+        }
+        return new MeteredResponseHandler<T>(responseHandler, operation);
+    }
+
+    private MeteredResponseHandler<?>[] createMeteredHandlers() {
+        MeteredResponseHandler<?>[] handlers =
+                new MeteredResponseHandler<?>[Operation.values().length];
+        handlers[Operation.PUT_RECORDS.ordinal()] =
+                new MeteredResponseHandler<PutRecordsResult>(putRecordsHandler,
+                        Operation.PUT_RECORDS);
+        handlers[Operation.GET_RECORDS.ordinal()] =
+                new MeteredResponseHandler<GetRecordsResult>(getRecordsHandler,
+                        Operation.GET_RECORDS);
+        handlers[Operation.GET_LOGS.ordinal()] =
+                new MeteredResponseHandler<GetLogsResult>(getLogsHandler, Operation.GET_LOGS);
+        handlers[Operation.GET_OFFSET.ordinal()] =
+                new MeteredResponseHandler<OffsetResult>(offsetHandler, Operation.GET_OFFSET);
+        handlers[Operation.GET_SUBSCRIPTION_POSITION.ordinal()] =
+                new MeteredResponseHandler<SubscriptionPositionResult>(
+                        subscriptionPositionHandler, Operation.GET_SUBSCRIPTION_POSITION);
+        return handlers;
+    }
+
+    /**
+     * Records the number of records of a page received.
+     */
+    private void recordRecords(Operation operation, Object result) {
+        List<?> records = null;
+        if (result instanceof GetRecordsResult) {
+            records = ((GetRecordsResult) result).getRecords();
+        } else if (result instanceof GetLogsResult) {
+            records = ((GetLogsResult) result).getSubscriptionLogs();
+        }
+        if (records != null) {
+            clientConfiguration.getMetricsCollector().recordRecords(operation, records.size());
+        }
+    }
+
+    private <T> CompletableFuture<T> sendRequestAsync(Request request,
+            HttpResponseHandler<T> responseHandler, ExecutionContext context,
+            Operation operation) {
+        return client.executeAsync(request, logWire(request, responseHandler, operation),
+                context);
+    }
+
+    /**
+     * Logs the signed request, and wraps the response handler to log its response, if the wire
+     * logger of the client configuration samples the request. Nothing is formatted otherwise.
+     */
+    private <T> HttpResponseHandler<T> logWire(Request request,
+            HttpResponseHandler<T> responseHandler, Operation operation) {
+        WireLogger wireLogger = clientConfiguration.getWireLogger();
+        if (wireLogger == null || !wireLogger.sample()) {
+            return responseHandler;
         }
+        wireLogger.logRequest(operation, request);
+        return wireLogger.wrap(operation, responseHandler);
+    }
+
+    /**
+     * Admits a request through the rate limiter of the client configuration, if there is one.
+     * 
+     * @param rateLimitKey topic or subscription name the request is rate limited by.
+     * @param request Request.
+     * @return time to wait before sending the request, in nanoseconds.
+     * @throws RateLimitExceededException If the limit is exhausted and the limiter fails fast.
+     */
+    private long acquireRateLimit(String rateLimitKey, Request request)
+            throws RateLimitExceededException {
+        RateLimiter rateLimiter = clientConfiguration.getRateLimiter();
+        if (rateLimiter == null) {
+            return 0;
+        }
+        byte[] body = request.getContentBytes();
+        return rateLimiter.acquire(rateLimitKey, body != null ? body.length : 0);
     }
 
     /**
@@ -86,21 +437,16 @@ public class StreamClient extends DefaultClient implements Stream {
      * 
      * @param positionType wanted log position type.
      * @param subscriptionName subscription logs name.
-     * @return String result from server.
+     * @return position of the subscription.
      * @throws ClientException ClientException.
      * @throws ServiceException ClientException.
      */
-    public String getSubscriptionPosition(String positionType, String subscriptionName)
-            throws ClientException, ServiceException {
-
-        String uri = subscriptionName + "." + PropertiesUtils.getLogSubscriptionHost();
-        initStreamsHost(uri);
+    public SubscriptionPositionResult getSubscriptionPosition(String positionType,
+            String subscriptionName) throws ClientException, ServiceException {
 
-        Request request =
-                createSubscriptionPositionRequest(positionType, subscriptionName,
-                        PropertiesUtils.getSubscriptionPositionResourcePath());
-
-        return executeRequest(request);
+        return executeRequest(subscriptionName,
+                newSubscriptionPositionRequest(positionType, subscriptionName),
+                subscriptionPositionHandler, Operation.GET_SUBSCRIPTION_POSITION);
     }
 
     /**
@@ -109,98 +455,187 @@ public class StreamClient extends DefaultClient implements Stream {
      * @param logsPosition Position to get logs.
      * @param limit how many logs to get.
      * @param subscriptionName which topic logs to get.
-     * @return String logs.
+     * @return logs and the position of the following log.
      * @throws ClientException ClientException.
      * @throws ServiceException ServiceException.
      */
-    public String getLogs(String logsPosition, long limit, String subscriptionName)
+    public GetLogsResult getLogs(String logsPosition, long limit, String subscriptionName)
             throws ClientException, ServiceException {
 
-        String uri = subscriptionName + "." + PropertiesUtils.getLogSubscriptionHost();
-        initStreamsHost(uri);
+        return executeRequest(subscriptionName,
+                newGetLogsRequest(logsPosition, limit, subscriptionName), getLogsHandler,
+                Operation.GET_LOGS);
+    }
 
-        Request request =
-                createGetLogsRequest(logsPosition, limit, subscriptionName,
-                        PropertiesUtils.getLogsResourcePath());
+    /**
+     * Get logs, handing the streaming response to the specified handler. The handler reads the
+     * body straight from the connection; a {@link GetLogsResultHandler} created with a
+     * {@link com.netease.stream.model.RecordProcessor} processes the logs one at a time, without
+     * holding the whole page in memory.
+     * 
+     * @param logsPosition Position to get logs.
+     * @param limit how many logs to get.
+     * @param subscriptionName which topic logs to get.
+     * @param responseHandler Handler turning the response into the result.
+     * @return result returned by the handler.
+     * @throws ClientException ClientException.
+     * @throws ServiceException ServiceException.
+     */
+    public <T> T getLogs(String logsPosition, long limit, String subscriptionName,
+            HttpResponseHandler<T> responseHandler) throws ClientException, ServiceException {
 
-        return executeRequest(request);
+        return executeRequest(subscriptionName,
+                newGetLogsRequest(logsPosition, limit, subscriptionName),
+                responseHandler, Operation.GET_LOGS);
     }
 
     /**
-     * Creates and initializes a subscription position request object for the specified streamproxy
-     * resource. This method is responsible for determining the right way to address resources.
-     * Callers can take the request, add any additional headers or parameters, then sign and execute
-     * the request.
+     * Creates the signed subscription position request for the log subscription host.
      * 
      * @param positionType wanted log position type.
      * @param subscriptionName subscription logs name.
+     * @return signed request.
+     */
+    Request newSubscriptionPositionRequest(String positionType, String subscriptionName) {
+        return createSubscriptionPositionRequest(
+                getSubscriptionTemplates(subscriptionName).subscriptionPosition, positionType,
+                subscriptionName);
+    }
+
+    /**
+     * Creates the signed get logs request for the log subscription host.
+     * 
+     * @param logsPosition Position to get logs.
+     * @param limit how many logs to get.
+     * @param subscriptionName which topic logs to get.
+     * @return signed request.
+     */
+    Request newGetLogsRequest(String logsPosition, long limit, String subscriptionName) {
+        return createGetLogsRequest(getSubscriptionTemplates(subscriptionName).getLogs,
+                logsPosition, limit, subscriptionName);
+    }
+
+    /**
+     * Creates a signed subscription position request for the specified endpoint and resource path.
+     * 
+     * @param endpoint endpoint the request is sent to.
+     * @param positionType wanted log position type.
+     * @param subscriptionName subscription logs name.
      * @param resourcePath resource path,which to visit.
-     * @return A new request object, populated with endpoint, resource path, and service name, ready
-     *         for callers to populate any additional headers or parameters, and execute.
+     * @return A new signed request object.
+     * @deprecated The client builds its own requests from cached templates and never calls this
+     *             method, so overriding it has no effect. It only creates a standalone request.
      */
+    @Deprecated
+    protected Request createSubscriptionPositionRequest(URI endpoint, String positionType,
+            String subscriptionName, String resourcePath) {
+        CommonUtils commonUtils = new CommonUtils();
+        commonUtils.assertParameterNotNull(endpoint, "The endpoint parameter must be specified.");
+        commonUtils.assertParameterNotNull(resourcePath,
+                "The resource path parameter must be specified.");
+        return createSubscriptionPositionRequest(createTemplate(endpoint, resourcePath),
+                positionType, subscriptionName);
+    }
+
+    /**
+     * Creates a subscription position request for the log subscription host of the subscription.
+     * 
+     * @param positionType wanted log position type.
+     * @param subscriptionName subscription logs name.
+     * @param resourcePath resource path,which to visit.
+     * @return A new signed request object.
+     * @deprecated The client never calls this method, so overriding it has no effect.
+     */
+    @Deprecated
     protected Request createSubscriptionPositionRequest(String positionType,
             String subscriptionName, String resourcePath) {
+        URI endpoint =
+                getSubscriptionTemplates(subscriptionName).subscriptionPosition.getEndpoint();
+        return createSubscriptionPositionRequest(endpoint, positionType, subscriptionName,
+                resourcePath);
+    }
+
+    /**
+     * Creates the signed request from the template of its endpoint and operation.
+     */
+    private Request createSubscriptionPositionRequest(RequestTemplate template,
+            String positionType, String subscriptionName) {
         CommonUtils commonUtils = new CommonUtils();
         commonUtils.assertParameterNotNull(positionType,
                 "The position type parameter must be specified.");
         commonUtils.assertParameterNotNull(subscriptionName,
                 "The subscription name parameter must be specified.");
-        commonUtils.assertParameterNotNull(resourcePath,
-                "The resource path parameter must be specified.");
 
-        Request request = new DefaultRequest();
-        request.setHttpMethod(HttpMethod.POST);
+        long start = System.nanoTime();
+        Request request = template.newRequest();
         JSONObject content = new JSONObject();
         try {
             content.put("position_type", positionType);
         } catch (JSONException e) {
             throw new ClientException("create request error " + e.getMessage(), e);
         }
-        try {
-            request.setEndpoint(new URI(endpoint.getScheme() + "://" + endpoint.getAuthority()));
-        } catch (URISyntaxException e) {
-            throw new ClientException("Can't turn" + endpoint + "into a URI: " + e.getMessage(), e);
-        }
-        request.setContent(content.toString());
-        request.setResourcePath(resourcePath);
-        String encryptContent = createEncryptText(content.toString());
-        request.setEncryptContent(encryptContent);
+        setContent(request, content);
 
-        request.addHeader("Content-Type", "application/json");
-        // request.addHeader("Host", subscriptionName + "." + "log.c.163.com");
-        request.addHeader("User-Agent", PropertiesUtils.getUserAgent());
-        StreamSigner streamProxySigner = createSigner();
-        streamProxySigner.sign(request, CredentialsProvider.getCredentials());
+        sign(request, Operation.GET_SUBSCRIPTION_POSITION, start);
 
         return request;
     }
 
 
     /**
-     * Creates and initializes a get logs request object for the specified streamproxy resource.
-     * This method is responsible for determining the right way to address resources. Callers can
-     * take the request, add any additional headers or parameters, then sign and execute the
-     * request.
+     * Creates a signed get logs request for the specified endpoint and resource path.
      * 
+     * @param endpoint endpoint the request is sent to.
      * @param logsPosition Position to get logs.
      * @param limit how many logs to get.
      * @param subscriptionName which topic logs to get.
      * @param resourcePath resource path to excuse.
+     * @return A new signed request object.
+     * @deprecated The client builds its own requests from cached templates and never calls this
+     *             method, so overriding it has no effect. It only creates a standalone request.
+     */
+    @Deprecated
+    protected Request createGetLogsRequest(URI endpoint, String logsPosition, long limit,
+            String subscriptionName, String resourcePath) {
+        CommonUtils commonUtils = new CommonUtils();
+        commonUtils.assertParameterNotNull(endpoint, "The endpoint parameter must be specified.");
+        commonUtils.assertParameterNotNull(resourcePath,
+                "The resource path parameter must be specified.");
+        return createGetLogsRequest(createTemplate(endpoint, resourcePath),
+                logsPosition, limit, subscriptionName);
+    }
+
+    /**
+     * Creates a get logs request for the log subscription host of the subscription.
      * 
-     * @return request
+     * @param logsPosition Position to get logs.
+     * @param limit how many logs to get.
+     * @param subscriptionName which topic logs to get.
+     * @param resourcePath resource path to excuse.
+     * @return A new signed request object.
+     * @deprecated The client never calls this method, so overriding it has no effect.
      */
+    @Deprecated
     protected Request createGetLogsRequest(String logsPosition, long limit,
             String subscriptionName, String resourcePath) {
+        URI endpoint = getSubscriptionTemplates(subscriptionName).getLogs.getEndpoint();
+        return createGetLogsRequest(endpoint, logsPosition, limit, subscriptionName,
+                resourcePath);
+    }
+
+    /**
+     * Creates the signed request from the template of its endpoint and operation.
+     */
+    private Request createGetLogsRequest(RequestTemplate template, String logsPosition, long limit,
+            String subscriptionName) {
         CommonUtils commonUtils = new CommonUtils();
         commonUtils.assertParameterNotNull(logsPosition,
                 "The logs position parameter must be specified.");
         commonUtils.assertParameterNotNull(subscriptionName,
                 "The subscription name parameter must be specified.");
-        commonUtils.assertParameterNotNull(resourcePath,
-                "The resource path parameter must be specified.");
 
-        Request request = new DefaultRequest();
-        request.setHttpMethod(HttpMethod.POST);
+        long start = System.nanoTime();
+        Request request = template.newRequest();
         JSONObject content = new JSONObject();
         try {
             content.put("position", logsPosition);
@@ -208,21 +643,9 @@ public class StreamClient extends DefaultClient implements Stream {
         } catch (JSONException e) {
             throw new ClientException("create request error " + e.getMessage(), e);
         }
-        try {
-            request.setEndpoint(new URI(endpoint.getScheme() + "://" + endpoint.getAuthority()));
-        } catch (URISyntaxException e) {
-            throw new ClientException("Can't turn" + endpoint + "into a URI: " + e.getMessage(), e);
-        }
-        request.setContent(content.toString());
-        request.setResourcePath(resourcePath);
-        String encryptContent = createEncryptText(content.toString());
-        request.setEncryptContent(encryptContent);
+        setContent(request, content);
 
-        request.addHeader("Content-Type", "application/json");
-        // request.addHeader("Host", subscriptionName + "." + "log.c.163.com");
-        request.addHeader("User-Agent", PropertiesUtils.getUserAgent());
-        StreamSigner streamProxySigner = createSigner();
-        streamProxySigner.sign(request, CredentialsProvider.getCredentials());
+        sign(request, Operation.GET_LOGS, start);
 
         return request;
     }
@@ -234,37 +657,76 @@ public class StreamClient extends DefaultClient implements Stream {
      * @param topicName topic name.
      * @param partitionId partition id.
      * @param offsetType offset type.
-     * @return String result from server.
+     * @return offset of the specified type.
      * @throws ClientException ClientException.
      * @throws ServiceException ClientException.
      */
-    public String getOffset(String topicName, int partitionId, String offsetType)
+    public OffsetResult getOffset(String topicName, int partitionId, String offsetType)
             throws ClientException, ServiceException {
 
-        String uri = PropertiesUtils.getStreamHost();
-        initStreamsHost(uri);
+        return executeRequest(topicName,
+                newGetOffsetRequest(topicName, partitionId, offsetType), offsetHandler,
+                Operation.GET_OFFSET);
+    }
 
-        Request request =
-                createGetOffsetRequest(topicName, partitionId, offsetType,
-                        PropertiesUtils.getOffsetResourcePath());
+    /**
+     * Creates the signed get offset request for the stream host.
+     * 
+     * @param topicName topic name.
+     * @param partitionId partition id.
+     * @param offsetType offset type.
+     * @return signed request.
+     */
+    Request newGetOffsetRequest(String topicName, int partitionId, String offsetType) {
+        return createGetOffsetRequest(getStreamTemplates().getOffset, topicName, partitionId,
+                offsetType);
+    }
 
-        return executeRequest(request);
+    /**
+     * Creates a signed get offset request for the specified endpoint and resource path.
+     * 
+     * @param endpoint endpoint the request is sent to.
+     * @param topicName topic name.
+     * @param partitionId partition id.
+     * @param offsetType offset type.
+     * @param resourcePath resource path,which to visit.
+     * @return A new signed request object.
+     * @deprecated The client builds its own requests from cached templates and never calls this
+     *             method, so overriding it has no effect. It only creates a standalone request.
+     */
+    @Deprecated
+    protected Request createGetOffsetRequest(URI endpoint, String topicName, int partitionId,
+            String offsetType, String resourcePath) {
+        CommonUtils commonUtils = new CommonUtils();
+        commonUtils.assertParameterNotNull(endpoint, "The endpoint parameter must be specified.");
+        commonUtils.assertParameterNotNull(resourcePath,
+                "The resource path parameter must be specified.");
+        return createGetOffsetRequest(createTemplate(endpoint, resourcePath),
+                topicName, partitionId, offsetType);
     }
 
     /**
-     * Creates and initializes a get offset request object for the specified stream resource. This
-     * method is responsible for determining the right way to address resources. Callers can take
-     * the request, add any additional headers or parameters, then sign and execute the request.
+     * Creates a get offset request for the stream host.
      * 
      * @param topicName topic name.
      * @param partitionId partition id.
      * @param offsetType offset type.
      * @param resourcePath resource path,which to visit.
-     * @return A new request object, populated with endpoint, resource path, and service name, ready
-     *         for callers to populate any additional headers or parameters, and execute.
+     * @return A new signed request object.
+     * @deprecated The client never calls this method, so overriding it has no effect.
      */
+    @Deprecated
     protected Request createGetOffsetRequest(String topicName, int partitionId, String offsetType,
             String resourcePath) {
+        return createGetOffsetRequest(getStreamTemplates().getOffset.getEndpoint(), topicName,
+                partitionId, offsetType, resourcePath);
+    }
+
+    /**
+     * Creates the signed request from the template of its endpoint and operation.
+     */
+    private Request createGetOffsetRequest(RequestTemplate template, String topicName,
+            int partitionId, String offsetType) {
         CommonUtils commonUtils = new CommonUtils();
         commonUtils
                 .assertParameterNotNull(topicName, "The topic name parameter must be specified.");
@@ -272,11 +734,9 @@ public class StreamClient extends DefaultClient implements Stream {
                 "The parttiion id parameter must be specified.");
         commonUtils.assertParameterNotNull(offsetType,
                 "The offset type parameter must be specified.");
-        commonUtils.assertParameterNotNull(resourcePath,
-                "The resource path parameter must be specified.");
 
-        Request request = new DefaultRequest();
-        request.setHttpMethod(HttpMethod.POST);
+        long start = System.nanoTime();
+        Request request = template.newRequest();
         JSONObject content = new JSONObject();
         try {
             content.put("topic_name", topicName);
@@ -285,21 +745,9 @@ public class StreamClient extends DefaultClient implements Stream {
         } catch (JSONException e) {
             throw new ClientException("create request error " + e.getMessage(), e);
         }
-        try {
-            request.setEndpoint(new URI(endpoint.getScheme() + "://" + endpoint.getAuthority()));
-        } catch (URISyntaxException e) {
-            throw new ClientException("Can't turn" + endpoint + "into a URI: " + e.getMessage(), e);
-        }
-        request.setContent(content.toString());
-        request.setResourcePath(resourcePath);
-        String encryptContent = createEncryptText(content.toString());
-        request.setEncryptContent(encryptContent);
+        setContent(request, content);
 
-        request.addHeader("Content-Type", "application/json");
-        // request.addHeader("Host", subscriptionName + "." + "log.c.163.com");
-        request.addHeader("User-Agent", PropertiesUtils.getUserAgent());
-        StreamSigner streamProxySigner = createSigner();
-        streamProxySigner.sign(request, CredentialsProvider.getCredentials());
+        sign(request, Operation.GET_OFFSET, start);
 
         return request;
     }
@@ -310,41 +758,115 @@ public class StreamClient extends DefaultClient implements Stream {
      * 
      * @param offset which position to get logs.
      * @param limit number of records to get once.
-     * @return String result from server.
+     * @return records and the offset of the following record.
      * @throws ClientException ClientException.
      * @throws ServiceException ClientException.
      */
-    public String getRecords(String offset, long limit) throws ClientException, ServiceException {
+    public GetRecordsResult getRecords(String offset, long limit) throws ClientException,
+            ServiceException {
 
-        String uri = PropertiesUtils.getStreamHost();
-        initStreamsHost(uri);
+        return executeRequest(RateLimiter.GET_RECORDS_KEY, newGetRecordsRequest(offset, limit),
+                getRecordsHandler, Operation.GET_RECORDS);
+    }
 
-        Request request =
-                createGetRecordsRequest(offset, limit, PropertiesUtils.getRecordsResourcePath());
+    /**
+     * Get records, handing the streaming response to the specified handler. The handler reads the
+     * body straight from the connection; a {@link GetRecordsResultHandler} created with a
+     * {@link com.netease.stream.model.RecordProcessor} processes the records one at a time, without
+     * holding the whole page in memory.
+     * 
+     * @param offset which position to get logs.
+     * @param limit number of records to get once.
+     * @param responseHandler Handler turning the response into the result.
+     * @return result returned by the handler.
+     * @throws ClientException ClientException.
+     * @throws ServiceException ClientException.
+     */
+    public <T> T getRecords(String offset, long limit, HttpResponseHandler<T> responseHandler)
+            throws ClientException, ServiceException {
+
+        return executeRequest(RateLimiter.GET_RECORDS_KEY, newGetRecordsRequest(offset, limit),
+                responseHandler, Operation.GET_RECORDS);
+    }
+
+    /**
+     * Get records without blocking the calling thread, always handing the request to the
+     * transport of the client, even for a {@link StreamAsyncClient} with an executor. Cancelling
+     * the returned future aborts the request in flight, so a long poll can be stopped without
+     * waiting for the socket timeout.
+     * 
+     * @param offset which position to get logs.
+     * @param limit number of records to get once.
+     * @return future completed with the records and the offset of the following record.
+     */
+    public final CompletableFuture<GetRecordsResult> pollRecords(String offset, long limit) {
+        Request request;
+        try {
+            request = newGetRecordsRequest(offset, limit);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return executeRequestAsync(RateLimiter.GET_RECORDS_KEY, request, getRecordsHandler,
+                Operation.GET_RECORDS);
+    }
+
+    /**
+     * Creates the signed get records request for the stream host.
+     * 
+     * @param offset which position to get logs.
+     * @param limit number of records to get once.
+     * @return signed request.
+     */
+    Request newGetRecordsRequest(String offset, long limit) {
+        return createGetRecordsRequest(getStreamTemplates().getRecords, offset, limit);
+    }
 
-        return executeRequest(request);
+    /**
+     * Creates a signed get records request for the specified endpoint and resource path.
+     * 
+     * @param endpoint endpoint the request is sent to.
+     * @param offset which position to get logs.
+     * @param limit number of records to get once.
+     * @param resourcePath resource path,which to visit.
+     * @return A new signed request object.
+     * @deprecated The client builds its own requests from cached templates and never calls this
+     *             method, so overriding it has no effect. It only creates a standalone request.
+     */
+    @Deprecated
+    protected Request createGetRecordsRequest(URI endpoint, String offset, long limit,
+            String resourcePath) {
+        CommonUtils commonUtils = new CommonUtils();
+        commonUtils.assertParameterNotNull(endpoint, "The endpoint parameter must be specified.");
+        commonUtils.assertParameterNotNull(resourcePath,
+                "The resource path parameter must be specified.");
+        return createGetRecordsRequest(createTemplate(endpoint, resourcePath), offset, limit);
     }
 
     /**
-     * Creates and initializes a get record request object for the specified stream resource. This
-     * method is responsible for determining the right way to address resources. Callers can take
-     * the request, add any additional headers or parameters, then sign and execute the request.
+     * Creates a get records request for the stream host.
      * 
      * @param offset which position to get logs.
      * @param limit number of records to get once.
      * @param resourcePath resource path,which to visit.
-     * @return A new request object, populated with endpoint, resource path, and service name, ready
-     *         for callers to populate any additional headers or parameters, and execute.
+     * @return A new signed request object.
+     * @deprecated The client never calls this method, so overriding it has no effect.
      */
+    @Deprecated
     protected Request createGetRecordsRequest(String offset, long limit, String resourcePath) {
+        return createGetRecordsRequest(getStreamTemplates().getRecords.getEndpoint(), offset,
+                limit, resourcePath);
+    }
+
+    /**
+     * Creates the signed request from the template of its endpoint and operation.
+     */
+    private Request createGetRecordsRequest(RequestTemplate template, String offset, long limit) {
         CommonUtils commonUtils = new CommonUtils();
         commonUtils.assertParameterNotNull(offset, "The offset parameter must be specified.");
         commonUtils.assertParameterNotNull(limit, "The limit id parameter must be specified.");
-        commonUtils.assertParameterNotNull(resourcePath,
-                "The resource path parameter must be specified.");
 
-        Request request = new DefaultRequest();
-        request.setHttpMethod(HttpMethod.POST);
+        long start = System.nanoTime();
+        Request request = template.newRequest();
         JSONObject content = new JSONObject();
         try {
             content.put("offset", offset);
@@ -352,21 +874,9 @@ public class StreamClient extends DefaultClient implements Stream {
         } catch (JSONException e) {
             throw new ClientException("create request error " + e.getMessage(), e);
         }
-        try {
-            request.setEndpoint(new URI(endpoint.getScheme() + "://" + endpoint.getAuthority()));
-        } catch (URISyntaxException e) {
-            throw new ClientException("Can't turn" + endpoint + "into a URI: " + e.getMessage(), e);
-        }
-        request.setContent(content.toString());
-        request.setResourcePath(resourcePath);
-        String encryptContent = createEncryptText(content.toString());
-        request.setEncryptContent(encryptContent);
+        setContent(request, content);
 
-        request.addHeader("Content-Type", "application/json");
-        // request.addHeader("Host", subscriptionName + "." + "log.c.163.com");
-        request.addHeader("User-Agent", PropertiesUtils.getUserAgent());
-        StreamSigner streamProxySigner = createSigner();
-        streamProxySigner.sign(request, CredentialsProvider.getCredentials());
+        sign(request, Operation.GET_RECORDS, start);
 
         return request;
     }
@@ -379,38 +889,83 @@ public class StreamClient extends DefaultClient implements Stream {
      * @param partitionId partition id.
      * @param records logs needed upload.
      * @param count number of logs needed upload.
-     * @return String result from server.
+     * @return number of records written.
      * @throws ClientException ClientException.
      * @throws ServiceException ClientException.
      */
-    public String putRecords(String topicName, int partitionId, List<Map<String, String>> records,
-            int count) throws ClientException, ServiceException {
+    public PutRecordsResult putRecords(String topicName, int partitionId,
+            List<Map<String, String>> records, int count) throws ClientException, ServiceException {
 
-        String uri = PropertiesUtils.getStreamHost();
-        initStreamsHost(uri);
+        PutRecordsResult result =
+                executeRequest(topicName,
+                        newPutRecordsRequest(topicName, partitionId, records, count),
+                        putRecordsHandler, Operation.PUT_RECORDS);
+        result.setRecordCount(count);
+        return result;
+    }
 
-        Request request =
-                createPutRecordsRequest(topicName, partitionId, records, count,
-                        PropertiesUtils.getPutRecordsResourcePath());
+    /**
+     * Creates the signed put records request for the stream host.
+     * 
+     * @param topicName topic name.
+     * @param partitionId partition id.
+     * @param records logs needed upload.
+     * @param count number of logs needed upload.
+     * @return signed request.
+     */
+    Request newPutRecordsRequest(String topicName, int partitionId,
+            List<Map<String, String>> records, int count) {
+        return createPutRecordsRequest(getStreamTemplates().putRecords, topicName, partitionId,
+                records, count);
+    }
 
-        return executeRequest(request);
+    /**
+     * Creates a signed put records request for the specified endpoint and resource path.
+     * 
+     * @param endpoint endpoint the request is sent to.
+     * @param topicName topic name.
+     * @param partitionId partition id.
+     * @param records logs needed upload.
+     * @param count number of logs needed upload.
+     * @param resourcePath resource path,which to visit.
+     * @return A new signed request object.
+     * @deprecated The client builds its own requests from cached templates and never calls this
+     *             method, so overriding it has no effect. It only creates a standalone request.
+     */
+    @Deprecated
+    protected Request createPutRecordsRequest(URI endpoint, String topicName, int partitionId,
+            List<Map<String, String>> records, int count, String resourcePath) {
+        CommonUtils commonUtils = new CommonUtils();
+        commonUtils.assertParameterNotNull(endpoint, "The endpoint parameter must be specified.");
+        commonUtils.assertParameterNotNull(resourcePath,
+                "The resource path parameter must be specified.");
+        return createPutRecordsRequest(createTemplate(endpoint, resourcePath),
+                topicName, partitionId, records, count);
     }
 
     /**
-     * Creates and initializes a put records request object for the specified stream resource. This
-     * method is responsible for determining the right way to address resources. Callers can take
-     * the request, add any additional headers or parameters, then sign and execute the request.
+     * Creates a put records request for the stream host.
      * 
      * @param topicName topic name.
      * @param partitionId partition id.
      * @param records logs needed upload.
      * @param count number of logs needed upload.
      * @param resourcePath resource path,which to visit.
-     * @return A new request object, populated with endpoint, resource path, and service name, ready
-     *         for callers to populate any additional headers or parameters, and execute.
+     * @return A new signed request object.
+     * @deprecated The client never calls this method, so overriding it has no effect.
      */
+    @Deprecated
     protected Request createPutRecordsRequest(String topicName, int partitionId,
             List<Map<String, String>> records, int count, String resourcePath) {
+        return createPutRecordsRequest(getStreamTemplates().putRecords.getEndpoint(), topicName,
+                partitionId, records, count, resourcePath);
+    }
+
+    /**
+     * Creates the signed request from the template of its endpoint and operation.
+     */
+    private Request createPutRecordsRequest(RequestTemplate template, String topicName,
+            int partitionId, List<Map<String, String>> records, int count) {
         CommonUtils commonUtils = new CommonUtils();
         commonUtils
                 .assertParameterNotNull(topicName, "The topic name parameter must be specified.");
@@ -418,59 +973,196 @@ public class StreamClient extends DefaultClient implements Stream {
                 "The parttiion id parameter must be specified.");
         commonUtils.assertParameterNotNull(records, "The records parameter must be specified.");
         commonUtils.assertParameterNotNull(count, "The count parameter must be specified.");
-        commonUtils.assertParameterNotNull(resourcePath,
-                "The resource path parameter must be specified.");
 
-        Request request = new DefaultRequest();
-        request.setHttpMethod(HttpMethod.POST);
-        JSONObject content = new JSONObject();
+        long start = System.nanoTime();
+        Request request = template.newRequest();
+        ContentWriter writer = null;
         try {
-            content.put("topic_name", topicName);
-            content.put("partition_id", partitionId);
-            content.put("records", records);
-            content.put("count", count);
+            // Serialize the records once, straight into the byte buffer of this thread.
+            writer = ContentWriter.getInstance();
+            JSONWriter content = new JSONWriter(writer);
+            content.object().key("topic_name").value(topicName).key("partition_id")
+                    .value(partitionId).key("records").array();
+            for (Map<String, String> record : records) {
+                content.object();
+                for (Map.Entry<String, String> field : record.entrySet()) {
+                    content.key(field.getKey()).value(field.getValue());
+                }
+                content.endObject();
+            }
+            content.endArray().key("count").value(count).endObject();
+            setContent(request, writer);
         } catch (JSONException e) {
             throw new ClientException("create request error " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new ClientException("create encrypt text error " + e.getMessage(), e);
+        } finally {
+            if (writer != null) {
+                writer.release();
+            }
         }
-        try {
-            request.setEndpoint(new URI(endpoint.getScheme() + "://" + endpoint.getAuthority()));
-        } catch (URISyntaxException e) {
-            throw new ClientException("Can't turn" + endpoint + "into a URI: " + e.getMessage(), e);
-        }
-        request.setContent(content.toString());
-        request.setResourcePath(resourcePath);
-        String encryptContent = createEncryptText(content.toString());
-        request.setEncryptContent(encryptContent);
 
-        request.addHeader("Content-Type", "application/json");
-        // request.addHeader("Host", subscriptionName + "." + "log.c.163.com");
-        request.addHeader("User-Agent", PropertiesUtils.getUserAgent());
-        StreamSigner streamProxySigner = createSigner();
-        streamProxySigner.sign(request, CredentialsProvider.getCredentials());
+        sign(request, Operation.PUT_RECORDS, start);
+        clientConfiguration.getMetricsCollector().recordRecords(Operation.PUT_RECORDS,
+                records.size());
 
         return request;
     }
 
+    /**
+     * Returns the signer for requests of this client. The signer keeps no per-request state, so
+     * one instance is shared by all requests and threads.
+     * 
+     * @return StreamSigner.
+     */
     protected StreamSigner createSigner() {
-        return new StreamSigner();
+        return signer;
     }
 
     /**
-     * encrypt body data.
+     * Creates the context re-signing retries of a request with the signer and credentials of this
+     * client.
      * 
-     * @param text which needed to encrypt.
-     * @return String encrypt body data.
+     * @return ExecutionContext.
      */
-    private String createEncryptText(String text) {
-        String encryptText = null;
+    protected ExecutionContext createExecutionContext() {
+        return createExecutionContext(false);
+    }
+
+    /**
+     * Creates the context re-signing retries and hedged copies of a request with the signer and
+     * credentials of this client.
+     * 
+     * @param idempotent whether the request is a read, which may be hedged.
+     * @return ExecutionContext.
+     */
+    protected ExecutionContext createExecutionContext(boolean idempotent) {
+        return new ExecutionContext(createSigner(), CredentialsProvider.getCredentials(),
+                idempotent);
+    }
+
+    /**
+     * Signs a request whose body has been set, recording the time spent serializing it since the
+     * specified start, its size, and the time spent signing it.
+     * 
+     * @param request request to sign.
+     * @param operation operation of the request.
+     * @param start time the request started to be built at, from System.nanoTime().
+     */
+    private void sign(Request request, Operation operation, long start) {
+        MetricsCollector metrics = clientConfiguration.getMetricsCollector();
+        long signStart = System.nanoTime();
+        metrics.recordSerialization(operation, signStart - start);
+        if (request.getContentBytes() != null) {
+            metrics.recordRequestBytes(operation, request.getContentBytes().length);
+        }
+        createSigner().sign(request, CredentialsProvider.getCredentials());
+        metrics.recordSigning(operation, System.nanoTime() - signStart);
+    }
+
+    /**
+     * Sets the body of a request together with the MD5 signed into it.
+     * 
+     * @param request request to set the body of.
+     * @param content body data.
+     */
+    private void setContent(Request request, JSONObject content) {
+        ContentWriter writer = null;
         try {
-            encryptText = Md5Utils.getHex(Md5Utils.computeMD5Hash(text.toString().getBytes()));
+            writer = ContentWriter.getInstance();
+            content.write(writer);
+            setContent(request, writer);
+        } catch (JSONException e) {
+            throw new ClientException("create request error " + e.getMessage(), e);
         } catch (NoSuchAlgorithmException e) {
             throw new ClientException("create encrypt text error " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new ClientException("create encrypt text error " + e.getMessage(), e);
+        } finally {
+            if (writer != null) {
+                writer.release();
+            }
+        }
+    }
+
+    /**
+     * Sets the body written to a content writer as body of a request, together with its MD5. With
+     * request compression enabled, a large body is sent gzip compressed and the MD5 is computed
+     * over the compressed bytes, as they go on the wire.
+     * 
+     * @param request request to set the body of.
+     * @param writer writer holding the body data.
+     */
+    private void setContent(Request request, ContentWriter writer) {
+        ClientConfiguration config = clientConfiguration;
+        if (config.isUseRequestCompression() && writer.size() >= config.getCompressionThreshold()) {
+            byte[] compressed = writer.toGzipByteArray(config.getCompressionLevel());
+            try {
+                request.setEncryptContent(Md5Utils.getHex(Md5Utils.computeMD5Hash(compressed, 0,
+                        compressed.length)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new ClientException("create encrypt text error " + e.getMessage(), e);
+            }
+            request.setContentBytes(compressed);
+            request.addHeader(Headers.CONTENT_ENCODING, ContentEncoding.GZIP);
+            return;
         }
-        return encryptText;
+        request.setEncryptContent(writer.getMD5Hex());
+        request.setContentBytes(writer.toByteArray());
+    }
+
+    /**
+     * Returns the state of the circuit breaker of the stream host, which getOffset, getRecords and
+     * putRecords are sent to. While it is not closed, producers may divert records elsewhere
+     * rather than have them refused. With a load balancer, this is the best state among the
+     * circuits of its endpoints, since requests go to an endpoint whose circuit is closed.
+     * 
+     * @return state of the circuit, CLOSED if the client has no circuit breaker.
+     */
+    public CircuitState getCircuitState() {
+        LoadBalancer loadBalancer = clientConfiguration.getLoadBalancer();
+        if (loadBalancer == null) {
+            return getCircuitState(resolveEndpoint(PropertiesUtils.getStreamHost()));
+        }
+        CircuitState best = CircuitState.OPEN;
+        for (String host : loadBalancer.getEndpoints()) {
+            CircuitState state = getCircuitState(resolveEndpoint(host));
+            if (state == CircuitState.CLOSED) {
+                return state;
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                best = state;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the state of the circuit breaker of the log subscription host of a subscription,
+     * which getLogs and getSubscriptionPosition are sent to.
+     * 
+     * @param subscriptionName subscription logs name.
+     * @return state of the circuit, CLOSED if the client has no circuit breaker.
+     */
+    public CircuitState getCircuitState(String subscriptionName) {
+        return getCircuitState(getSubscriptionTemplates(subscriptionName).getLogs.getEndpoint());
+    }
+
+    private CircuitState getCircuitState(URI endpoint) {
+        CircuitBreaker circuitBreaker = clientConfiguration.getCircuitBreaker();
+        if (circuitBreaker == null) {
+            return CircuitState.CLOSED;
+        }
+        return circuitBreaker.getState(endpoint.getAuthority());
+    }
+
+    /**
+     * Returns a snapshot of the connection pool of the client per route: the connections leased
+     * and available, the requests waiting for one, and the maximum. Only the blocking transport
+     * exposes its pool.
+     * 
+     * @return The snapshots, one per host the client connected to.
+     */
+    public List<ConnectionPoolStats> getConnectionPoolStats() {
+        return client.getConnectionPoolStats();
     }
 
     /**
@@ -485,4 +1177,63 @@ public class StreamClient extends DefaultClient implements Stream {
         }
     }
 
+    /** Templates of the requests to the log subscription host of one subscription. */
+    private static final class SubscriptionTemplates {
+
+        final RequestTemplate subscriptionPosition;
+
+        final RequestTemplate getLogs;
+
+        SubscriptionTemplates(URI endpoint) {
+            subscriptionPosition = createTemplate(endpoint,
+                    PropertiesUtils.getSubscriptionPositionResourcePath());
+            getLogs = createTemplate(endpoint, PropertiesUtils.getLogsResourcePath());
+        }
+    }
+
+    /** Templates of the requests to one stream host. */
+    private static final class StreamTemplates {
+
+        final RequestTemplate getOffset;
+
+        final RequestTemplate getRecords;
+
+        final RequestTemplate putRecords;
+
+        StreamTemplates(URI endpoint) {
+            getOffset = createTemplate(endpoint, PropertiesUtils.getOffsetResourcePath());
+            getRecords = createTemplate(endpoint, PropertiesUtils.getRecordsResourcePath());
+            putRecords = createTemplate(endpoint, PropertiesUtils.getPutRecordsResourcePath());
+        }
+    }
+
+    /**
+     * Handler recording the status code of each response, and the size of its body as received
+     * once it has been handled, with the metrics collector of the client.
+     */
+    private final class MeteredResponseHandler<T> implements HttpResponseHandler<T> {
+
+        private final HttpResponseHandler<T> responseHandler;
+
+        private final Operation operation;
+
+        MeteredResponseHandler(HttpResponseHandler<T> responseHandler, Operation operation) {
+            this.responseHandler = responseHandler;
+            this.operation = operation;
+        }
+
+        public T handle(HttpResponse response) throws IOException {
+            MetricsCollector metrics = clientConfiguration.getMetricsCollector();
+            metrics.recordStatusCode(operation, response.getStatusCode());
+            try {
+                return responseHandler.handle(response);
+            } finally {
+                long receivedBytes = response.getReceivedContentLength();
+                if (receivedBytes >= 0) {
+                    metrics.recordResponseBytes(operation, receivedBytes);
+                }
+            }
+        }
+    }
+
 }
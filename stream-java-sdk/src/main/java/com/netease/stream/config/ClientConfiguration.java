@@ -1,6 +1,16 @@
 package com.netease.stream.config;
 
 import com.netease.stream.http.Protocol;
+import com.netease.stream.http.TransportType;
+import com.netease.stream.http.WireLogger;
+import com.netease.stream.metrics.MetricsCollector;
+import com.netease.stream.metrics.NoOpMetricsCollector;
+import com.netease.stream.policy.CircuitBreaker;
+import com.netease.stream.policy.ConcurrencyLimiter;
+import com.netease.stream.policy.HedgingPolicy;
+import com.netease.stream.policy.LoadBalancer;
+import com.netease.stream.policy.RateLimiter;
+import com.netease.stream.policy.RetryPolicy;
 import com.netease.stream.util.PropertiesUtils;
 
 /**
@@ -14,6 +24,15 @@ public class ClientConfiguration {
     /** The default max connection pool size. */
     public static final int DEFAULT_MAX_CONNECTIONS = 50;
 
+    /** The default transport requests are sent with. */
+    public static final TransportType DEFAULT_TRANSPORT_TYPE = TransportType.BLOCKING;
+
+    /** The default size (in bytes) from which request bodies are compressed. */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    /** The default deflate level request bodies are compressed with. */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
     /** The default HTTP user agent header for Java SDK clients. */
     public static final String DEFAULT_USER_AGENT = PropertiesUtils.getUserAgent();
 
@@ -57,6 +76,48 @@ public class ClientConfiguration {
      */
     private int socketReceiveBufferSizeHint = 0;
 
+    /** The transport requests are sent with. */
+    private TransportType transportType = DEFAULT_TRANSPORT_TYPE;
+
+    /** Whether asynchronous operations run on virtual threads. */
+    private boolean useVirtualThreads = false;
+
+    /** Whether request bodies are sent gzip compressed. */
+    private boolean useRequestCompression = false;
+
+    /** The size (in bytes) from which request bodies are compressed. */
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    /** The deflate level, 1 (fastest) to 9 (smallest), request bodies are compressed with. */
+    private int compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+
+    /** Whether compressed response bodies are accepted. */
+    private boolean useResponseCompression = true;
+
+    /** The policy deciding which failed requests are sent again. */
+    private RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+
+    /** The limiter of the requests per topic or subscription, or null for no limit. */
+    private RateLimiter rateLimiter;
+
+    /** The adaptive limiter of the requests in flight per host, or null for no limit. */
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    /** The policy hedging slow reads, or null to send each read once. */
+    private HedgingPolicy hedgingPolicy;
+
+    /** The circuit breaker of each endpoint, or null to always send requests. */
+    private CircuitBreaker circuitBreaker;
+
+    /** The load balancer of the stream requests, or null to use the configured stream host. */
+    private LoadBalancer loadBalancer;
+
+    /** The collector of the measurements of the client. */
+    private MetricsCollector metricsCollector = NoOpMetricsCollector.INSTANCE;
+
+    /** The logger of a sample of the requests and responses, or null to log none. */
+    private WireLogger wireLogger;
+
     public ClientConfiguration() {}
 
     public ClientConfiguration(ClientConfiguration other) {
@@ -67,6 +128,20 @@ public class ClientConfiguration {
         this.userAgent = other.userAgent;
         this.socketReceiveBufferSizeHint = other.socketReceiveBufferSizeHint;
         this.socketSendBufferSizeHint = other.socketSendBufferSizeHint;
+        this.transportType = other.transportType;
+        this.useVirtualThreads = other.useVirtualThreads;
+        this.useRequestCompression = other.useRequestCompression;
+        this.compressionThreshold = other.compressionThreshold;
+        this.compressionLevel = other.compressionLevel;
+        this.useResponseCompression = other.useResponseCompression;
+        this.retryPolicy = other.retryPolicy;
+        this.rateLimiter = other.rateLimiter;
+        this.concurrencyLimiter = other.concurrencyLimiter;
+        this.hedgingPolicy = other.hedgingPolicy;
+        this.circuitBreaker = other.circuitBreaker;
+        this.loadBalancer = other.loadBalancer;
+        this.metricsCollector = other.metricsCollector;
+        this.wireLogger = other.wireLogger;
     }
 
     /**
@@ -359,4 +434,466 @@ public class ClientConfiguration {
         return this;
     }
 
+    /**
+     * Returns the transport requests are sent with.
+     * 
+     * @return The transport requests are sent with.
+     */
+    public TransportType getTransportType() {
+        return transportType;
+    }
+
+    /**
+     * Sets the transport requests are sent with. {@link TransportType#NIO} keeps asynchronous
+     * requests in flight without holding a thread or a pooled connection each, but requires JDK 12
+     * or later: creating a client with it fails with a ClientException on older runtimes.
+     * 
+     * @param transportType The transport requests are sent with.
+     */
+    public void setTransportType(TransportType transportType) {
+        this.transportType = transportType;
+    }
+
+    /**
+     * Sets the transport requests are sent with, and returns the updated ClientConfiguration
+     * object so that additional calls may be chained together.
+     * 
+     * @param transportType The transport requests are sent with.
+     * @return The updated ClientConfiguration object with the new transport setting.
+     */
+    public ClientConfiguration withTransportType(TransportType transportType) {
+        setTransportType(transportType);
+        return this;
+    }
+
+    /**
+     * Returns whether asynchronous operations run as blocking calls on virtual threads.
+     * 
+     * @return true if asynchronous operations run on virtual threads.
+     */
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Sets whether asynchronous operations run as blocking calls on virtual threads, one thread per
+     * operation, instead of being handed to the transport. Requires Java 21 or later.
+     * <p>
+     * The Macs, digests, body buffers and deflaters the request path keeps per platform thread are
+     * shared by virtual threads through small bounded pools, so they are not created again for
+     * every operation; virtual threads contend on these pools rather than reusing their own.
+     * 
+     * @param useVirtualThreads true to run asynchronous operations on virtual threads.
+     * @see com.netease.stream.util.VirtualThreads
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    /**
+     * Sets whether asynchronous operations run on virtual threads, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param useVirtualThreads true to run asynchronous operations on virtual threads.
+     * @return The updated ClientConfiguration object with the new virtual thread setting.
+     */
+    public ClientConfiguration withUseVirtualThreads(boolean useVirtualThreads) {
+        setUseVirtualThreads(useVirtualThreads);
+        return this;
+    }
+
+    /**
+     * Returns whether request bodies of at least {@link #getCompressionThreshold()} bytes are sent
+     * gzip compressed.
+     * 
+     * @return true if request bodies are compressed.
+     */
+    public boolean isUseRequestCompression() {
+        return useRequestCompression;
+    }
+
+    /**
+     * Sets whether request bodies of at least {@link #getCompressionThreshold()} bytes are sent
+     * gzip compressed, with a Content-Encoding header. The Content-MD5 signed into the request is
+     * computed over the compressed body, as it is sent. The service has to accept compressed
+     * bodies.
+     * 
+     * @param useRequestCompression true to compress request bodies.
+     */
+    public void setUseRequestCompression(boolean useRequestCompression) {
+        this.useRequestCompression = useRequestCompression;
+    }
+
+    /**
+     * Sets whether request bodies are sent gzip compressed, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param useRequestCompression true to compress request bodies.
+     * @return The updated ClientConfiguration object with the new compression setting.
+     */
+    public ClientConfiguration withUseRequestCompression(boolean useRequestCompression) {
+        setUseRequestCompression(useRequestCompression);
+        return this;
+    }
+
+    /**
+     * Returns the size (in bytes) from which request bodies are compressed.
+     * 
+     * @return The compression threshold in bytes.
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Sets the size (in bytes) from which request bodies are compressed. Smaller bodies are sent
+     * as they are, compressing them costs more time than it saves.
+     * 
+     * @param compressionThreshold The compression threshold in bytes.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Sets the size (in bytes) from which request bodies are compressed, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param compressionThreshold The compression threshold in bytes.
+     * @return The updated ClientConfiguration object with the new compression threshold.
+     */
+    public ClientConfiguration withCompressionThreshold(int compressionThreshold) {
+        setCompressionThreshold(compressionThreshold);
+        return this;
+    }
+
+    /**
+     * Returns the deflate level request bodies are compressed with.
+     * 
+     * @return The compression level.
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the deflate level request bodies are compressed with, from 1 (fastest) to 9
+     * (smallest).
+     * 
+     * @param compressionLevel The compression level.
+     * @throws IllegalArgumentException If the level is not between 1 and 9.
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < 1 || compressionLevel > 9) {
+            throw new IllegalArgumentException("The compression level must be between 1 and 9: "
+                    + compressionLevel);
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Sets the deflate level request bodies are compressed with, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param compressionLevel The compression level.
+     * @return The updated ClientConfiguration object with the new compression level.
+     */
+    public ClientConfiguration withCompressionLevel(int compressionLevel) {
+        setCompressionLevel(compressionLevel);
+        return this;
+    }
+
+    /**
+     * Returns whether compressed response bodies are accepted.
+     * 
+     * @return true if compressed response bodies are accepted.
+     */
+    public boolean isUseResponseCompression() {
+        return useResponseCompression;
+    }
+
+    /**
+     * Sets whether requests carry an Accept-Encoding header for gzip and deflate. Compressed
+     * response bodies are decompressed while the response handler reads them, whatever this
+     * setting.
+     * 
+     * @param useResponseCompression true to accept compressed response bodies.
+     */
+    public void setUseResponseCompression(boolean useResponseCompression) {
+        this.useResponseCompression = useResponseCompression;
+    }
+
+    /**
+     * Sets whether compressed response bodies are accepted, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param useResponseCompression true to accept compressed response bodies.
+     * @return The updated ClientConfiguration object with the new compression setting.
+     */
+    public ClientConfiguration withUseResponseCompression(boolean useResponseCompression) {
+        setUseResponseCompression(useResponseCompression);
+        return this;
+    }
+
+    /**
+     * Returns the policy deciding which failed requests are sent again, and when.
+     * 
+     * @return The retry policy.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sets the policy deciding which failed requests are sent again, and when. By default I/O
+     * errors, throttling and 5xx responses of reads are retried, while putRecords is only retried
+     * when the proxy did not process it, up to {@link RetryPolicy#DEFAULT_MAX_ATTEMPTS} attempts;
+     * {@link RetryPolicy#NO_RETRY} sends every request once.
+     * 
+     * @param retryPolicy The retry policy.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Sets the policy deciding which failed requests are sent again, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param retryPolicy The retry policy.
+     * @return The updated ClientConfiguration object with the new retry policy.
+     */
+    public ClientConfiguration withRetryPolicy(RetryPolicy retryPolicy) {
+        setRetryPolicy(retryPolicy);
+        return this;
+    }
+
+    /**
+     * Returns the limiter of the requests per topic or subscription.
+     * 
+     * @return The rate limiter, or null if requests are not limited.
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Sets the limiter of the requests per topic or subscription. The limiter keeps the state of
+     * the limits, so clients created with copies of this configuration share them.
+     * 
+     * @param rateLimiter The rate limiter, or null for no limit.
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Sets the limiter of the requests per topic or subscription, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param rateLimiter The rate limiter, or null for no limit.
+     * @return The updated ClientConfiguration object with the new rate limiter.
+     */
+    public ClientConfiguration withRateLimiter(RateLimiter rateLimiter) {
+        setRateLimiter(rateLimiter);
+        return this;
+    }
+
+    /**
+     * Returns the adaptive limiter of the requests in flight per host.
+     * 
+     * @return The concurrency limiter, or null if only the connection pool limits requests.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Sets the adaptive limiter of the requests in flight per host. Its limits shrink when a host
+     * slows down or fails, so requests wait a bounded time for the limiter rather than queueing on
+     * the connection pool, whose size should be at least the maximum limit. Clients created with
+     * copies of this configuration share the limits.
+     * 
+     * @param concurrencyLimiter The concurrency limiter, or null for no limit.
+     */
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Sets the adaptive limiter of the requests in flight per host, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param concurrencyLimiter The concurrency limiter, or null for no limit.
+     * @return The updated ClientConfiguration object with the new concurrency limiter.
+     */
+    public ClientConfiguration withConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        setConcurrencyLimiter(concurrencyLimiter);
+        return this;
+    }
+
+    /**
+     * Returns the policy hedging slow reads.
+     * 
+     * @return The hedging policy, or null if each read is sent once.
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Sets the policy hedging slow reads: getOffset, getRecords, getLogs and
+     * getSubscriptionPosition. Writes are never hedged. A hedged read and its copy take a single
+     * slot of the {@link #getConcurrencyLimiter() concurrency limiter}. The copy is only sent to a
+     * host whose circuit is closed, another endpoint if the read is load balanced, and its outcome
+     * is recorded with that host.
+     * 
+     * @param hedgingPolicy The hedging policy, or null to send each read once.
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+    }
+
+    /**
+     * Sets the policy hedging slow reads, and returns the updated ClientConfiguration object so
+     * that additional calls may be chained together.
+     * 
+     * @param hedgingPolicy The hedging policy, or null to send each read once.
+     * @return The updated ClientConfiguration object with the new hedging policy.
+     */
+    public ClientConfiguration withHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        setHedgingPolicy(hedgingPolicy);
+        return this;
+    }
+
+    /**
+     * Returns the circuit breaker of each endpoint.
+     * 
+     * @return The circuit breaker, or null if requests are always sent.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Sets the circuit breaker of each endpoint. Requests to an endpoint whose circuit is open
+     * fail right away with a {@link com.netease.stream.exception.CircuitBreakerOpenException}
+     * instead of waiting for the connection timeout. Clients created with copies of this
+     * configuration share the circuits.
+     * 
+     * @param circuitBreaker The circuit breaker, or null to always send requests.
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Sets the circuit breaker of each endpoint, and returns the updated ClientConfiguration
+     * object so that additional calls may be chained together.
+     * 
+     * @param circuitBreaker The circuit breaker, or null to always send requests.
+     * @return The updated ClientConfiguration object with the new circuit breaker.
+     */
+    public ClientConfiguration withCircuitBreaker(CircuitBreaker circuitBreaker) {
+        setCircuitBreaker(circuitBreaker);
+        return this;
+    }
+
+    /**
+     * Returns the load balancer spreading the stream requests over several streamproxy endpoints.
+     * 
+     * @return The load balancer, or null if stream requests go to the configured stream host.
+     */
+    public LoadBalancer getLoadBalancer() {
+        return loadBalancer;
+    }
+
+    /**
+     * Sets the load balancer spreading the stream requests (records and offsets) over several
+     * streamproxy endpoints instead of the stream host of the properties file. Failed endpoints
+     * are ejected for a while, and retries go to another endpoint. Clients created with copies of
+     * this configuration share the health of the endpoints.
+     * 
+     * @param loadBalancer The load balancer, or null to use the configured stream host.
+     */
+    public void setLoadBalancer(LoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    /**
+     * Sets the load balancer spreading the stream requests over several streamproxy endpoints,
+     * and returns the updated ClientConfiguration object so that additional calls may be chained
+     * together.
+     * 
+     * @param loadBalancer The load balancer, or null to use the configured stream host.
+     * @return The updated ClientConfiguration object with the new load balancer.
+     */
+    public ClientConfiguration withLoadBalancer(LoadBalancer loadBalancer) {
+        setLoadBalancer(loadBalancer);
+        return this;
+    }
+
+    /**
+     * Returns the collector of the measurements of the client.
+     * 
+     * @return The metrics collector, a {@link NoOpMetricsCollector} by default.
+     */
+    public MetricsCollector getMetricsCollector() {
+        return metricsCollector;
+    }
+
+    /**
+     * Sets the collector of the measurements of the client: latencies, sizes, records per batch
+     * and status codes per operation, and the time spent signing, serializing and waiting for a
+     * connection. The transport reads it when the client is created.
+     * 
+     * @param metricsCollector The metrics collector, or null to drop the measurements.
+     */
+    public void setMetricsCollector(MetricsCollector metricsCollector) {
+        this.metricsCollector =
+                metricsCollector != null ? metricsCollector : NoOpMetricsCollector.INSTANCE;
+    }
+
+    /**
+     * Sets the collector of the measurements of the client, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param metricsCollector The metrics collector, or null to drop the measurements.
+     * @return The updated ClientConfiguration object with the new metrics collector.
+     */
+    public ClientConfiguration withMetricsCollector(MetricsCollector metricsCollector) {
+        setMetricsCollector(metricsCollector);
+        return this;
+    }
+
+    /**
+     * Returns the logger of a sample of the requests and responses.
+     * 
+     * @return The wire logger, or null if no request is logged.
+     */
+    public WireLogger getWireLogger() {
+        return wireLogger;
+    }
+
+    /**
+     * Sets the logger of a sample of the requests and responses. Requests are only logged while
+     * the {@value WireLogger#LOG_NAME} logger is enabled at DEBUG level.
+     * 
+     * @param wireLogger The wire logger, or null to log no request.
+     */
+    public void setWireLogger(WireLogger wireLogger) {
+        this.wireLogger = wireLogger;
+    }
+
+    /**
+     * Sets the logger of a sample of the requests and responses, and returns the updated
+     * ClientConfiguration object so that additional calls may be chained together.
+     * 
+     * @param wireLogger The wire logger, or null to log no request.
+     * @return The updated ClientConfiguration object with the new wire logger.
+     */
+    public ClientConfiguration withWireLogger(WireLogger wireLogger) {
+        setWireLogger(wireLogger);
+        return this;
+    }
 }
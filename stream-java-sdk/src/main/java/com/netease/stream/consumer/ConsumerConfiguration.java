@@ -0,0 +1,162 @@
+package com.netease.stream.consumer;
+
+/**
+ * Consumer configuration options such as page size and the number of pages fetched ahead.
+ */
+public class ConsumerConfiguration {
+
+    /** The default number of records requested with one getRecords call. */
+    public static final long DEFAULT_PAGE_SIZE = 100;
+
+    /** The default number of pages fetched ahead of the processing thread. */
+    public static final int DEFAULT_PREFETCH_PAGES = 4;
+
+    /** The default time (in milliseconds) to wait before polling an exhausted partition again. */
+    public static final long DEFAULT_EMPTY_POLL_BACKOFF_MILLIS = 500;
+
+    /** The number of records requested with one getRecords call. */
+    private long pageSize = DEFAULT_PAGE_SIZE;
+
+    /** The number of pages fetched ahead of the processing thread. */
+    private int prefetchPages = DEFAULT_PREFETCH_PAGES;
+
+    /** The amount of time (in milliseconds) to wait before polling an exhausted partition again. */
+    private long emptyPollBackoffMillis = DEFAULT_EMPTY_POLL_BACKOFF_MILLIS;
+
+    /** Whether the records are fetched on a virtual thread. */
+    private boolean useVirtualThreads = false;
+
+    public ConsumerConfiguration() {}
+
+    public ConsumerConfiguration(ConsumerConfiguration other) {
+        this.pageSize = other.pageSize;
+        this.prefetchPages = other.prefetchPages;
+        this.emptyPollBackoffMillis = other.emptyPollBackoffMillis;
+        this.useVirtualThreads = other.useVirtualThreads;
+    }
+
+    /**
+     * Returns the number of records requested with one getRecords call.
+     *
+     * @return The number of records per page.
+     */
+    public long getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the number of records requested with one getRecords call.
+     *
+     * @param pageSize The number of records per page.
+     */
+    public void setPageSize(long pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets the number of records requested with one getRecords call and returns the updated
+     * ConsumerConfiguration object.
+     *
+     * @param pageSize The number of records per page.
+     * @return The updated ConsumerConfiguration object.
+     */
+    public ConsumerConfiguration withPageSize(long pageSize) {
+        setPageSize(pageSize);
+        return this;
+    }
+
+    /**
+     * Returns the number of pages fetched ahead of the processing thread.
+     *
+     * @return The number of prefetched pages.
+     */
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    /**
+     * Sets the number of pages fetched ahead of the processing thread. Larger values hide more
+     * network latency at the cost of holding more records in memory.
+     *
+     * @param prefetchPages The number of prefetched pages.
+     */
+    public void setPrefetchPages(int prefetchPages) {
+        this.prefetchPages = prefetchPages;
+    }
+
+    /**
+     * Sets the number of prefetched pages and returns the updated ConsumerConfiguration object.
+     *
+     * @param prefetchPages The number of prefetched pages.
+     * @return The updated ConsumerConfiguration object.
+     */
+    public ConsumerConfiguration withPrefetchPages(int prefetchPages) {
+        setPrefetchPages(prefetchPages);
+        return this;
+    }
+
+    /**
+     * Returns the amount of time (in milliseconds) to wait before polling a partition again after
+     * it returned no records.
+     *
+     * @return The empty poll backoff in milliseconds.
+     */
+    public long getEmptyPollBackoffMillis() {
+        return emptyPollBackoffMillis;
+    }
+
+    /**
+     * Sets the amount of time (in milliseconds) to wait before polling a partition again after it
+     * returned no records.
+     *
+     * @param emptyPollBackoffMillis The empty poll backoff in milliseconds.
+     */
+    public void setEmptyPollBackoffMillis(long emptyPollBackoffMillis) {
+        this.emptyPollBackoffMillis = emptyPollBackoffMillis;
+    }
+
+    /**
+     * Sets the empty poll backoff (in milliseconds) and returns the updated ConsumerConfiguration
+     * object.
+     *
+     * @param emptyPollBackoffMillis The empty poll backoff in milliseconds.
+     * @return The updated ConsumerConfiguration object.
+     */
+    public ConsumerConfiguration withEmptyPollBackoffMillis(long emptyPollBackoffMillis) {
+        setEmptyPollBackoffMillis(emptyPollBackoffMillis);
+        return this;
+    }
+
+    /**
+     * Returns whether the records are fetched on a virtual thread.
+     *
+     * @return true if the fetcher is a virtual thread.
+     */
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Sets whether the records are fetched on a virtual thread instead of a platform thread, so
+     * thousands of consumers sharing one client do not need thousands of OS threads. Requires Java
+     * 21 or later.
+     *
+     * @param useVirtualThreads true to fetch the records on a virtual thread.
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    /**
+     * Sets whether the records are fetched on a virtual thread and returns the updated
+     * ConsumerConfiguration object.
+     *
+     * @param useVirtualThreads true to fetch the records on a virtual thread.
+     * @return The updated ConsumerConfiguration object.
+     */
+    public ConsumerConfiguration withUseVirtualThreads(boolean useVirtualThreads) {
+        setUseVirtualThreads(useVirtualThreads);
+        return this;
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.netease.stream.consumer;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.model.Record;
+
+/**
+ * Iterator over the records of a partition, fed by the prefetching fetcher thread of a
+ * {@link StreamConsumer}.
+ * <p>
+ * The stream of records has no end: {@link #hasNext()} blocks until the next record has been
+ * fetched, and only returns false once the consumer is closed. Use {@link #poll(long, TimeUnit)}
+ * to wait for a bounded time instead. If the fetcher stops because of an error, the error is
+ * rethrown from hasNext, next and poll.
+ * <p>
+ * A RecordIterator is meant to be used by a single processing thread.
+ */
+public class RecordIterator implements Iterator<Record> {
+
+    /** Marks the end of the stream, offered when the consumer is closed. */
+    static final RecordPage END_OF_STREAM = new RecordPage(null, null, null);
+
+    private final BlockingQueue<RecordPage> pages;
+
+    private RecordPage current;
+
+    private int index;
+
+    /** The offset to resume from so that no record returned by next is skipped. */
+    private volatile String position;
+
+    private volatile boolean closed;
+
+    RecordIterator(BlockingQueue<RecordPage> pages, String startOffset) {
+        this.pages = pages;
+        this.position = startOffset;
+    }
+
+    /**
+     * Returns true once the next record is available, blocking until it has been fetched.
+     *
+     * @return true if there is a next record, false if the consumer has been closed.
+     * @throws ClientException If the fetcher stopped because of an error.
+     */
+    public boolean hasNext() throws ClientException {
+        try {
+            return advance(-1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting for records", e);
+        }
+    }
+
+    /**
+     * Returns the next record, blocking until it has been fetched.
+     *
+     * @return The next record.
+     * @throws NoSuchElementException If the consumer has been closed.
+     * @throws ClientException If the fetcher stopped because of an error.
+     */
+    public Record next() throws ClientException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("The consumer has been closed.");
+        }
+        return take();
+    }
+
+    /**
+     * Returns the next record, waiting up to the specified time for it to be fetched.
+     *
+     * @param timeout How long to wait before giving up.
+     * @param unit The unit of the timeout.
+     * @return The next record, or null if none became available in time or the consumer has been
+     *         closed.
+     * @throws InterruptedException If interrupted while waiting.
+     * @throws ClientException If the fetcher stopped because of an error.
+     */
+    public Record poll(long timeout, TimeUnit unit) throws InterruptedException,
+            ClientException {
+        if (!advance(unit.toNanos(timeout))) {
+            return null;
+        }
+        return take();
+    }
+
+    /**
+     * Returns the offset a new consumer should start from to continue where this iterator left
+     * off. Records of the page currently being processed may be returned again, so processing is
+     * at-least-once.
+     *
+     * @return The offset to resume from.
+     */
+    public String getPosition() {
+        return position;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException("Records can not be removed from a stream.");
+    }
+
+    /**
+     * Stops handing out records, including those of pages already fetched.
+     */
+    void close() {
+        closed = true;
+    }
+
+    private Record take() {
+        Record record = current.getRecords().get(index++);
+        if (index >= current.getRecords().size()) {
+            position = current.getNextOffset();
+        }
+        return record;
+    }
+
+    /**
+     * Makes sure the current page has a record left, taking pages from the queue as needed.
+     *
+     * @param timeoutNanos The maximum time to wait, or a negative value to wait indefinitely.
+     * @return true if a record is available.
+     */
+    private boolean advance(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (true) {
+            if (closed || current == END_OF_STREAM) {
+                return false;
+            }
+            if (current != null && index < current.getRecords().size()) {
+                return true;
+            }
+            RecordPage page;
+            if (timeoutNanos < 0) {
+                page = pages.take();
+            } else {
+                page = pages.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (page == null) {
+                    return false;
+                }
+            }
+            if (page == END_OF_STREAM) {
+                current = END_OF_STREAM;
+                return false;
+            }
+            if (page.getError() != null) {
+                // Keep the error around so that every later call fails the same way.
+                pages.offer(page);
+                throw page.getError();
+            }
+            current = page;
+            index = 0;
+            position = page.getOffset();
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.netease.stream.consumer;
+
+import java.util.List;
+
+import com.netease.stream.model.Record;
+
+/**
+ * One getRecords response handed from the fetcher thread to the processing thread, or the error
+ * which stopped the fetcher.
+ */
+class RecordPage {
+
+    private final List<Record> records;
+    private final String offset;
+    private final String nextOffset;
+    private final RuntimeException error;
+
+    RecordPage(List<Record> records, String offset, String nextOffset) {
+        this.records = records;
+        this.offset = offset;
+        this.nextOffset = nextOffset;
+        this.error = null;
+    }
+
+    RecordPage(RuntimeException error) {
+        this.records = null;
+        this.offset = null;
+        this.nextOffset = null;
+        this.error = error;
+    }
+
+    /** @return The records of this page. */
+    List<Record> getRecords() {
+        return records;
+    }
+
+    /** @return The offset this page was fetched from. */
+    String getOffset() {
+        return offset;
+    }
+
+    /** @return The offset of the page following this one. */
+    String getNextOffset() {
+        return nextOffset;
+    }
+
+    /** @return The error which stopped the fetcher, or null for a page of records. */
+    RuntimeException getError() {
+        return error;
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.netease.stream.consumer;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.netease.stream.client.StreamClient;
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.model.GetRecordsResult;
+import com.netease.stream.model.Record;
+import com.netease.stream.util.CommonUtils;
+import com.netease.stream.util.NamedThreadFactory;
+import com.netease.stream.util.VirtualThreads;
+
+/**
+ * Consumer reading one partition of a topic with {@link StreamClient#getRecords}.
+ * <p>
+ * A background fetcher thread keeps up to {@link ConsumerConfiguration#getPrefetchPages()} pages
+ * fetched ahead of the processing thread, which reads them through the {@link RecordIterator}
+ * returned by {@link #iterator()}. The processing thread therefore only waits for the network when
+ * it has caught up with the partition. With {@link ConsumerConfiguration#isUseVirtualThreads()} the
+ * fetcher is a virtual thread, so one client can serve thousands of consumers.
+ */
+public class StreamConsumer implements Iterable<Record>, Closeable {
+
+    /** Shared logger for consumer events */
+    private static final Log log = LogFactory.getLog(StreamConsumer.class);
+
+    /** Names the fetcher threads of all consumers. */
+    private static final String FETCHER_THREAD_PREFIX = "stream-consumer-fetcher";
+
+    private static final NamedThreadFactory fetcherThreadFactory = new NamedThreadFactory(
+            FETCHER_THREAD_PREFIX);
+
+    /** Creates the virtual fetcher threads, once the first consumer asks for one. */
+    private static volatile ThreadFactory virtualFetcherThreadFactory;
+
+    private final StreamClient client;
+
+    private final ConsumerConfiguration config;
+
+    /** Pages fetched and not yet processed. */
+    private final BlockingQueue<RecordPage> pages;
+
+    private final RecordIterator iterator;
+
+    private final Thread fetcher;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new consumer starting at the offset of the specified type, as returned by
+     * {@link StreamClient#getOffset(String, int, String)}.
+     *
+     * @param client The client used to fetch the records.
+     * @param topicName topic name.
+     * @param partitionId partition id.
+     * @param offsetType offset type, for example EARLIEST.
+     * @param config The consumer configuration.
+     * @throws ClientException If the start offset can not be obtained.
+     */
+    public StreamConsumer(StreamClient client, String topicName, int partitionId,
+            String offsetType, ConsumerConfiguration config) throws ClientException {
+        this(client, resolveOffset(client, topicName, partitionId, offsetType), config);
+    }
+
+    /**
+     * Constructs a new consumer starting at the specified offset, for example the position of a
+     * previous {@link RecordIterator}.
+     *
+     * @param client The client used to fetch the records.
+     * @param offset The offset of the first record to read.
+     * @param config The consumer configuration.
+     */
+    public StreamConsumer(StreamClient client, String offset, ConsumerConfiguration config) {
+        CommonUtils commonUtils = new CommonUtils();
+        commonUtils.assertParameterNotNull(client, "The client parameter must be specified.");
+        commonUtils.assertParameterNotNull(offset, "The offset parameter must be specified.");
+        commonUtils.assertParameterNotNull(config, "The config parameter must be specified.");
+
+        this.client = client;
+        this.config = new ConsumerConfiguration(config);
+        this.pages = new ArrayBlockingQueue<RecordPage>(this.config.getPrefetchPages());
+        this.iterator = new RecordIterator(pages, offset);
+        this.fetcher = getFetcherThreadFactory(this.config).newThread(new Fetcher(offset));
+        this.fetcher.start();
+    }
+
+    /**
+     * Returns the iterator over the records of this consumer. Every call returns the same
+     * iterator.
+     *
+     * @return The record iterator.
+     */
+    public RecordIterator iterator() {
+        return iterator;
+    }
+
+    /**
+     * Stops the fetcher thread, aborting the request it is waiting for. Pending and future calls
+     * of the iterator return no more records.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        iterator.close();
+        fetcher.interrupt();
+        try {
+            fetcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pages.clear();
+        pages.offer(RecordIterator.END_OF_STREAM);
+    }
+
+    private static ThreadFactory getFetcherThreadFactory(ConsumerConfiguration config) {
+        if (!config.isUseVirtualThreads()) {
+            return fetcherThreadFactory;
+        }
+        ThreadFactory factory = virtualFetcherThreadFactory;
+        if (factory == null) {
+            // Racing consumers may each create a factory; any of them will do.
+            factory = VirtualThreads.newThreadFactory(FETCHER_THREAD_PREFIX);
+            virtualFetcherThreadFactory = factory;
+        }
+        return factory;
+    }
+
+    private static String resolveOffset(StreamClient client, String topicName, int partitionId,
+            String offsetType) {
+        new CommonUtils()
+                .assertParameterNotNull(client, "The client parameter must be specified.");
+        String offset = client.getOffset(topicName, partitionId, offsetType).getOffset();
+        if (offset == null) {
+            throw new ClientException("No offset in get offset response");
+        }
+        return offset;
+    }
+
+    /** Fetches pages ahead of the processing thread until the consumer is closed. */
+    private class Fetcher implements Runnable {
+
+        private String offset;
+
+        Fetcher(String offset) {
+            this.offset = offset;
+        }
+
+        public void run() {
+            try {
+                while (!closed) {
+                    GetRecordsResult result = fetch();
+                    List<Record> records = result.getRecords();
+                    String nextOffset = result.getNextOffset();
+                    if (records.isEmpty()) {
+                        if (nextOffset != null) {
+                            offset = nextOffset;
+                        }
+                        Thread.sleep(config.getEmptyPollBackoffMillis());
+                        continue;
+                    }
+                    if (nextOffset == null) {
+                        throw new ClientException("No next offset in get records response");
+                    }
+                    // Blocks while the processing thread is prefetchPages pages behind.
+                    pages.put(new RecordPage(records, offset, nextOffset));
+                    offset = nextOffset;
+                }
+            } catch (InterruptedException e) {
+                // Closed while waiting.
+            } catch (RuntimeException e) {
+                if (!closed) {
+                    log.warn("Stopped fetching records at offset " + offset + ": "
+                            + e.getMessage(), e);
+                    try {
+                        pages.put(new RecordPage(e));
+                    } catch (InterruptedException ie) {
+                        // Closed while handing over the error.
+                    }
+                }
+            }
+        }
+
+        /**
+         * Fetches the page at the current offset. The request is sent with
+         * {@link StreamClient#pollRecords} rather than as a blocking call, since the blocking
+         * transport does not abort a socket read when the thread is interrupted: closing the
+         * consumer cancels the request instead of waiting for the socket timeout.
+         */
+        private GetRecordsResult fetch() throws InterruptedException {
+            CompletableFuture<GetRecordsResult> page =
+                    client.pollRecords(offset, config.getPageSize());
+            try {
+                return page.get();
+            } catch (InterruptedException e) {
+                page.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new ClientException("Unable to get records: " + cause.getMessage(), cause);
+            }
+        }
+    }
+
+}
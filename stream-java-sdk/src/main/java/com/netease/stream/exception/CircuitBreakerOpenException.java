@@ -0,0 +1,48 @@
+package com.netease.stream.exception;
+
+/**
+ * Thrown instead of sending a request when the circuit breaker of its endpoint is open, because
+ * recent requests to the endpoint failed or were too slow. The request was not sent; the
+ * breaker lets probe requests through after {@link #getRetryAfterMillis()}.
+ * 
+ * @see com.netease.stream.policy.CircuitBreaker
+ */
+public class CircuitBreakerOpenException extends ClientException {
+    private static final long serialVersionUID = 1L;
+
+    private final String host;
+
+    private final long retryAfterMillis;
+
+    /**
+     * Creates a new CircuitBreakerOpenException.
+     * 
+     * @param host The host, with optional port, whose circuit is open.
+     * @param retryAfterMillis The time (in milliseconds) until probe requests are let through.
+     */
+    public CircuitBreakerOpenException(String host, long retryAfterMillis) {
+        super("Circuit breaker of " + host + " is open, retry after " + retryAfterMillis + " ms");
+        this.host = host;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Returns the host whose circuit is open.
+     * 
+     * @return The host, with optional port.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Returns the time (in milliseconds) until the breaker lets probe requests through. While
+     * probes are in flight it is 0, though the request is still refused.
+     * 
+     * @return The time to wait in milliseconds.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.netease.stream.exception;
+
+/**
+ * Thrown instead of sending a request when the client-side rate limit of its topic or
+ * subscription is exhausted and the limiter is configured to fail fast. The request was not sent;
+ * it can be tried again after {@link #getRetryAfterMillis()}.
+ * 
+ * @see com.netease.stream.policy.RateLimiter
+ */
+public class RateLimitExceededException extends ClientException {
+    private static final long serialVersionUID = 1L;
+
+    private final String key;
+
+    private final long retryAfterMillis;
+
+    /**
+     * Creates a new RateLimitExceededException.
+     * 
+     * @param key The topic or subscription name whose limit is exhausted.
+     * @param retryAfterMillis The time (in milliseconds) until the limit admits the request.
+     */
+    public RateLimitExceededException(String key, long retryAfterMillis) {
+        super("Rate limit of " + key + " exceeded, retry after " + retryAfterMillis + " ms");
+        this.key = key;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Returns the topic or subscription name whose limit is exhausted.
+     * 
+     * @return The rate limit key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the time (in milliseconds) until the limit admits the request, if no other request
+     * takes the capacity first.
+     * 
+     * @return The time to wait in milliseconds.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+}
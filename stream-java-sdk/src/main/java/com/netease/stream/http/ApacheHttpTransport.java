@@ -0,0 +1,184 @@
+package com.netease.stream.http;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import com.netease.stream.config.ClientConfiguration;
+import com.netease.stream.util.NamedThreadFactory;
+
+/**
+ * Transport sending requests with the blocking Apache HttpClient and its pool of at most
+ * {@link ClientConfiguration#getMaxConnections()} connections. Asynchronous requests are run on a
+ * thread of an internal pool each. Compressed response bodies are decompressed as they are read.
+ */
+public class ApacheHttpTransport implements HttpTransport {
+
+    /** Logger providing detailed information on requests/responses. */
+    private static final Log log = LogFactory.getLog(ApacheHttpTransport.class);
+
+    private static final HttpRequestFactory httpRequestFactory = new HttpRequestFactory();
+
+    private static final HttpClientFactory httpClientFactory = new HttpClientFactory();
+
+    /** Internal client for sending HTTP requests */
+    private final HttpClient httpClient;
+
+    private final ClientConfiguration config;
+
+    /** Threads blocking on asynchronous requests. */
+    private final ExecutorService asyncExecutor = Executors
+            .newCachedThreadPool(new NamedThreadFactory("stream-http-async"));
+
+    /**
+     * Constructs a new transport using the specified client configuration options.
+     * 
+     * @param config Configuration options specifying how this transport will communicate.
+     */
+    public ApacheHttpTransport(ClientConfiguration config) {
+        this.config = config;
+        this.httpClient = httpClientFactory.createHttpClient(config);
+    }
+
+    public <T> T execute(Request request, HttpResponseHandler<T> responseHandler)
+            throws IOException {
+        return execute(createHttpRequest(request), request, responseHandler);
+    }
+
+    private HttpRequestBase createHttpRequest(Request request) {
+        HttpRequestBase httpRequest = httpRequestFactory.createHttpRequest(request);
+        if (config.isUseResponseCompression()) {
+            httpRequest.addHeader(Headers.ACCEPT_ENCODING, ContentEncoding.ACCEPTED);
+        }
+        return httpRequest;
+    }
+
+    private <T> T execute(HttpRequestBase httpRequest, Request request,
+            HttpResponseHandler<T> responseHandler) throws IOException {
+        org.apache.http.HttpResponse response = null;
+        try {
+            response = httpClient.execute(httpRequest);
+            if (!isRequestSuccessful(response)) {
+                log.warn("Unable to execute HTTP request Code:"
+                        + response.getStatusLine().getStatusCode() + ", message:"
+                        + response.getStatusLine().getReasonPhrase());
+            }
+            return responseHandler.handle(createResponse(httpRequest, request, response));
+        } finally {
+            /*
+             * Some response handlers need to manually manage the HTTP connection and will take care
+             * of releasing the connection on their own, but if this response handler doesn't need
+             * the connection left open, we go ahead and release the it to free up resources.
+             */
+            try {
+                response.getEntity().getContent().close();
+            } catch (Throwable t) {
+            }
+        }
+    }
+
+    public <T> CompletableFuture<T> executeAsync(final Request request,
+            final HttpResponseHandler<T> responseHandler) {
+        final HttpRequestBase httpRequest;
+        try {
+            httpRequest = createHttpRequest(request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final CompletableFuture<T> result = CompletableFuture.supplyAsync(new Supplier<T>() {
+            public T get() {
+                try {
+                    return execute(httpRequest, request, responseHandler);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }
+        }, asyncExecutor);
+        result.whenComplete(new BiConsumer<T, Throwable>() {
+            public void accept(T value, Throwable t) {
+                if (result.isCancelled()) {
+                    // Closes the connection of a request in flight, or stops it from being sent.
+                    httpRequest.abort();
+                }
+            }
+        });
+        return result;
+    }
+
+    public List<ConnectionPoolStats> getConnectionPoolStats() {
+        ClientConnectionManager connectionManager = httpClient.getConnectionManager();
+        if (connectionManager instanceof InstrumentedConnectionManager) {
+            return ((InstrumentedConnectionManager) connectionManager).getConnectionPoolStats();
+        }
+        return Collections.emptyList();
+    }
+
+    public void shutdown() {
+        asyncExecutor.shutdown();
+        IdleConnectionReaper.removeConnectionManager(httpClient.getConnectionManager());
+        httpClient.getConnectionManager().shutdown();
+    }
+
+    private boolean isRequestSuccessful(org.apache.http.HttpResponse response) {
+        int status = response.getStatusLine().getStatusCode();
+        return status / 100 == HttpStatus.SC_OK / 100;
+    }
+
+    /**
+     * Creates and initializes an HttpResponse object suitable to be passed to an HTTP response
+     * handler object. The body is not read, the response refers to the stream of the entity,
+     * decompressing it if it is compressed.
+     * 
+     * @param method The HTTP method that was invoked to get the response.
+     * @param request The HTTP request associated with the response.
+     * @return The new, initialized HttpResponse object ready to be passed to an HTTP response
+     *         handler object.
+     * @throws IOException If there were any problems getting any response information from the
+     *         HttpClient method object.
+     */
+    private HttpResponse createResponse(HttpRequestBase method, Request request,
+            org.apache.http.HttpResponse apacheHttpResponse) throws IOException {
+        HttpResponse httpResponse = new HttpResponse(request, method);
+
+        Header contentEncoding = apacheHttpResponse.getFirstHeader(Headers.CONTENT_ENCODING);
+        boolean encoded =
+                contentEncoding != null && ContentEncoding.isEncoded(contentEncoding.getValue());
+        HttpEntity entity = apacheHttpResponse.getEntity();
+        if (entity != null) {
+            // The entity is the body as received, its length is -1 if it is sent in chunks.
+            httpResponse.setContentStream(entity.getContent(),
+                    encoded ? contentEncoding.getValue() : null, entity.getContentLength());
+        }
+
+        httpResponse.setStatusCode(apacheHttpResponse.getStatusLine().getStatusCode());
+        httpResponse.setStatusText(apacheHttpResponse.getStatusLine().getReasonPhrase());
+        for (Header header : apacheHttpResponse.getAllHeaders()) {
+            if (header.getName().equalsIgnoreCase(Headers.CONTENT_LENGTH)) {
+                // The length of a compressed body is no hint for the decompressed one.
+                if (!encoded) {
+                    httpResponse.addHeader(Headers.CONTENT_LENGTH, header.getValue());
+                }
+                continue;
+            }
+            httpResponse.addHeader(header.getName(), header.getValue());
+        }
+
+        return httpResponse;
+    }
+
+}
@@ -17,7 +17,8 @@ class ConnectionManagerFactory {
      */
     public static ThreadSafeClientConnManager createThreadSafeClientConnManager(
             ClientConfiguration config, HttpParams httpClientParams) {
-        ThreadSafeClientConnManager connectionManager = new ThreadSafeClientConnManager();
+        ThreadSafeClientConnManager connectionManager =
+                new InstrumentedConnectionManager(config.getMetricsCollector());
         connectionManager.setDefaultMaxPerRoute(config.getMaxConnections());
         connectionManager.setMaxTotal(config.getMaxConnections());
 
@@ -0,0 +1,63 @@
+package com.netease.stream.http;
+
+/**
+ * Snapshot of the connections a transport holds to one route, that is one host and port: how many
+ * are leased to requests, how many wait idle in the pool, how many requests wait for one, and how
+ * many the route may have at most. When leased reaches max, requests queue up as pending.
+ */
+public final class ConnectionPoolStats {
+
+    private final String route;
+
+    private final int leased;
+
+    private final int available;
+
+    private final int pending;
+
+    private final int max;
+
+    /**
+     * Constructs a new snapshot.
+     *
+     * @param route The host and port connected to.
+     * @param leased The number of connections leased to requests.
+     * @param available The number of idle connections in the pool.
+     * @param pending The number of requests waiting for a connection.
+     * @param max The maximum number of connections to the route.
+     */
+    public ConnectionPoolStats(String route, int leased, int available, int pending, int max) {
+        this.route = route;
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return route + " [leased: " + leased + "; available: " + available + "; pending: "
+                + pending + "; max: " + max + "]";
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.netease.stream.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content codings of HTTP bodies: the request bodies compressed by the client and the response
+ * bodies it decompresses.
+ */
+public class ContentEncoding {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    /** Value of the Accept-Encoding header, listing the codings {@link #decode} understands. */
+    public static final String ACCEPTED = GZIP + ", " + DEFLATE;
+
+    private ContentEncoding() {}
+
+    /**
+     * Returns whether a body with the specified Content-Encoding has to be decoded.
+     *
+     * @param contentEncoding The value of the Content-Encoding header, or null.
+     * @return true for gzip and deflate.
+     */
+    public static boolean isEncoded(String contentEncoding) {
+        return contentEncoding != null
+                && (GZIP.equalsIgnoreCase(contentEncoding.trim()) || DEFLATE
+                        .equalsIgnoreCase(contentEncoding.trim()));
+    }
+
+    /**
+     * Wraps the body stream of a response in a stream decompressing it, as the body is read.
+     *
+     * @param content The stream of the body as received.
+     * @param contentEncoding The value of the Content-Encoding header, or null.
+     * @return The stream of the decoded body, or the specified stream if it is not encoded.
+     * @throws IOException If the gzip header can not be read.
+     */
+    public static InputStream decode(InputStream content, String contentEncoding)
+            throws IOException {
+        if (content == null || !isEncoded(contentEncoding)) {
+            return content;
+        }
+        if (GZIP.equalsIgnoreCase(contentEncoding.trim())) {
+            return new GzipDecoder(content);
+        }
+        return new DeflateDecoder(content);
+    }
+
+    /** Stream decompressing a body, which knows how much of the compressed body it consumed. */
+    interface Decoder {
+
+        /**
+         * Returns the number of compressed bytes decompressed so far, without the gzip header and
+         * trailer. The count is kept once the stream is closed.
+         */
+        long getEncodedBytes();
+    }
+
+    private static final class GzipDecoder extends GZIPInputStream implements Decoder {
+
+        /** The count taken when the stream was closed, since closing ends the inflater. */
+        private long encodedBytes = -1;
+
+        GzipDecoder(InputStream in) throws IOException {
+            super(in, 8192);
+        }
+
+        public long getEncodedBytes() {
+            return encodedBytes >= 0 ? encodedBytes : inf.getBytesRead();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (encodedBytes < 0) {
+                encodedBytes = inf.getBytesRead();
+            }
+            super.close();
+        }
+    }
+
+    private static final class DeflateDecoder extends InflaterInputStream implements Decoder {
+
+        /** The count taken when the stream was closed, since closing ends the inflater. */
+        private long encodedBytes = -1;
+
+        DeflateDecoder(InputStream in) {
+            super(in);
+        }
+
+        public long getEncodedBytes() {
+            return encodedBytes >= 0 ? encodedBytes : inf.getBytesRead();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (encodedBytes < 0) {
+                encodedBytes = inf.getBytesRead();
+            }
+            super.close();
+        }
+    }
+
+}
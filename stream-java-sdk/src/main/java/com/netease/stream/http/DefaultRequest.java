@@ -44,6 +44,9 @@ public class DefaultRequest implements Request {
     /** body data content. */
     private String content;
 
+    /** encoded body data content. */
+    private byte[] contentBytes;
+
     public void setServiceName(String serviceName) {
         this.serviceName = serviceName;
     }
@@ -139,6 +142,20 @@ public class DefaultRequest implements Request {
         this.content = content;
     }
 
+    /**
+     * @see com.netease.stream.http.Request#getContentBytes()
+     */
+    public byte[] getContentBytes() {
+        return contentBytes;
+    }
+
+    /**
+     * @see com.netease.stream.http.Request#setContentBytes(byte[])
+     */
+    public void setContentBytes(byte[] contentBytes) {
+        this.contentBytes = contentBytes;
+    }
+
     /**
      * @see com.netease.stream.http.Request#setHeaders(java.util.Map)
      */
@@ -13,6 +13,7 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.StringEntity;
 
 import com.netease.stream.exception.ClientException;
@@ -31,16 +32,7 @@ public class HttpRequestFactory {
      *         original request set.
      */
     public HttpRequestBase createHttpRequest(Request request) {
-        URI endpoint = request.getEndpoint();
-        String uri = endpoint.toString();
-        if (request.getResourcePath() != null && request.getResourcePath().length() > 0) {
-            if (request.getResourcePath().startsWith("/") == false) {
-                uri += "/";
-            }
-            uri += request.getResourcePath();
-        } else if (!uri.endsWith("/")) {
-            uri += "/";
-        }
+        String uri = createUri(request);
 
         HttpRequestBase httpRequest;
         if (request.getHttpMethod() == HttpMethod.POST) {
@@ -52,7 +44,9 @@ public class HttpRequestFactory {
              * Query services, the best behavior is putting the params in the request body for POST
              * requests, but we can't do that for S3.
              */
-            if (request.getContent() != null) {
+            if (request.getContentBytes() != null) {
+                postMethod.setEntity(new ByteArrayEntity(request.getContentBytes()));
+            } else if (request.getContent() != null) {
                 postMethod.setEntity(newStringEntity(request.getContent()));
             }
             httpRequest = postMethod;
@@ -88,6 +82,26 @@ public class HttpRequestFactory {
         return httpRequest;
     }
 
+    /**
+     * Creates the URI a request is sent to, from its endpoint and resource path.
+     * 
+     * @param request The request to send.
+     * @return The URI of the request.
+     */
+    String createUri(Request request) {
+        URI endpoint = request.getEndpoint();
+        String uri = endpoint.toString();
+        if (request.getResourcePath() != null && request.getResourcePath().length() > 0) {
+            if (request.getResourcePath().startsWith("/") == false) {
+                uri += "/";
+            }
+            uri += request.getResourcePath();
+        } else if (!uri.endsWith("/")) {
+            uri += "/";
+        }
+        return uri;
+    }
+
     /**
      * Configures the headers in the specified Apache HTTP request.
      * 
@@ -1,5 +1,10 @@
 package com.netease.stream.http;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -10,12 +15,18 @@ import org.apache.http.client.methods.HttpRequestBase;
  */
 public class HttpResponse {
 
+    /** Charset of all response bodies sent by the service. */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
     private final Request request;
     private final HttpRequestBase httpRequest;
 
     private String statusText;
     private int statusCode;
     private String content;
+    private InputStream contentStream;
+    private long receivedContentLength = -1;
+    private ContentEncoding.Decoder decoder;
     private Map<String, String> headers = new HashMap<String, String>();
 
     /**
@@ -84,6 +95,89 @@ public class HttpResponse {
         return content;
     }
 
+    /**
+     * Sets the stream the response body is read from.
+     * 
+     * @param contentStream The stream the response body is read from.
+     */
+    public void setContentStream(InputStream contentStream) {
+        this.contentStream = contentStream;
+    }
+
+    /**
+     * Sets the stream the response body is received from, decompressing it as it is read if it is
+     * encoded. The number of bytes received stays known through
+     * {@link #getReceivedContentLength()}, whatever stream the body is read from later.
+     * 
+     * @param content The stream of the body as received, or null if the response has no body.
+     * @param contentEncoding The value of the Content-Encoding header, or null.
+     * @param receivedContentLength The length of the body as received, before decompression, or
+     *        -1 if it is not known before the body is read.
+     * @throws IOException If the gzip header can not be read.
+     */
+    public void setContentStream(InputStream content, String contentEncoding,
+            long receivedContentLength) throws IOException {
+        InputStream decoded = ContentEncoding.decode(content, contentEncoding);
+        this.contentStream = decoded;
+        this.receivedContentLength = receivedContentLength;
+        this.decoder = decoded instanceof ContentEncoding.Decoder
+                ? (ContentEncoding.Decoder) decoded : null;
+    }
+
+    /**
+     * Returns the length of the body as received, before decompression: the length known to the
+     * transport, or else the compressed bytes decompressed so far. An uncompressed body sent in
+     * chunks and streamed to the handler is not counted.
+     * 
+     * @return The number of bytes received, or -1 if it is not known.
+     */
+    public long getReceivedContentLength() {
+        if (receivedContentLength >= 0) {
+            return receivedContentLength;
+        }
+        return decoder != null ? decoder.getEncodedBytes() : -1;
+    }
+
+    /**
+     * Returns the stream the response body is read from, or null if the response has no body. The
+     * stream is only valid while the response is being handled by an {@link HttpResponseHandler}.
+     * 
+     * @return The stream the response body is read from.
+     */
+    public InputStream getContentStream() {
+        return contentStream;
+    }
+
+    /**
+     * Returns a reader decoding the response body as UTF-8, or null if the response has no body.
+     * Like the stream it reads from, the reader is only valid while the response is being handled.
+     * 
+     * @return A reader over the response body.
+     */
+    public Reader getContentReader() {
+        if (contentStream == null) {
+            return null;
+        }
+        return new InputStreamReader(contentStream, UTF8);
+    }
+
+    /**
+     * Returns the length of the response body as announced in the Content-Length header.
+     * 
+     * @return The length of the response body, or -1 if it is not known.
+     */
+    public long getContentLength() {
+        String contentLength = headers.get(Headers.CONTENT_LENGTH);
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /**
      * Sets the HTTP status text returned with this response.
      * 
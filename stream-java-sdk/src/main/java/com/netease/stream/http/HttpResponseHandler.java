@@ -0,0 +1,26 @@
+package com.netease.stream.http;
+
+import java.io.IOException;
+
+/**
+ * Turns an HTTP response into the result handed to the caller, reading the response body straight
+ * from the connection.
+ * <p>
+ * The stream returned by {@link HttpResponse#getContentStream()} is only valid during
+ * {@link #handle(HttpResponse)}; the connection is released to the pool as soon as the handler
+ * returns, whether or not the body has been read completely.
+ *
+ * @param <T> The type of the result.
+ */
+public interface HttpResponseHandler<T> {
+
+    /**
+     * Handles the response to a request.
+     *
+     * @param response The response, with status, headers and the streaming body.
+     * @return The result handed to the caller.
+     * @throws IOException If the body can not be read.
+     */
+    public T handle(HttpResponse response) throws IOException;
+
+}
@@ -0,0 +1,52 @@
+package com.netease.stream.http;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends requests over HTTP and hands the responses to response handlers. Implementations are
+ * thread safe and shared by all requests of a client.
+ * 
+ * @see TransportType
+ */
+public interface HttpTransport {
+
+    /**
+     * Sends the request and hands the response to the handler, blocking the calling thread until
+     * the handler has returned.
+     * 
+     * @param request The request to send.
+     * @param responseHandler Handler turning the response into the result.
+     * @return The result returned by the response handler.
+     * @throws IOException If the request can not be sent or the response can not be read.
+     */
+    public <T> T execute(Request request, HttpResponseHandler<T> responseHandler)
+            throws IOException;
+
+    /**
+     * Sends the request without blocking the calling thread. The returned future completes with
+     * the result of the handler, or exceptionally with the IOException or runtime exception which
+     * failed the request. Cancelling the future aborts the request and releases its connection.
+     * 
+     * @param request The request to send.
+     * @param responseHandler Handler turning the response into the result.
+     * @return A future completed with the result returned by the response handler.
+     */
+    public <T> CompletableFuture<T> executeAsync(Request request,
+            HttpResponseHandler<T> responseHandler);
+
+    /**
+     * Returns a snapshot of the connections of each route this transport connected to, for a
+     * reporter to publish as gauges.
+     * 
+     * @return The snapshots, one per route, empty if the transport does not expose its pool.
+     */
+    public List<ConnectionPoolStats> getConnectionPoolStats();
+
+    /**
+     * Releases the connections and threads held by this transport. Requests in flight may fail.
+     */
+    public void shutdown();
+
+}
@@ -1,8 +1,10 @@
 package com.netease.stream.http;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -17,6 +19,9 @@ import org.apache.http.conn.ClientConnectionManager;
  * Many sockets stuck in CLOSE_WAIT can prevent the OS from creating new connections.
  * <p>
  * This class closes idle connections before they can move into the CLOSE_WAIT state.
+ * <p>
+ * Registration takes no monitor, so creating clients on virtual threads does not pin their
+ * carrier threads.
  */
 public class IdleConnectionReaper extends Thread {
 
@@ -25,13 +30,17 @@ public class IdleConnectionReaper extends Thread {
 
     /**
      * The list of registered connection managers, whose connections will be periodically checked
-     * and idle connections closed.
+     * and idle connections closed. Copied on write, so the reaper iterates a snapshot without
+     * blocking registrations.
      */
-    private static ArrayList<ClientConnectionManager> connectionManagers =
-            new ArrayList<ClientConnectionManager>();
+    private static final List<ClientConnectionManager> connectionManagers =
+            new CopyOnWriteArrayList<ClientConnectionManager>();
+
+    /** Guards the creation of the singleton instance. */
+    private static final Lock instanceLock = new ReentrantLock();
 
     /** Singleton instance of the connection reaper. */
-    private static IdleConnectionReaper instance;
+    private static volatile IdleConnectionReaper instance;
 
     /** Shared log for any errors during connection reaping. */
     static final Log log = LogFactory.getLog(IdleConnectionReaper.class);
@@ -43,15 +52,20 @@ public class IdleConnectionReaper extends Thread {
         start();
     }
 
-    public static synchronized void registerConnectionManager(
-            ClientConnectionManager connectionManager) {
-        if (instance == null)
-            instance = new IdleConnectionReaper();
+    public static void registerConnectionManager(ClientConnectionManager connectionManager) {
+        if (instance == null) {
+            instanceLock.lock();
+            try {
+                if (instance == null)
+                    instance = new IdleConnectionReaper();
+            } finally {
+                instanceLock.unlock();
+            }
+        }
         connectionManagers.add(connectionManager);
     }
 
-    public static synchronized void removeConnectionManager(
-            ClientConnectionManager connectionManager) {
+    public static void removeConnectionManager(ClientConnectionManager connectionManager) {
         connectionManagers.remove(connectionManager);
     }
 
@@ -61,15 +75,9 @@ public class IdleConnectionReaper extends Thread {
             try {
                 Thread.sleep(PERIOD_MILLISECONDS);
 
-                // Copy the list of managed ConnectionManagers to avoid possible
-                // ConcurrentModificationExceptions if registerConnectionManager
-                // or
-                // removeConnectionManager are called while we're iterating
-                // (rather
-                // than block/lock while this loop executes).
-                @SuppressWarnings({"unchecked", "static-access"})
-                List<ClientConnectionManager> connectionManagers =
-                        (List<ClientConnectionManager>) this.connectionManagers.clone();
+                // Iterates a snapshot of the registered ConnectionManagers, so
+                // registerConnectionManager and removeConnectionManager may be
+                // called while this loop executes.
                 for (ClientConnectionManager connectionManager : connectionManagers) {
                     // When we release connections, the connection manager
                     // leaves them
@@ -0,0 +1,212 @@
+package com.netease.stream.http;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.params.ConnPerRoute;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.conn.DefaultClientConnection;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.tsccm.BasicPoolEntry;
+import org.apache.http.impl.conn.tsccm.ConnPoolByRoute;
+import org.apache.http.impl.conn.tsccm.RouteSpecificPool;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.HttpParams;
+
+import com.netease.stream.metrics.MetricsCollector;
+
+/**
+ * Connection manager of the blocking transport reporting on its pool to the metrics collector of
+ * the client: the time each request waits for a connection, the age of the connections reused,
+ * and the connections opened, closed and closed by the {@link IdleConnectionReaper}. The pool is
+ * also observable per route through {@link #getConnectionPoolStats()}.
+ * <p>
+ * The pool and connection operator are created by the constructor of the superclass, before the
+ * metrics collector is assigned; they only read it once connections are requested.
+ */
+class InstrumentedConnectionManager extends ThreadSafeClientConnManager {
+
+    private final MetricsCollector metrics;
+
+    InstrumentedConnectionManager(MetricsCollector metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns a snapshot of the connections of each route the pool connected to.
+     *
+     * @return The snapshots, one per route.
+     */
+    List<ConnectionPoolStats> getConnectionPoolStats() {
+        return ((InstrumentedConnPool) pool).getConnectionPoolStats();
+    }
+
+    @Override
+    public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ClientConnectionRequest request = super.requestConnection(route, state);
+        return new ClientConnectionRequest() {
+            public ManagedClientConnection getConnection(long timeout, TimeUnit unit)
+                    throws InterruptedException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.getConnection(timeout, unit);
+                } finally {
+                    metrics.recordConnectionLease(System.nanoTime() - start);
+                }
+            }
+
+            public void abortRequest() {
+                request.abortRequest();
+            }
+        };
+    }
+
+    @Override
+    protected ConnPoolByRoute createConnectionPool(long connTTL, TimeUnit connTTLTimeUnit) {
+        return new InstrumentedConnPool(connOperator, connPerRoute, 20, connTTL, connTTLTimeUnit);
+    }
+
+    @Override
+    protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schreg) {
+        return new DefaultClientConnectionOperator(schreg) {
+            @Override
+            public OperatedClientConnection createConnection() {
+                return new InstrumentedConnection();
+            }
+        };
+    }
+
+    /**
+     * Pool recording the age of the connections it hands out again, and which connections the
+     * reaper closes.
+     */
+    private final class InstrumentedConnPool extends ConnPoolByRoute {
+
+        /** Whether the idle connections are being closed, only accessed holding the pool lock. */
+        private boolean reaping;
+
+        InstrumentedConnPool(ClientConnectionOperator operator, ConnPerRoute connPerRoute,
+                int maxTotalConnections, long connTTL, TimeUnit connTTLTimeUnit) {
+            super(operator, connPerRoute, maxTotalConnections, connTTL, connTTLTimeUnit);
+        }
+
+        List<ConnectionPoolStats> getConnectionPoolStats() {
+            getLock().lock();
+            try {
+                List<ConnectionPoolStats> stats =
+                        new ArrayList<ConnectionPoolStats>(routeToPool.size());
+                for (RouteSpecificPool routePool : routeToPool.values()) {
+                    int available = ((InstrumentedRoutePool) routePool).getAvailable();
+                    stats.add(new ConnectionPoolStats(
+                            routePool.getRoute().getTargetHost().toHostString(),
+                            routePool.getEntryCount() - available, available,
+                            ((InstrumentedRoutePool) routePool).getPending(),
+                            connPerRoute.getMaxForRoute(routePool.getRoute())));
+                }
+                return stats;
+            } finally {
+                getLock().unlock();
+            }
+        }
+
+        @Override
+        protected RouteSpecificPool newRouteSpecificPool(HttpRoute route) {
+            return new InstrumentedRoutePool(route, connPerRoute);
+        }
+
+        @Override
+        protected BasicPoolEntry getFreeEntry(RouteSpecificPool rospl, Object state) {
+            BasicPoolEntry entry = super.getFreeEntry(rospl, state);
+            if (entry != null) {
+                metrics.recordConnectionAge(TimeUnit.MILLISECONDS.toNanos(System
+                        .currentTimeMillis() - entry.getCreated()));
+            }
+            return entry;
+        }
+
+        @Override
+        public void closeIdleConnections(long idletime, TimeUnit tunit) {
+            // The lock is reentrant, and held by the superclass while it deletes the entries.
+            getLock().lock();
+            try {
+                reaping = true;
+                super.closeIdleConnections(idletime, tunit);
+            } finally {
+                reaping = false;
+                getLock().unlock();
+            }
+        }
+
+        @Override
+        protected void deleteEntry(BasicPoolEntry entry) {
+            super.deleteEntry(entry);
+            if (reaping) {
+                metrics.recordConnectionReaped();
+            }
+        }
+    }
+
+    /** Pool of the connections to one route exposing how many are idle and waited for. */
+    private static final class InstrumentedRoutePool extends RouteSpecificPool {
+
+        InstrumentedRoutePool(HttpRoute route, ConnPerRoute connPerRoute) {
+            super(route, connPerRoute);
+        }
+
+        int getAvailable() {
+            return freeEntries.size();
+        }
+
+        int getPending() {
+            return waitingThreads.size();
+        }
+    }
+
+    /** Connection recording when its socket is opened and closed, once each. */
+    private final class InstrumentedConnection extends DefaultClientConnection {
+
+        private final AtomicBoolean open = new AtomicBoolean();
+
+        @Override
+        public void openCompleted(boolean secure, HttpParams params) throws IOException {
+            super.openCompleted(secure, params);
+            if (open.compareAndSet(false, true)) {
+                metrics.recordConnectionOpened();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                closed();
+            }
+        }
+
+        @Override
+        public void shutdown() throws IOException {
+            try {
+                super.shutdown();
+            } finally {
+                closed();
+            }
+        }
+
+        private void closed() {
+            if (open.compareAndSet(true, false)) {
+                metrics.recordConnectionClosed();
+            }
+        }
+    }
+
+}
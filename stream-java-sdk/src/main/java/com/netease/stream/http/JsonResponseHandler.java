@@ -0,0 +1,38 @@
+package com.netease.stream.http;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.util.json.JSONException;
+import com.netease.stream.util.json.JSONObject;
+import com.netease.stream.util.json.JSONTokener;
+
+/**
+ * Response handler parsing the response body into a JSONObject directly from the connection,
+ * without building a String of the body first.
+ */
+public class JsonResponseHandler implements HttpResponseHandler<JSONObject> {
+
+    /**
+     * Parses the response body.
+     *
+     * @param response The response to parse.
+     * @return The parsed body, or null if the response has no body.
+     * @throws IOException If the body can not be read.
+     */
+    public JSONObject handle(HttpResponse response) throws IOException {
+        Reader reader = response.getContentReader();
+        if (reader == null) {
+            return null;
+        }
+        try {
+            return new JSONObject(new JSONTokener(reader));
+        } catch (JSONException e) {
+            throw new ClientException("Unable to parse response: " + e.getMessage(), e);
+        } finally {
+            reader.close();
+        }
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.netease.stream.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.netease.stream.config.ClientConfiguration;
+import com.netease.stream.exception.ClientException;
+
+/**
+ * Transport sending requests with the non-blocking JDK {@link java.net.http.HttpClient}.
+ * <p>
+ * Asynchronous requests hold no thread while they wait for the response: the body is received
+ * with non-blocking I/O and the response handler runs once it is complete, on a thread of the
+ * HttpClient executor. Blocking requests stream the body to the handler like the Apache transport
+ * does. Compressed bodies are decompressed as the handler reads them. The number of connections
+ * is not limited by {@link ClientConfiguration#getMaxConnections()}.
+ * <p>
+ * Requires JDK 12 or later at runtime: the JDK 11 HttpClient refuses the Date header signed into
+ * every request, so the transport can not be created on an older runtime.
+ */
+public class NioHttpTransport implements HttpTransport {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final HttpRequestFactory httpRequestFactory = new HttpRequestFactory();
+
+    /** Headers set by the JDK HttpClient itself, which it refuses to take from the request. */
+    private static final String[] RESTRICTED_HEADERS = {"Connection", "Content-Length", "Expect",
+            "Host", "Upgrade"};
+
+    /** The first JDK whose HttpClient accepts a Date header from the request. */
+    private static final int MINIMUM_JAVA_VERSION = 12;
+
+    private final ClientConfiguration config;
+
+    private final java.net.http.HttpClient httpClient;
+
+    /**
+     * Constructs a new transport using the specified client configuration options.
+     * 
+     * @param config Configuration options specifying how this transport will communicate.
+     * @throws ClientException If the runtime is older than JDK 12.
+     */
+    public NioHttpTransport(ClientConfiguration config) {
+        if (Runtime.version().feature() < MINIMUM_JAVA_VERSION) {
+            throw new ClientException("The NIO transport requires Java " + MINIMUM_JAVA_VERSION
+                    + " or later, this runtime is Java " + Runtime.version().feature()
+                    + "; use the BLOCKING transport instead.");
+        }
+        this.config = config;
+        java.net.http.HttpClient.Builder builder =
+                java.net.http.HttpClient.newBuilder()
+                        .version(java.net.http.HttpClient.Version.HTTP_1_1)
+                        .followRedirects(java.net.http.HttpClient.Redirect.NEVER);
+        if (config.getConnectionTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(config.getConnectionTimeout()));
+        }
+        this.httpClient = builder.build();
+    }
+
+    public <T> T execute(Request request, HttpResponseHandler<T> responseHandler)
+            throws IOException {
+        java.net.http.HttpResponse<InputStream> response;
+        try {
+            response =
+                    httpClient.send(createHttpRequest(request),
+                            java.net.http.HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while executing HTTP request", e);
+        }
+        InputStream content = response.body();
+        try {
+            return responseHandler.handle(createResponse(request, response, content, -1));
+        } finally {
+            content.close();
+        }
+    }
+
+    public <T> CompletableFuture<T> executeAsync(final Request request,
+            final HttpResponseHandler<T> responseHandler) {
+        java.net.http.HttpRequest httpRequest;
+        try {
+            httpRequest = createHttpRequest(request);
+        } catch (RuntimeException e) {
+            CompletableFuture<T> failed = new CompletableFuture<T>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        final CompletableFuture<java.net.http.HttpResponse<byte[]>> sent =
+                httpClient.sendAsync(httpRequest,
+                        java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+        final CompletableFuture<T> result = sent.thenApply(
+                new Function<java.net.http.HttpResponse<byte[]>, T>() {
+                    public T apply(java.net.http.HttpResponse<byte[]> response) {
+                        byte[] body = response.body();
+                        try {
+                            return responseHandler.handle(createResponse(request, response,
+                                    new ByteArrayInputStream(body), body.length));
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }
+                });
+        result.whenComplete(new BiConsumer<T, Throwable>() {
+            public void accept(T value, Throwable t) {
+                if (result.isCancelled()) {
+                    // Cancelling a dependent stage does not reach the exchange by itself.
+                    sent.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The JDK client does not expose its connection pool, so there are no snapshots.
+     */
+    public List<ConnectionPoolStats> getConnectionPoolStats() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * The JDK HttpClient releases its connections and threads once it is no longer referenced.
+     */
+    public void shutdown() {}
+
+    private java.net.http.HttpRequest createHttpRequest(Request request) {
+        java.net.http.HttpRequest.Builder builder =
+                java.net.http.HttpRequest.newBuilder(URI.create(httpRequestFactory
+                        .createUri(request)));
+        if (config.getSocketTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(config.getSocketTimeout()));
+        }
+
+        boolean hasContentType = false;
+        for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+            if (isRestricted(entry.getKey())) {
+                continue;
+            }
+            if (entry.getKey().equalsIgnoreCase(Headers.CONTENT_TYPE)) {
+                hasContentType = true;
+            }
+            builder.header(entry.getKey(), entry.getValue());
+        }
+        if (!hasContentType) {
+            builder.header(Headers.CONTENT_TYPE, "application/json; charset=utf-8");
+        }
+        if (config.isUseResponseCompression()) {
+            builder.header(Headers.ACCEPT_ENCODING, ContentEncoding.ACCEPTED);
+        }
+
+        java.net.http.HttpRequest.BodyPublisher body;
+        if (request.getContentBytes() != null) {
+            body = java.net.http.HttpRequest.BodyPublishers.ofByteArray(request.getContentBytes());
+        } else if (request.getContent() != null) {
+            body = java.net.http.HttpRequest.BodyPublishers.ofString(request.getContent(), UTF8);
+        } else {
+            body = java.net.http.HttpRequest.BodyPublishers.noBody();
+        }
+
+        switch (request.getHttpMethod()) {
+            case GET:
+                builder.GET();
+                break;
+            case DELETE:
+                builder.DELETE();
+                break;
+            default:
+                builder.method(request.getHttpMethod().toString(), body);
+                break;
+        }
+        return builder.build();
+    }
+
+    private static boolean isRestricted(String name) {
+        for (String restricted : RESTRICTED_HEADERS) {
+            if (restricted.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the response passed to the response handler.
+     * 
+     * @param request The request associated with the response.
+     * @param response The response received by the JDK HttpClient.
+     * @param content The stream the body is read from.
+     * @param contentLength The length of the body if it has been received already, -1 otherwise.
+     * @return The new, initialized HttpResponse.
+     * @throws IOException If the header of a compressed body can not be read.
+     */
+    private static HttpResponse createResponse(Request request,
+            java.net.http.HttpResponse<?> response, InputStream content, long contentLength)
+            throws IOException {
+        HttpResponse httpResponse = new HttpResponse(request, null);
+        String contentEncoding =
+                response.headers().firstValue(Headers.CONTENT_ENCODING).orElse(null);
+        if (contentLength < 0) {
+            contentLength = getContentLength(response);
+        }
+        httpResponse.setContentStream(content, contentEncoding, contentLength);
+        httpResponse.setStatusCode(response.statusCode());
+        httpResponse.setStatusText("HTTP " + response.statusCode());
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            if (!header.getValue().isEmpty()
+                    && !header.getKey().equalsIgnoreCase(Headers.CONTENT_LENGTH)) {
+                httpResponse.addHeader(header.getKey(), header.getValue().get(0));
+            }
+        }
+        // The length of a compressed body is no hint for the decompressed one.
+        if (contentLength >= 0 && !ContentEncoding.isEncoded(contentEncoding)) {
+            httpResponse.addHeader(Headers.CONTENT_LENGTH, String.valueOf(contentLength));
+        }
+        return httpResponse;
+    }
+
+    /**
+     * Returns the length of the body as received announced in the Content-Length header, or -1 if
+     * there is none.
+     */
+    private static long getContentLength(java.net.http.HttpResponse<?> response) {
+        String length = response.headers().firstValue(Headers.CONTENT_LENGTH).orElse(null);
+        if (length == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(length.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
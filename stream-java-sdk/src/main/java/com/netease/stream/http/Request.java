@@ -115,6 +115,22 @@ public interface Request {
      */
     public void setContent(String content);
 
+    /**
+     * Returns the optional payload data of this request, already encoded. Takes precedence over
+     * {@link #getContent()}.
+     * 
+     * @return The encoded payload data, or null.
+     */
+    public byte[] getContentBytes();
+
+    /**
+     * Sets the optional payload data of this request, already encoded. The array is sent as is and
+     * must not be modified afterwards.
+     * 
+     * @param contentBytes The encoded payload data.
+     */
+    public void setContentBytes(byte[] contentBytes);
+
     /**
      * Returns the name of the service this request is for.
      * 
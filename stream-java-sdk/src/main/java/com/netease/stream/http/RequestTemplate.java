@@ -0,0 +1,71 @@
+package com.netease.stream.http;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable parts of the requests of one operation to one endpoint: the HTTP method, endpoint,
+ * resource path and static headers. A template is built once and shared by any number of threads;
+ * each request created from it only gets its body, Date and signature computed.
+ * <p>
+ * This class is only intended for internal use inside the client libraries.
+ */
+public final class RequestTemplate {
+
+    private final HttpMethod httpMethod;
+
+    private final URI endpoint;
+
+    private final String resourcePath;
+
+    private final Map<String, String> headers;
+
+    /**
+     * Constructs a new request template.
+     *
+     * @param httpMethod The HTTP method of the requests.
+     * @param endpoint The endpoint the requests are sent to.
+     * @param resourcePath The resource path of the requests.
+     * @param headers The headers every request carries, copied.
+     */
+    public RequestTemplate(HttpMethod httpMethod, URI endpoint, String resourcePath,
+            Map<String, String> headers) {
+        this.httpMethod = httpMethod;
+        this.endpoint = endpoint;
+        this.resourcePath = resourcePath;
+        this.headers = Collections.unmodifiableMap(new HashMap<String, String>(headers));
+    }
+
+    /**
+     * Creates a new request from this template, ready for its content to be set and be signed.
+     *
+     * @return A new mutable request.
+     */
+    public Request newRequest() {
+        DefaultRequest request = new DefaultRequest();
+        request.setHttpMethod(httpMethod);
+        request.setEndpoint(endpoint);
+        request.setResourcePath(resourcePath);
+        request.setHeaders(headers);
+        return request;
+    }
+
+    public HttpMethod getHttpMethod() {
+        return httpMethod;
+    }
+
+    public URI getEndpoint() {
+        return endpoint;
+    }
+
+    public String getResourcePath() {
+        return resourcePath;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+}
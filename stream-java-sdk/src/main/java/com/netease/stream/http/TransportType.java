@@ -0,0 +1,20 @@
+package com.netease.stream.http;
+
+/**
+ * The HTTP transports a client can send its requests with.
+ */
+public enum TransportType {
+
+    /**
+     * Blocking I/O with the Apache HttpClient: every request in flight holds a thread and one of
+     * the pooled connections.
+     */
+    BLOCKING,
+
+    /**
+     * Non-blocking I/O with the JDK HttpClient: asynchronous requests in flight hold no thread, so
+     * a few threads can keep thousands of long-poll requests waiting for data. Requires JDK 12 or
+     * later at runtime; creating a client with it fails on older runtimes.
+     */
+    NIO;
+}
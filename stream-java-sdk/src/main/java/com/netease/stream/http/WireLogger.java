@@ -0,0 +1,252 @@
+package com.netease.stream.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.netease.stream.client.Operation;
+
+/**
+ * Logs a sample of the requests and responses exchanged with the service, one line each, at
+ * DEBUG level to the {@value #LOG_NAME} logger.
+ * <p>
+ * Wire logging is off unless a wire logger is set on the client configuration and its logger is
+ * enabled at DEBUG level. Only then is a request sampled, and only a sampled request is formatted,
+ * so requests not logged cost one level check. The values of sensitive headers, such as
+ * Authorization, are replaced by {@value #REDACTED}; bodies are truncated, and compressed request
+ * bodies are not logged. A response body is captured as the response handler reads it, so it is
+ * not read twice.
+ */
+public class WireLogger {
+
+    /** Name of the logger wire logs are written to. */
+    public static final String LOG_NAME = "com.netease.stream.wire";
+
+    /** Placeholder of the values of redacted headers. */
+    public static final String REDACTED = "<redacted>";
+
+    public static final double DEFAULT_SAMPLE_RATE = 1;
+
+    public static final int DEFAULT_MAX_BODY_LENGTH = 1024;
+
+    public static final Collection<String> DEFAULT_REDACTED_HEADERS = Collections
+            .unmodifiableList(Arrays.asList("Authorization"));
+
+    private static final Log log = LogFactory.getLog(LOG_NAME);
+
+    private final double sampleRate;
+
+    private final int maxBodyLength;
+
+    /** Names of the redacted headers, in lower case. */
+    private final Set<String> redactedHeaders = new HashSet<String>();
+
+    /**
+     * Constructs a new wire logger logging every request, its first
+     * {@value #DEFAULT_MAX_BODY_LENGTH} bytes of body, and redacting the Authorization header.
+     */
+    public WireLogger() {
+        this(DEFAULT_SAMPLE_RATE, DEFAULT_MAX_BODY_LENGTH, DEFAULT_REDACTED_HEADERS);
+    }
+
+    /**
+     * Constructs a new wire logger.
+     *
+     * @param sampleRate The fraction, in (0, 1], of the requests logged, with their responses.
+     * @param maxBodyLength The maximum number of bytes of a body logged, 0 to log no bodies.
+     * @param redactedHeaders The names of the headers whose values are not logged, in any case.
+     */
+    public WireLogger(double sampleRate, int maxBodyLength, Collection<String> redactedHeaders) {
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("The sample rate must be in (0, 1]");
+        }
+        if (maxBodyLength < 0) {
+            throw new IllegalArgumentException("The maximum body length must not be negative");
+        }
+        this.sampleRate = sampleRate;
+        this.maxBodyLength = maxBodyLength;
+        for (String header : redactedHeaders) {
+            this.redactedHeaders.add(header.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Decides whether a request, and its response, are logged.
+     *
+     * @return true if wire logs are enabled and the request is sampled.
+     */
+    public boolean sample() {
+        return log.isDebugEnabled()
+                && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Logs a sampled request, as it is about to be sent.
+     *
+     * @param operation The operation of the request.
+     * @param request The signed request.
+     */
+    public void logRequest(Operation operation, Request request) {
+        StringBuilder line = new StringBuilder(256 + maxBodyLength);
+        line.append("request op=").append(operation.getName());
+        line.append(" method=").append(request.getHttpMethod());
+        line.append(" uri=").append(request.getEndpoint()).append(request.getResourcePath());
+        appendHeaders(line, request.getHeaders());
+        byte[] body = request.getContentBytes();
+        if (body != null) {
+            line.append(" length=").append(body.length);
+            if (request.getHeaders().containsKey(Headers.CONTENT_ENCODING)) {
+                line.append(" body=<compressed>");
+            } else {
+                appendBody(line, body, body.length, body.length);
+            }
+        }
+        log.debug(line);
+    }
+
+    /**
+     * Wraps the response handler of a sampled request to log the response it handles.
+     *
+     * @param operation The operation of the request.
+     * @param responseHandler The handler.
+     * @return A handler logging the response once the wrapped handler returned.
+     */
+    public <T> HttpResponseHandler<T> wrap(Operation operation,
+            HttpResponseHandler<T> responseHandler) {
+        return new LoggingResponseHandler<T>(operation, responseHandler);
+    }
+
+    private void appendHeaders(StringBuilder line, Map<String, String> headers) {
+        line.append(" headers={");
+        boolean first = true;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (!first) {
+                line.append(", ");
+            }
+            first = false;
+            line.append(header.getKey()).append('=');
+            if (redactedHeaders.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                line.append(REDACTED);
+            } else {
+                line.append(header.getValue());
+            }
+        }
+        line.append('}');
+    }
+
+    private void appendBody(StringBuilder line, byte[] body, int available, long length) {
+        if (maxBodyLength == 0) {
+            return;
+        }
+        int logged = Math.min(available, maxBodyLength);
+        line.append(" body=").append(new String(body, 0, logged, StandardCharsets.UTF_8));
+        if (logged < length) {
+            line.append("...");
+        }
+    }
+
+    /** Handler logging the response handled, with the start of the body the handler read. */
+    private final class LoggingResponseHandler<T> implements HttpResponseHandler<T> {
+
+        private final Operation operation;
+
+        private final HttpResponseHandler<T> responseHandler;
+
+        LoggingResponseHandler(Operation operation, HttpResponseHandler<T> responseHandler) {
+            this.operation = operation;
+            this.responseHandler = responseHandler;
+        }
+
+        public T handle(HttpResponse response) throws IOException {
+            CapturingInputStream content = null;
+            if (response.getContentStream() != null) {
+                content = new CapturingInputStream(response.getContentStream(), maxBodyLength);
+                response.setContentStream(content);
+            }
+            try {
+                return responseHandler.handle(response);
+            } finally {
+                StringBuilder line = new StringBuilder(256 + maxBodyLength);
+                line.append("response op=").append(operation.getName());
+                line.append(" status=").append(response.getStatusCode());
+                appendHeaders(line, response.getHeaders());
+                if (content != null) {
+                    line.append(" length=").append(content.count);
+                    appendBody(line, content.captured, content.capturedLength, content.count);
+                }
+                log.debug(line);
+            }
+        }
+    }
+
+    /** Stream keeping the first bytes read from the stream it wraps, and counting them all. */
+    private static final class CapturingInputStream extends FilterInputStream {
+
+        final byte[] captured;
+
+        int capturedLength;
+
+        long count;
+
+        /** Whether the bytes read follow the captured ones, until the handler skips some. */
+        private boolean capturing = true;
+
+        CapturingInputStream(InputStream in, int capacity) {
+            super(in);
+            this.captured = new byte[capacity];
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                if (capturing && capturedLength < captured.length) {
+                    captured[capturedLength++] = (byte) b;
+                }
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                if (capturing && capturedLength < captured.length) {
+                    int copied = Math.min(n, captured.length - capturedLength);
+                    System.arraycopy(b, off, captured, capturedLength, copied);
+                    capturedLength += copied;
+                }
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes are unknown; stop capturing so the captured bytes stay contiguous.
+            capturing = false;
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+}
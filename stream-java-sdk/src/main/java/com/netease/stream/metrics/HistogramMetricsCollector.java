@@ -0,0 +1,219 @@
+package com.netease.stream.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.netease.stream.client.Operation;
+
+/**
+ * Metrics collector keeping the measurements in memory: per operation, histograms of the latency,
+ * signing time, serialization time and records per batch, the request and response bytes, and a
+ * counter per status code; for the pool of the blocking transport, histograms of the lease wait
+ * and of the age of reused connections, and counters of the connections opened, closed and reaped.
+ * The meters are created up front, so recording allocates nothing but the cells a counter stripes
+ * itself into the first times it is contended. The client meters requests made with the shared
+ * handler of an operation without allocating either; putRecordsAsync and handlers of subclasses
+ * get a wrapper allocated per request.
+ * <p>
+ * A reporter reads the meters periodically, for example to publish them as gauges and function
+ * counters of a Micrometer or Dropwizard registry. Meters only grow; rates are the differences
+ * between two readings.
+ */
+public class HistogramMetricsCollector implements MetricsCollector {
+
+    private final OperationMetrics[] operations;
+
+    private final Histogram connectionLease = new Histogram();
+
+    private final Histogram connectionAge = new Histogram();
+
+    private final LongAdder connectionsOpened = new LongAdder();
+
+    private final LongAdder connectionsClosed = new LongAdder();
+
+    private final LongAdder connectionsReaped = new LongAdder();
+
+    public HistogramMetricsCollector() {
+        Operation[] values = Operation.values();
+        operations = new OperationMetrics[values.length];
+        for (Operation operation : values) {
+            operations[operation.ordinal()] = new OperationMetrics(operation);
+        }
+    }
+
+    /**
+     * Returns the meters of an operation.
+     *
+     * @param operation The operation.
+     * @return The meters, the same object for every call.
+     */
+    public OperationMetrics getOperationMetrics(Operation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    /**
+     * Returns the histogram of the times requests waited for a connection, in nanoseconds.
+     *
+     * @return The histogram.
+     */
+    public Histogram getConnectionLease() {
+        return connectionLease;
+    }
+
+    /**
+     * Returns the histogram of the ages of the pooled connections when reused, in nanoseconds.
+     *
+     * @return The histogram.
+     */
+    public Histogram getConnectionAge() {
+        return connectionAge;
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    public long getConnectionsClosed() {
+        return connectionsClosed.sum();
+    }
+
+    /** Returns the number of connections closed by the idle connection reaper. */
+    public long getConnectionsReaped() {
+        return connectionsReaped.sum();
+    }
+
+    public void recordLatency(Operation operation, long nanos) {
+        operations[operation.ordinal()].latency.record(nanos);
+    }
+
+    public void recordStatusCode(Operation operation, int statusCode) {
+        LongAdder counter = operations[operation.ordinal()].getStatusCodeCounter(statusCode);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    public void recordRequestBytes(Operation operation, long bytes) {
+        operations[operation.ordinal()].requestBytes.add(bytes);
+    }
+
+    public void recordResponseBytes(Operation operation, long bytes) {
+        operations[operation.ordinal()].responseBytes.add(bytes);
+    }
+
+    public void recordRecords(Operation operation, int records) {
+        operations[operation.ordinal()].recordsPerBatch.record(records);
+    }
+
+    public void recordSerialization(Operation operation, long nanos) {
+        operations[operation.ordinal()].serialization.record(nanos);
+    }
+
+    public void recordSigning(Operation operation, long nanos) {
+        operations[operation.ordinal()].signing.record(nanos);
+    }
+
+    public void recordConnectionLease(long nanos) {
+        connectionLease.record(nanos);
+    }
+
+    public void recordConnectionAge(long nanos) {
+        connectionAge.record(nanos);
+    }
+
+    public void recordConnectionOpened() {
+        connectionsOpened.increment();
+    }
+
+    public void recordConnectionClosed() {
+        connectionsClosed.increment();
+    }
+
+    public void recordConnectionReaped() {
+        connectionsReaped.increment();
+    }
+
+    /**
+     * Meters of one operation.
+     */
+    public static final class OperationMetrics {
+
+        /** Status codes counted, from 100 to 599. */
+        private static final int MIN_STATUS_CODE = 100;
+
+        private static final int MAX_STATUS_CODE = 599;
+
+        private final Operation operation;
+
+        private final Histogram latency = new Histogram();
+
+        private final Histogram signing = new Histogram();
+
+        private final Histogram serialization = new Histogram();
+
+        private final Histogram recordsPerBatch = new Histogram();
+
+        private final LongAdder requestBytes = new LongAdder();
+
+        private final LongAdder responseBytes = new LongAdder();
+
+        /** One striped counter per status code, so most responses do not contend on one cell. */
+        private final LongAdder[] statusCodes =
+                new LongAdder[MAX_STATUS_CODE - MIN_STATUS_CODE + 1];
+
+        private OperationMetrics(Operation operation) {
+            this.operation = operation;
+            for (int i = 0; i < statusCodes.length; i++) {
+                statusCodes[i] = new LongAdder();
+            }
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /** Returns the histogram of the latencies of the operation, in nanoseconds. */
+        public Histogram getLatency() {
+            return latency;
+        }
+
+        /** Returns the histogram of the signing times, in nanoseconds. */
+        public Histogram getSigning() {
+            return signing;
+        }
+
+        /** Returns the histogram of the serialization times, in nanoseconds. */
+        public Histogram getSerialization() {
+            return serialization;
+        }
+
+        /** Returns the histogram of the records per batch put or received. */
+        public Histogram getRecordsPerBatch() {
+            return recordsPerBatch;
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+        /**
+         * Returns the number of responses received with a status code.
+         *
+         * @param statusCode The HTTP status code.
+         * @return The number of responses.
+         */
+        public long getStatusCodeCount(int statusCode) {
+            LongAdder counter = getStatusCodeCounter(statusCode);
+            return counter != null ? counter.sum() : 0;
+        }
+
+        private LongAdder getStatusCodeCounter(int statusCode) {
+            return statusCode >= MIN_STATUS_CODE && statusCode <= MAX_STATUS_CODE
+                    ? statusCodes[statusCode - MIN_STATUS_CODE] : null;
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.netease.stream.metrics;
+
+import com.netease.stream.client.Operation;
+
+/**
+ * Interface receiving the measurements of a client, to be published to a metrics system.
+ * <p>
+ * Methods are called on request threads and transport threads, often several times per request,
+ * so implementations must be thread safe, must not block, and should not allocate: look the meters
+ * of an operation up by {@link Operation#ordinal()} in an array registered up front rather than by
+ * name. {@link HistogramMetricsCollector} keeps the measurements in memory, ready to be read by a
+ * reporter; {@link NoOpMetricsCollector} drops them.
+ */
+public interface MetricsCollector {
+
+    /**
+     * Records the time an operation took, from sending its first attempt to its result, including
+     * retries and the wait for the rate limit.
+     * 
+     * @param operation The operation.
+     * @param nanos The latency, in nanoseconds.
+     */
+    public void recordLatency(Operation operation, long nanos);
+
+    /**
+     * Records the status code of a response received, once per attempt.
+     * 
+     * @param operation The operation.
+     * @param statusCode The HTTP status code.
+     */
+    public void recordStatusCode(Operation operation, int statusCode);
+
+    /**
+     * Records the size of a request body, after compression.
+     * 
+     * @param operation The operation.
+     * @param bytes The number of bytes.
+     */
+    public void recordRequestBytes(Operation operation, long bytes);
+
+    /**
+     * Records the size of a response body as received, before decompression. Uncompressed bodies
+     * sent in chunks are only recorded when the NIO transport receives them for an asynchronous
+     * request, since the other paths stream them to the handler without counting them.
+     * 
+     * @param operation The operation.
+     * @param bytes The number of bytes.
+     */
+    public void recordResponseBytes(Operation operation, long bytes);
+
+    /**
+     * Records the number of records in a batch put or received.
+     * 
+     * @param operation The operation.
+     * @param records The number of records.
+     */
+    public void recordRecords(Operation operation, int records);
+
+    /**
+     * Records the time spent serializing, and compressing, a request body.
+     * 
+     * @param operation The operation.
+     * @param nanos The time, in nanoseconds.
+     */
+    public void recordSerialization(Operation operation, long nanos);
+
+    /**
+     * Records the time spent signing a request.
+     * 
+     * @param operation The operation.
+     * @param nanos The time, in nanoseconds.
+     */
+    public void recordSigning(Operation operation, long nanos);
+
+    /**
+     * Records the time a request waited for a connection of the pool of the blocking transport.
+     * 
+     * @param nanos The time, in nanoseconds.
+     */
+    public void recordConnectionLease(long nanos);
+
+    /**
+     * Records the age of a pooled connection of the blocking transport when a request reuses it.
+     * 
+     * @param nanos The time since the connection was created, in nanoseconds.
+     */
+    public void recordConnectionAge(long nanos);
+
+    /**
+     * Records that the blocking transport opened a connection.
+     */
+    public void recordConnectionOpened();
+
+    /**
+     * Records that the blocking transport closed a connection, whichever the reason.
+     */
+    public void recordConnectionClosed();
+
+    /**
+     * Records that the {@link com.netease.stream.http.IdleConnectionReaper} closed a connection
+     * which stayed idle too long. The connection is also recorded as closed.
+     */
+    public void recordConnectionReaped();
+
+}
@@ -0,0 +1,37 @@
+package com.netease.stream.metrics;
+
+import com.netease.stream.client.Operation;
+
+/**
+ * Metrics collector dropping every measurement, the default of a client.
+ */
+public class NoOpMetricsCollector implements MetricsCollector {
+
+    /** The shared instance. */
+    public static final NoOpMetricsCollector INSTANCE = new NoOpMetricsCollector();
+
+    public void recordLatency(Operation operation, long nanos) {}
+
+    public void recordStatusCode(Operation operation, int statusCode) {}
+
+    public void recordRequestBytes(Operation operation, long bytes) {}
+
+    public void recordResponseBytes(Operation operation, long bytes) {}
+
+    public void recordRecords(Operation operation, int records) {}
+
+    public void recordSerialization(Operation operation, long nanos) {}
+
+    public void recordSigning(Operation operation, long nanos) {}
+
+    public void recordConnectionLease(long nanos) {}
+
+    public void recordConnectionAge(long nanos) {}
+
+    public void recordConnectionOpened() {}
+
+    public void recordConnectionClosed() {}
+
+    public void recordConnectionReaped() {}
+
+}
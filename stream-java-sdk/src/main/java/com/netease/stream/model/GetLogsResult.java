@@ -0,0 +1,57 @@
+package com.netease.stream.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of {@link com.netease.stream.client.StreamClient#getLogs}.
+ */
+public class GetLogsResult extends StreamResult {
+
+    private List<Record> subscriptionLogs = new ArrayList<Record>();
+
+    private String nextPosition;
+
+    /**
+     * Returns the subscription logs read.
+     *
+     * @return The logs read, empty if the subscription has no logs at the position yet.
+     */
+    public List<Record> getSubscriptionLogs() {
+        return subscriptionLogs;
+    }
+
+    /**
+     * Sets the subscription logs read.
+     *
+     * @param subscriptionLogs The logs read.
+     */
+    public void setSubscriptionLogs(List<Record> subscriptionLogs) {
+        this.subscriptionLogs = subscriptionLogs;
+    }
+
+    /**
+     * Returns the position of the log following the last log read.
+     *
+     * @return The position to pass to the next getLogs call.
+     */
+    public String getNextPosition() {
+        return nextPosition;
+    }
+
+    /**
+     * Sets the position of the log following the last log read.
+     *
+     * @param nextPosition The position to pass to the next getLogs call.
+     */
+    public void setNextPosition(String nextPosition) {
+        this.nextPosition = nextPosition;
+    }
+
+    @Override
+    public String toString() {
+        return "{subscriptionLogs: " + subscriptionLogs.size() + ", nextPosition: " + nextPosition
+                + "}";
+    }
+
+}
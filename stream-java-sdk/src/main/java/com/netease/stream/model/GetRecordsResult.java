@@ -0,0 +1,56 @@
+package com.netease.stream.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of {@link com.netease.stream.client.StreamClient#getRecords}.
+ */
+public class GetRecordsResult extends StreamResult {
+
+    private List<Record> records = new ArrayList<Record>();
+
+    private String nextOffset;
+
+    /**
+     * Returns the records read.
+     *
+     * @return The records read, empty if the partition has no records at the offset yet.
+     */
+    public List<Record> getRecords() {
+        return records;
+    }
+
+    /**
+     * Sets the records read.
+     *
+     * @param records The records read.
+     */
+    public void setRecords(List<Record> records) {
+        this.records = records;
+    }
+
+    /**
+     * Returns the offset of the record following the last record read.
+     *
+     * @return The offset to pass to the next getRecords call.
+     */
+    public String getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Sets the offset of the record following the last record read.
+     *
+     * @param nextOffset The offset to pass to the next getRecords call.
+     */
+    public void setNextOffset(String nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
+    @Override
+    public String toString() {
+        return "{records: " + records.size() + ", nextOffset: " + nextOffset + "}";
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.netease.stream.model;
+
+/**
+ * Result of {@link com.netease.stream.client.StreamClient#getOffset}.
+ */
+public class OffsetResult extends StreamResult {
+
+    private String offset;
+
+    /**
+     * Returns the offset of the requested type.
+     *
+     * @return The offset, to be passed to getRecords.
+     */
+    public String getOffset() {
+        return offset;
+    }
+
+    /**
+     * Sets the offset of the requested type.
+     *
+     * @param offset The offset.
+     */
+    public void setOffset(String offset) {
+        this.offset = offset;
+    }
+
+    @Override
+    public String toString() {
+        return "{offset: " + offset + "}";
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.netease.stream.model;
+
+/**
+ * Result of {@link com.netease.stream.client.StreamClient#putRecords}.
+ */
+public class PutRecordsResult extends StreamResult {
+
+    private int recordCount;
+
+    /**
+     * Returns the number of records written by the request.
+     *
+     * @return The number of records written.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Sets the number of records written by the request.
+     *
+     * @param recordCount The number of records written.
+     */
+    public void setRecordCount(int recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    @Override
+    public String toString() {
+        return "{recordCount: " + recordCount + "}";
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.netease.stream.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A record read from a topic partition, or a log read from a subscription. The fields of the
+ * record are kept as strings, in the same shape records are written with
+ * {@link com.netease.stream.client.StreamClient#putRecords}.
+ */
+public class Record {
+
+    /** Name of the field carrying the payload of a record. */
+    public static final String DATA = "data";
+
+    private final Map<String, String> fields;
+
+    /**
+     * Constructs a new record with no fields.
+     */
+    public Record() {
+        this.fields = new LinkedHashMap<String, String>(4);
+    }
+
+    /**
+     * Constructs a new record with the specified fields.
+     *
+     * @param fields The fields of the record.
+     */
+    public Record(Map<String, String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the payload of the record, the value of its <code>data</code> field.
+     *
+     * @return The payload of the record, or null if it has none.
+     */
+    public String getData() {
+        return fields.get(DATA);
+    }
+
+    /**
+     * Returns the value of the specified field.
+     *
+     * @param name The name of the field.
+     * @return The value of the field, or null if the record has no such field.
+     */
+    public String get(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * Sets the value of the specified field.
+     *
+     * @param name The name of the field.
+     * @param value The value of the field.
+     */
+    public void put(String name, String value) {
+        fields.put(name, value);
+    }
+
+    /**
+     * Returns all fields of the record.
+     *
+     * @return The fields of the record.
+     */
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.netease.stream.model;
+
+/**
+ * Receives the records of a response one at a time, while the response is being read.
+ * <p>
+ * Handing a processor to {@link com.netease.stream.model.transform.GetRecordsResultHandler} or
+ * {@link com.netease.stream.model.transform.GetLogsResultHandler} keeps only the record being
+ * processed in memory, instead of the whole page.
+ */
+public interface RecordProcessor {
+
+    /**
+     * Processes one record. Runs on the thread executing the request, with the connection open.
+     *
+     * @param record The record read from the response.
+     */
+    public void process(Record record);
+
+}
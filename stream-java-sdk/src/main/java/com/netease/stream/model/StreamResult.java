@@ -0,0 +1,49 @@
+package com.netease.stream.model;
+
+/**
+ * Base class of the results returned by the streamproxy operations, carrying the HTTP status of
+ * the response.
+ */
+public abstract class StreamResult {
+
+    private int statusCode;
+
+    private String statusText;
+
+    /**
+     * Returns the HTTP status code (ex: 200) of the response.
+     *
+     * @return The HTTP status code of the response.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Sets the HTTP status code of the response.
+     *
+     * @param statusCode The HTTP status code of the response.
+     */
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * Returns the HTTP status text (ex: "OK") of the response.
+     *
+     * @return The HTTP status text of the response.
+     */
+    public String getStatusText() {
+        return statusText;
+    }
+
+    /**
+     * Sets the HTTP status text of the response.
+     *
+     * @param statusText The HTTP status text of the response.
+     */
+    public void setStatusText(String statusText) {
+        this.statusText = statusText;
+    }
+
+}
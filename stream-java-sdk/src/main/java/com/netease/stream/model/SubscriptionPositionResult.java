@@ -0,0 +1,33 @@
+package com.netease.stream.model;
+
+/**
+ * Result of {@link com.netease.stream.client.StreamClient#getSubscriptionPosition}.
+ */
+public class SubscriptionPositionResult extends StreamResult {
+
+    private String position;
+
+    /**
+     * Returns the position of the requested type.
+     *
+     * @return The position, to be passed to getLogs.
+     */
+    public String getPosition() {
+        return position;
+    }
+
+    /**
+     * Sets the position of the requested type.
+     *
+     * @param position The position.
+     */
+    public void setPosition(String position) {
+        this.position = position;
+    }
+
+    @Override
+    public String toString() {
+        return "{position: " + position + "}";
+    }
+
+}
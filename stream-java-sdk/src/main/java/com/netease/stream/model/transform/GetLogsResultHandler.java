@@ -0,0 +1,59 @@
+package com.netease.stream.model.transform;
+
+import com.netease.stream.model.GetLogsResult;
+import com.netease.stream.model.RecordProcessor;
+import com.netease.stream.util.json.JSONException;
+import com.netease.stream.util.json.JSONReader;
+
+/**
+ * Turns get logs responses into {@link GetLogsResult}s.
+ * <p>
+ * A handler created with a {@link RecordProcessor} hands the logs to the processor one at a time
+ * while the response is read, and returns a result holding the next position only.
+ */
+public class GetLogsResultHandler extends StreamResultHandler<GetLogsResult> {
+
+    /** Name of the logs array in a get logs response. */
+    static final String SUBSCRIPTION_LOGS = "subscription_logs";
+
+    /** Name of the position of the following log in a get logs response. */
+    static final String NEXT_POSITION = "next_position";
+
+    private final RecordProcessor processor;
+
+    /**
+     * Constructs a new handler collecting the logs into the result.
+     */
+    public GetLogsResultHandler() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new handler handing the logs to the specified processor.
+     *
+     * @param processor The processor receiving the logs, or null to collect them.
+     */
+    public GetLogsResultHandler(RecordProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    protected GetLogsResult createResult() {
+        return new GetLogsResult();
+    }
+
+    @Override
+    protected boolean parseMember(String name, JSONReader reader, GetLogsResult result)
+            throws JSONException {
+        if (name.equals(SUBSCRIPTION_LOGS)) {
+            readRecords(reader, processor, result.getSubscriptionLogs());
+            return true;
+        }
+        if (name.equals(NEXT_POSITION)) {
+            result.setNextPosition(readString(reader));
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.netease.stream.model.transform;
+
+import com.netease.stream.model.GetRecordsResult;
+import com.netease.stream.model.RecordProcessor;
+import com.netease.stream.util.json.JSONException;
+import com.netease.stream.util.json.JSONReader;
+
+/**
+ * Turns get records responses into {@link GetRecordsResult}s.
+ * <p>
+ * A handler created with a {@link RecordProcessor} hands the records to the processor one at a
+ * time while the response is read, and returns a result holding the next offset only.
+ */
+public class GetRecordsResultHandler extends StreamResultHandler<GetRecordsResult> {
+
+    /** Name of the records array in a get records response. */
+    static final String RECORDS = "records";
+
+    /** Name of the offset of the following record in a get records response. */
+    static final String NEXT_OFFSET = "next_offset";
+
+    private final RecordProcessor processor;
+
+    /**
+     * Constructs a new handler collecting the records into the result.
+     */
+    public GetRecordsResultHandler() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new handler handing the records to the specified processor.
+     *
+     * @param processor The processor receiving the records, or null to collect them.
+     */
+    public GetRecordsResultHandler(RecordProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    protected GetRecordsResult createResult() {
+        return new GetRecordsResult();
+    }
+
+    @Override
+    protected boolean parseMember(String name, JSONReader reader, GetRecordsResult result)
+            throws JSONException {
+        if (name.equals(RECORDS)) {
+            readRecords(reader, processor, result.getRecords());
+            return true;
+        }
+        if (name.equals(NEXT_OFFSET)) {
+            result.setNextOffset(readString(reader));
+            return true;
+        }
+        return false;
+    }
+
+}
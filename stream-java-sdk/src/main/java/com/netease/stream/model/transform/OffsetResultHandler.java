@@ -0,0 +1,27 @@
+package com.netease.stream.model.transform;
+
+import com.netease.stream.model.OffsetResult;
+import com.netease.stream.util.json.JSONException;
+import com.netease.stream.util.json.JSONReader;
+
+/**
+ * Turns get offset responses into {@link OffsetResult}s.
+ */
+public class OffsetResultHandler extends StreamResultHandler<OffsetResult> {
+
+    @Override
+    protected OffsetResult createResult() {
+        return new OffsetResult();
+    }
+
+    @Override
+    protected boolean parseMember(String name, JSONReader reader, OffsetResult result)
+            throws JSONException {
+        if (name.equals("offset")) {
+            result.setOffset(readString(reader));
+            return true;
+        }
+        return false;
+    }
+
+}
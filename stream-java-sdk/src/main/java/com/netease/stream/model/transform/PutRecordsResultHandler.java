@@ -0,0 +1,35 @@
+package com.netease.stream.model.transform;
+
+import com.netease.stream.model.PutRecordsResult;
+import com.netease.stream.util.json.JSONReader;
+
+/**
+ * Turns put records responses into {@link PutRecordsResult}s. One handler is created per request,
+ * as the result reports the number of records the request carried.
+ */
+public class PutRecordsResultHandler extends StreamResultHandler<PutRecordsResult> {
+
+    private final int recordCount;
+
+    /**
+     * Constructs a new handler for a request carrying the specified number of records.
+     *
+     * @param recordCount The number of records written by the request.
+     */
+    public PutRecordsResultHandler(int recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    @Override
+    protected PutRecordsResult createResult() {
+        PutRecordsResult result = new PutRecordsResult();
+        result.setRecordCount(recordCount);
+        return result;
+    }
+
+    @Override
+    protected boolean parseMember(String name, JSONReader reader, PutRecordsResult result) {
+        return false;
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.netease.stream.model.transform;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.netease.stream.config.Constants;
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.exception.ServiceException;
+import com.netease.stream.http.HttpResponse;
+import com.netease.stream.http.HttpResponseHandler;
+import com.netease.stream.model.Record;
+import com.netease.stream.model.RecordProcessor;
+import com.netease.stream.model.StreamResult;
+import com.netease.stream.util.StringUtils;
+import com.netease.stream.util.json.JSONException;
+import com.netease.stream.util.json.JSONObject;
+import com.netease.stream.util.json.JSONReader;
+
+/**
+ * Base class of the response handlers turning streamproxy responses into typed results. The body
+ * is read with a {@link JSONReader} straight from the connection, member by member, without
+ * building a tree of it. Error responses are turned into a {@link ServiceException}.
+ *
+ * @param <T> The type of the result.
+ */
+public abstract class StreamResultHandler<T extends StreamResult> implements
+        HttpResponseHandler<T> {
+
+    /** Name of the error message in an error response. */
+    private static final String MESSAGE = "message";
+
+    public T handle(HttpResponse response) throws IOException {
+        if (response.getStatusCode() / 100 != 2) {
+            throw createServiceException(response);
+        }
+
+        T result = createResult();
+        Reader content = response.getContentReader();
+        if (content != null) {
+            JSONReader reader = new JSONReader(content);
+            try {
+                if (reader.peek() != JSONReader.Token.END_DOCUMENT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (!parseMember(reader.nextName(), reader, result)) {
+                            reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                }
+            } catch (JSONException e) {
+                throw new ClientException("Unable to parse response: " + e.getMessage(), e);
+            } finally {
+                reader.close();
+            }
+        }
+        result.setStatusCode(response.getStatusCode());
+        result.setStatusText(response.getStatusText());
+        return result;
+    }
+
+    /**
+     * Creates the result filled in by {@link #parseMember(String, JSONReader, StreamResult)}.
+     *
+     * @return The empty result.
+     */
+    protected abstract T createResult();
+
+    /**
+     * Reads the value of a member of the response body into the result.
+     *
+     * @param name The name of the member.
+     * @param reader The reader, positioned at the value of the member.
+     * @param result The result to fill in.
+     * @return true if the value has been consumed, false to have it skipped.
+     * @throws JSONException If the value does not have the expected shape.
+     */
+    protected abstract boolean parseMember(String name, JSONReader reader, T result)
+            throws JSONException;
+
+    /**
+     * Reads an array of records, handing each record to the processor if there is one and adding
+     * it to the list otherwise. Elements which are not objects are skipped.
+     *
+     * @param reader The reader, positioned at the array.
+     * @param processor The processor receiving the records, or null.
+     * @param records The list receiving the records if there is no processor.
+     * @throws JSONException If the value is not an array.
+     */
+    protected static void readRecords(JSONReader reader, RecordProcessor processor,
+            List<Record> records) throws JSONException {
+        if (reader.peek() == JSONReader.Token.NULL) {
+            reader.nextNull();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JSONReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            Record record = readRecord(reader);
+            if (processor != null) {
+                processor.process(record);
+            } else {
+                records.add(record);
+            }
+        }
+        reader.endArray();
+    }
+
+    /**
+     * Reads a JSON object into a record, keeping every value as a string.
+     *
+     * @param reader The reader, positioned at the object.
+     * @return The record.
+     * @throws JSONException If the value is not an object.
+     */
+    protected static Record readRecord(JSONReader reader) throws JSONException {
+        Map<String, String> fields = new LinkedHashMap<String, String>(8);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            fields.put(name, readString(reader));
+        }
+        reader.endObject();
+        return new Record(fields);
+    }
+
+    /**
+     * Reads a value as a string. Nested objects and arrays are returned as JSON text.
+     *
+     * @param reader The reader, positioned at the value.
+     * @return The value, or null if it is null.
+     * @throws JSONException If the text is not valid JSON.
+     */
+    protected static String readString(JSONReader reader) throws JSONException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                return reader.nextValue().toString();
+            default:
+                return reader.nextString();
+        }
+    }
+
+    /**
+     * Creates the exception for an error response, using the message in the body if there is one.
+     *
+     * @param response The error response.
+     * @return The exception to throw.
+     */
+    static ServiceException createServiceException(HttpResponse response) {
+        String content = null;
+        if (response.getContentStream() != null) {
+            content =
+                    new StringUtils().convertStreamToString(response.getContentStream(),
+                            response.getContentLength());
+        }
+
+        String message = response.getStatusText();
+        if (content != null && content.length() > 0) {
+            message = content;
+            try {
+                JSONObject body = new JSONObject(content);
+                if (body.has(MESSAGE)) {
+                    message = body.optString(MESSAGE);
+                }
+            } catch (JSONException e) {
+                // Not a JSON error document, keep the raw content as message.
+            }
+        }
+
+        int statusCode = response.getStatusCode();
+        ServiceException exception = new ServiceException(message);
+        exception.setStatusCode(statusCode);
+        exception.setServiceName(Constants.STREAMS_PROXY_SERVICE_NAME);
+        if (statusCode / 100 == 4) {
+            exception.setErrorType(ServiceException.ErrorType.Client);
+        } else if (statusCode / 100 == 5) {
+            exception.setErrorType(ServiceException.ErrorType.Service);
+        }
+        if (response.getRequest() != null) {
+            exception.setResource(response.getRequest().getResourcePath());
+        }
+        return exception;
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.netease.stream.model.transform;
+
+import com.netease.stream.model.SubscriptionPositionResult;
+import com.netease.stream.util.json.JSONException;
+import com.netease.stream.util.json.JSONReader;
+
+/**
+ * Turns get subscription position responses into {@link SubscriptionPositionResult}s.
+ */
+public class SubscriptionPositionResultHandler extends
+        StreamResultHandler<SubscriptionPositionResult> {
+
+    @Override
+    protected SubscriptionPositionResult createResult() {
+        return new SubscriptionPositionResult();
+    }
+
+    @Override
+    protected boolean parseMember(String name, JSONReader reader,
+            SubscriptionPositionResult result) throws JSONException {
+        if (name.equals("position")) {
+            result.setPosition(readString(reader));
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,327 @@
+package com.netease.stream.policy;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.netease.stream.exception.CircuitBreakerOpenException;
+
+/**
+ * Circuit breaker of each host, failing requests to an endpoint which is down right away instead
+ * of letting each of them wait for the connection timeout.
+ * <p>
+ * While a circuit is {@link CircuitState#CLOSED closed}, the outcomes of the last requests to its
+ * host are kept. Once enough of them completed, the circuit opens when the share of failures,
+ * I/O errors and 5xx responses, or the share of slow requests reaches its threshold. An
+ * {@link CircuitState#OPEN open} circuit refuses requests with a
+ * {@link CircuitBreakerOpenException} until the open time elapsed. Then it is
+ * {@link CircuitState#HALF_OPEN half open}: a few probe requests are sent, and the circuit closes
+ * if all of them succeed in time, or opens again otherwise.
+ * <p>
+ * A breaker may be shared by several clients, which then share the circuits.
+ */
+public class CircuitBreaker {
+
+    public static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+
+    public static final int DEFAULT_SLOW_CALL_RATE_THRESHOLD = 80;
+
+    public static final long DEFAULT_SLOW_CALL_DURATION_MILLIS = 10 * 1000;
+
+    public static final int DEFAULT_WINDOW_SIZE = 50;
+
+    public static final int DEFAULT_MINIMUM_CALLS = 10;
+
+    public static final long DEFAULT_OPEN_DURATION_MILLIS = 10 * 1000;
+
+    public static final int DEFAULT_HALF_OPEN_PROBES = 3;
+
+    private static final Log log = LogFactory.getLog(CircuitBreaker.class);
+
+    /** Outcome flags kept in the window; 0 marks an empty slot. */
+    private static final int COMPLETED = 1;
+
+    private static final int FAILED = 2;
+
+    private static final int SLOW = 4;
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallDurationNanos;
+
+    private final int windowSize;
+
+    private final int minimumCalls;
+
+    private final long openDurationNanos;
+
+    private final int halfOpenProbes;
+
+    private final ConcurrentMap<String, Circuit> circuits =
+            new ConcurrentHashMap<String, Circuit>();
+
+    /**
+     * Constructs a new circuit breaker with the default settings.
+     */
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_RATE_THRESHOLD, DEFAULT_SLOW_CALL_RATE_THRESHOLD,
+                DEFAULT_SLOW_CALL_DURATION_MILLIS, DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS,
+                DEFAULT_OPEN_DURATION_MILLIS, DEFAULT_HALF_OPEN_PROBES);
+    }
+
+    /**
+     * Constructs a new circuit breaker.
+     *
+     * @param failureRateThreshold The percentage of failed requests opening a circuit.
+     * @param slowCallRateThreshold The percentage of slow requests opening a circuit.
+     * @param slowCallDurationMillis The time (in milliseconds) from which a request is slow.
+     * @param windowSize The number of last requests whose outcomes are kept.
+     * @param minimumCalls The number of requests needed before a circuit may open.
+     * @param openDurationMillis The time (in milliseconds) an open circuit refuses requests.
+     * @param halfOpenProbes The number of probe requests a half open circuit sends.
+     */
+    public CircuitBreaker(int failureRateThreshold, int slowCallRateThreshold,
+            long slowCallDurationMillis, int windowSize, int minimumCalls,
+            long openDurationMillis, int halfOpenProbes) {
+        if (failureRateThreshold < 1 || failureRateThreshold > 100 || slowCallRateThreshold < 1
+                || slowCallRateThreshold > 100) {
+            throw new IllegalArgumentException("Rate thresholds must be between 1 and 100");
+        }
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize
+                || halfOpenProbes < 1) {
+            throw new IllegalArgumentException(
+                    "Counts must satisfy 1 <= minimum calls <= window size, probes >= 1");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(slowCallDurationMillis);
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    /**
+     * Admits a request to the host, unless its circuit is open.
+     *
+     * @param host The host, with optional port, the request is sent to.
+     * @return The permit to release once the request completed.
+     * @throws CircuitBreakerOpenException If the circuit of the host refuses the request.
+     */
+    public Permit acquire(String host) throws CircuitBreakerOpenException {
+        Circuit circuit = getCircuit(host);
+        while (true) {
+            Phase phase = circuit.phase.get();
+            switch (phase.state) {
+                case CLOSED:
+                    return new Permit(circuit, phase);
+                case OPEN:
+                    long wait = openDurationNanos - (System.nanoTime() - phase.sinceNanos);
+                    if (wait > 0) {
+                        throw new CircuitBreakerOpenException(host,
+                                TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+                    }
+                    circuit.transition(phase, CircuitState.HALF_OPEN);
+                    break;
+                default:
+                    if (phase.probes.incrementAndGet() > halfOpenProbes) {
+                        throw new CircuitBreakerOpenException(host, 0);
+                    }
+                    return new Permit(circuit, phase);
+            }
+        }
+    }
+
+    /**
+     * Returns the state of the circuit of a host. An open circuit whose open time elapsed is
+     * reported half open, since the next request to the host is sent as a probe.
+     *
+     * @param host The host, with optional port.
+     * @return The state of the circuit.
+     */
+    public CircuitState getState(String host) {
+        Circuit circuit = circuits.get(host);
+        if (circuit == null) {
+            return CircuitState.CLOSED;
+        }
+        Phase phase = circuit.phase.get();
+        if (phase.state == CircuitState.OPEN
+                && System.nanoTime() - phase.sinceNanos >= openDurationNanos) {
+            return CircuitState.HALF_OPEN;
+        }
+        return phase.state;
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowCallDurationNanos);
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public long getOpenDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(openDurationNanos);
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    private Circuit getCircuit(String host) {
+        Circuit circuit = circuits.get(host);
+        if (circuit == null) {
+            Circuit created = new Circuit(host);
+            circuit = circuits.putIfAbsent(host, created);
+            if (circuit == null) {
+                circuit = created;
+            }
+        }
+        return circuit;
+    }
+
+    /**
+     * Admission of one request, to be released exactly once.
+     */
+    public static final class Permit {
+
+        private final Circuit circuit;
+
+        private final Phase phase;
+
+        private final long startNanos = System.nanoTime();
+
+        private Permit(Circuit circuit, Phase phase) {
+            this.circuit = circuit;
+            this.phase = phase;
+        }
+
+        /**
+         * Records the outcome of the request with the circuit of its host.
+         *
+         * @param failure The exception the request failed with, or null if it succeeded.
+         */
+        public void release(Throwable failure) {
+            circuit.onResult(this, failure != null && Failures.isUnavailable(failure),
+                    System.nanoTime() - startNanos);
+        }
+
+        /**
+         * Releases the permit of a request which was not sent, without recording an outcome.
+         */
+        public void cancel() {
+            if (phase.state == CircuitState.HALF_OPEN) {
+                phase.probes.decrementAndGet();
+            }
+        }
+    }
+
+    /** One state of a circuit, with the counts of the requests admitted in it. */
+    private final class Phase {
+
+        final CircuitState state;
+
+        final long sinceNanos = System.nanoTime();
+
+        /** Probes admitted, and probes succeeded, while half open. */
+        final AtomicInteger probes = new AtomicInteger();
+
+        final AtomicInteger successes = new AtomicInteger();
+
+        /** Outcomes of the last requests while closed. */
+        final AtomicIntegerArray outcomes;
+
+        final AtomicLong next = new AtomicLong();
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        final AtomicInteger failures = new AtomicInteger();
+
+        final AtomicInteger slowCalls = new AtomicInteger();
+
+        Phase(CircuitState state) {
+            this.state = state;
+            this.outcomes =
+                    state == CircuitState.CLOSED ? new AtomicIntegerArray(windowSize) : null;
+        }
+    }
+
+    /** The circuit of one host. */
+    private final class Circuit {
+
+        final String host;
+
+        final AtomicReference<Phase> phase =
+                new AtomicReference<Phase>(new Phase(CircuitState.CLOSED));
+
+        Circuit(String host) {
+            this.host = host;
+        }
+
+        void transition(Phase from, CircuitState to) {
+            if (phase.compareAndSet(from, new Phase(to))) {
+                if (to == CircuitState.CLOSED) {
+                    log.info("Circuit breaker of " + host + " closed");
+                } else {
+                    log.warn("Circuit breaker of " + host + " changed from " + from.state + " to "
+                            + to);
+                }
+            }
+        }
+
+        void onResult(Permit permit, boolean failed, long latencyNanos) {
+            Phase current = permit.phase;
+            if (phase.get() != current) {
+                // Admitted in an earlier state, its outcome says nothing about this one.
+                return;
+            }
+            boolean slow = latencyNanos >= slowCallDurationNanos;
+            if (current.state == CircuitState.HALF_OPEN) {
+                if (failed || slow) {
+                    transition(current, CircuitState.OPEN);
+                } else if (current.successes.incrementAndGet() >= halfOpenProbes) {
+                    transition(current, CircuitState.CLOSED);
+                }
+                return;
+            }
+            int outcome = COMPLETED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+            int slot = (int) (current.next.getAndIncrement() % windowSize);
+            int evicted = current.outcomes.getAndSet(slot, outcome);
+            int calls = evicted == 0 ? current.calls.incrementAndGet() : current.calls.get();
+            int failures = current.failures.addAndGet(count(outcome, FAILED)
+                    - count(evicted, FAILED));
+            int slowCalls = current.slowCalls.addAndGet(count(outcome, SLOW)
+                    - count(evicted, SLOW));
+            if (calls >= minimumCalls && (failures * 100 >= failureRateThreshold * calls
+                    || slowCalls * 100 >= slowCallRateThreshold * calls)) {
+                transition(current, CircuitState.OPEN);
+            }
+        }
+
+        private int count(int outcome, int flag) {
+            return (outcome & flag) != 0 ? 1 : 0;
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.netease.stream.policy;
+
+/**
+ * State of the circuit breaker of an endpoint.
+ */
+public enum CircuitState {
+
+    /** The endpoint is healthy, requests are sent. */
+    CLOSED,
+
+    /**
+     * The endpoint failed or was too slow, requests fail with a
+     * {@link com.netease.stream.exception.CircuitBreakerOpenException} right away.
+     */
+    OPEN,
+
+    /**
+     * The open time elapsed, a few probe requests are sent to find out whether the endpoint
+     * recovered; others fail right away.
+     */
+    HALF_OPEN
+}
@@ -0,0 +1,375 @@
+package com.netease.stream.policy;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import com.netease.stream.exception.ClientException;
+
+/**
+ * Adaptive limit of the requests in flight to each host, in front of the transport.
+ * <p>
+ * The limit of a host follows the additive increase, multiplicative decrease scheme of TCP
+ * congestion control. Each request completing normally while it used at least half the window
+ * raises the limit by a fraction, so the limit grows by about one per window. A request showing
+ * the host is overloaded lowers it by {@link #getBackoffRatio()}, at most once per window: only
+ * requests started after the last decrease count. A host is considered overloaded when a request
+ * fails with an I/O error, a 429 or 5xx response, or when the recent average latency of the host
+ * exceeds its baseline latency by {@link #getLatencyTolerance()} times. The baseline is the lowest
+ * recent average, rising towards the current one over about half a minute so it follows a lasting
+ * change of the network.
+ * <p>
+ * Requests beyond the limit wait, in order, for up to {@link #getMaxWaitMillis()} and then fail
+ * with a ClientException, rather than queueing on the connection pool until the socket timeout.
+ * Asynchronous requests wait without holding a thread. A limiter may be shared by several
+ * clients, which then share the limits.
+ */
+public class ConcurrencyLimiter {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 5 * 1000;
+
+    /** Weight of a sample in the recent average latency. */
+    private static final double RECENT_WEIGHT = 0.1;
+
+    /** Time over which the baseline latency rises to the recent average. */
+    private static final long BASELINE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double latencyTolerance;
+
+    private final long maxWaitMillis;
+
+    private final ConcurrentMap<String, HostLimit> hosts =
+            new ConcurrentHashMap<String, HostLimit>();
+
+    /**
+     * Constructs a new concurrency limiter with the default settings.
+     */
+    public ConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_BACKOFF_RATIO,
+                DEFAULT_LATENCY_TOLERANCE, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Constructs a new concurrency limiter.
+     *
+     * @param initialLimit The limit of a host before any request to it completed.
+     * @param minLimit The lowest limit of a host, at least 1.
+     * @param maxLimit The highest limit of a host.
+     * @param backoffRatio The factor, below 1, a limit is multiplied with when the host is
+     *        overloaded.
+     * @param latencyTolerance The factor, above 1, by which the latency of a request may exceed
+     *        the baseline latency of its host before the host is considered overloaded.
+     * @param maxWaitMillis The maximum time (in milliseconds) a request waits for the limit.
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+            double latencyTolerance, long maxWaitMillis) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit
+                || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1 || latencyTolerance <= 1) {
+            throw new IllegalArgumentException(
+                    "The backoff ratio must be below 1, the latency tolerance above 1");
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Waits until a request to the host may be sent.
+     *
+     * @param host The host, with optional port, the request is sent to.
+     * @return The permit to release once the request completed.
+     * @throws ClientException If no permit was granted within the maximum wait, or the thread was
+     *         interrupted.
+     */
+    public Permit acquire(String host) throws ClientException {
+        CompletableFuture<Permit> permit = acquireAsync(host);
+        try {
+            return permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.completeExceptionally(e)) {
+                // Granted while being interrupted, hand it on.
+                permit.join().abandon();
+            }
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting for a request slot of " + host, e);
+        } catch (ExecutionException e) {
+            throw toClientException(host, e.getCause());
+        }
+    }
+
+    /**
+     * Returns a future completed once a request to the host may be sent, without blocking.
+     *
+     * @param host The host, with optional port, the request is sent to.
+     * @return A future completed with the permit to release once the request completed, or
+     *         exceptionally with a ClientException if none was granted within the maximum wait.
+     */
+    public CompletableFuture<Permit> acquireAsync(final String host) {
+        HostLimit limit = getHostLimit(host);
+        if (limit.waiters.isEmpty() && limit.tryAcquire()) {
+            return CompletableFuture.completedFuture(limit.newPermit());
+        }
+        CompletableFuture<Permit> waiter = new CompletableFuture<Permit>();
+        limit.waiters.add(waiter);
+        // A permit released before the waiter was queued must not be missed.
+        limit.drain();
+        if (waiter.isDone()) {
+            return waiter;
+        }
+        final CompletableFuture<Permit> result = new CompletableFuture<Permit>();
+        waiter.orTimeout(maxWaitMillis, TimeUnit.MILLISECONDS).whenComplete(
+                new BiConsumer<Permit, Throwable>() {
+                    public void accept(Permit permit, Throwable t) {
+                        if (t == null) {
+                            if (!result.complete(permit)) {
+                                // The caller gave up waiting.
+                                permit.abandon();
+                            }
+                        } else {
+                            result.completeExceptionally(toClientException(host, t));
+                        }
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Returns the current limit of a host.
+     *
+     * @param host The host, with optional port.
+     * @return The number of requests the host may have in flight.
+     */
+    public int getLimit(String host) {
+        return getHostLimit(host).getLimit();
+    }
+
+    /**
+     * Returns the number of requests in flight to a host.
+     *
+     * @param host The host, with optional port.
+     * @return The number of requests in flight.
+     */
+    public int getInFlight(String host) {
+        return getHostLimit(host).inFlight.get();
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    private HostLimit getHostLimit(String host) {
+        HostLimit limit = hosts.get(host);
+        if (limit == null) {
+            HostLimit created = new HostLimit();
+            limit = hosts.putIfAbsent(host, created);
+            if (limit == null) {
+                limit = created;
+            }
+        }
+        return limit;
+    }
+
+    private ClientException toClientException(String host, Throwable t) {
+        if (t instanceof TimeoutException) {
+            return new ClientException("Timed out after " + maxWaitMillis
+                    + " ms waiting for a request slot of " + host, t);
+        }
+        if (t instanceof ClientException) {
+            return (ClientException) t;
+        }
+        return new ClientException("Unable to acquire a request slot of " + host, t);
+    }
+
+    /**
+     * Permission to send one request, to be released exactly once when it completed.
+     */
+    public static final class Permit {
+
+        private final HostLimit limit;
+
+        private final long startNanos = System.nanoTime();
+
+        private final int inFlightAtStart;
+
+        private Permit(HostLimit limit, int inFlightAtStart) {
+            this.limit = limit;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit, and adapts the limit of the host to the outcome of the request.
+         * Failures that say nothing about the load of the host, such as 4xx responses, leave the
+         * limit unchanged.
+         *
+         * @param failure The exception the request failed with, or null if it succeeded.
+         */
+        public void release(Throwable failure) {
+            limit.inFlight.decrementAndGet();
+            limit.onSample(this, failure);
+            limit.drain();
+        }
+
+        /** Releases the permit of a request that was never sent. */
+        void abandon() {
+            limit.inFlight.decrementAndGet();
+            limit.drain();
+        }
+    }
+
+    /** Limit and requests in flight of one host. */
+    private final class HostLimit {
+
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        /** The limit, as the bits of a double so it can be changed by fractions. */
+        final AtomicLong limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+
+        /** Recent average latency in nanoseconds, 0 before the first sample. Updated racily. */
+        volatile double recentNanos;
+
+        /** Baseline latency in nanoseconds, 0 before the first sample. Updated racily. */
+        volatile double baselineNanos;
+
+        /** Time of the last sample. */
+        volatile long lastSampleNanos;
+
+        /** Time of the last decrease. */
+        final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+        final Queue<CompletableFuture<Permit>> waiters =
+                new ConcurrentLinkedQueue<CompletableFuture<Permit>>();
+
+        int getLimit() {
+            return (int) Double.longBitsToDouble(limitBits.get());
+        }
+
+        Permit newPermit() {
+            return new Permit(this, inFlight.get());
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= getLimit()) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /** Hands free permits to the waiters, in order. */
+        void drain() {
+            while (!waiters.isEmpty() && tryAcquire()) {
+                CompletableFuture<Permit> waiter = waiters.poll();
+                if (waiter == null || !waiter.complete(newPermit())) {
+                    // Queue emptied meanwhile, or the waiter timed out.
+                    inFlight.decrementAndGet();
+                }
+            }
+        }
+
+        void onSample(Permit permit, Throwable failure) {
+            long now = System.nanoTime();
+            long latency = now - permit.startNanos;
+            boolean overload;
+            if (failure != null) {
+                overload = Failures.isOverload(failure);
+                if (!overload) {
+                    return;
+                }
+            } else {
+                double recent = recentNanos;
+                recent = recent == 0 ? latency : recent + (latency - recent) * RECENT_WEIGHT;
+                recentNanos = recent;
+                double baseline = baselineNanos;
+                long elapsed = now - lastSampleNanos;
+                lastSampleNanos = now;
+                if (baseline == 0 || recent < baseline) {
+                    baselineNanos = recent;
+                    overload = false;
+                } else {
+                    // Rises with time rather than per sample, whatever the request rate.
+                    double drift = Math.min(1.0, (double) elapsed / BASELINE_WINDOW_NANOS);
+                    baselineNanos = baseline + (recent - baseline) * drift;
+                    overload = recent > baseline * latencyTolerance;
+                }
+            }
+            if (overload) {
+                long last = lastDecreaseNanos.get();
+                // Requests started before the last decrease saw the old window, not this one.
+                if (permit.startNanos - last > 0 && lastDecreaseNanos.compareAndSet(last, now)) {
+                    updateLimit(backoffRatio, 0);
+                }
+            } else if (permit.inFlightAtStart * 2 >= getLimit()) {
+                updateLimit(1, 1.0 / getLimit());
+            }
+        }
+
+        private void updateLimit(double factor, double increment) {
+            while (true) {
+                long bits = limitBits.get();
+                double current = Double.longBitsToDouble(bits);
+                double next = Math.max(minLimit, Math.min(maxLimit, current * factor + increment));
+                if (next == current
+                        || limitBits.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                    return;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.netease.stream.policy;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.exception.ServiceException;
+import com.netease.stream.http.Request;
+
+/**
+ * Retry condition classifying failures by the status code of the error response, or by the type of
+ * the exception that made the request fail.
+ * <p>
+ * By default, reads are retried on throttling (429), on the 5xx responses of an overloaded or
+ * restarting proxy, and on all I/O errors such as connection resets and timeouts. A read failing
+ * while its response is read is sent again as a whole: records handed to a
+ * {@link com.netease.stream.model.RecordProcessor} before the failure may be processed twice.
+ * <p>
+ * Writes are only retried by default when the proxy provably did not process them: throttling
+ * (429), an unavailable proxy (503), a connection that could not be opened, or a pooled connection
+ * closed before any response. A write timing out after its body was sent may have been written,
+ * and is not retried, so records are not written twice.
+ */
+public class DefaultRetryCondition implements RetryCondition {
+
+    /** Status codes of reads retried by default. */
+    public static final List<Integer> DEFAULT_RETRYABLE_STATUS_CODES = Arrays.asList(429, 500,
+            502, 503, 504);
+
+    /** Exception types failing reads retried by default. */
+    public static final List<Class<? extends Throwable>> DEFAULT_RETRYABLE_EXCEPTIONS =
+            Arrays.<Class<? extends Throwable>> asList(IOException.class);
+
+    /** Status codes of writes retried by default, returned without processing the request. */
+    public static final List<Integer> DEFAULT_WRITE_RETRYABLE_STATUS_CODES = Arrays.asList(429,
+            503);
+
+    /** Exception types failing writes retried by default, raised before the request was sent. */
+    public static final List<Class<? extends Throwable>> DEFAULT_WRITE_RETRYABLE_EXCEPTIONS =
+            Arrays.<Class<? extends Throwable>> asList(ConnectException.class,
+                    ConnectTimeoutException.class, HttpConnectTimeoutException.class,
+                    UnknownHostException.class, NoHttpResponseException.class);
+
+    private final Set<Integer> retryableStatusCodes;
+
+    private final List<Class<? extends Throwable>> retryableExceptions;
+
+    private final Set<Integer> writeRetryableStatusCodes;
+
+    private final List<Class<? extends Throwable>> writeRetryableExceptions;
+
+    /**
+     * Constructs a new condition retrying the default status codes and exception types.
+     */
+    public DefaultRetryCondition() {
+        this(DEFAULT_RETRYABLE_STATUS_CODES, DEFAULT_RETRYABLE_EXCEPTIONS);
+    }
+
+    /**
+     * Constructs a new condition retrying the specified status codes and exception types for
+     * reads, and the default ones for writes.
+     *
+     * @param retryableStatusCodes Status codes of error responses to reads that are retried.
+     * @param retryableExceptions Types of exceptions that are retried when they, or an exception
+     *        in their chain of causes, made a read fail.
+     */
+    public DefaultRetryCondition(Collection<Integer> retryableStatusCodes,
+            Collection<? extends Class<? extends Throwable>> retryableExceptions) {
+        this(retryableStatusCodes, retryableExceptions, DEFAULT_WRITE_RETRYABLE_STATUS_CODES,
+                DEFAULT_WRITE_RETRYABLE_EXCEPTIONS);
+    }
+
+    /**
+     * Constructs a new condition retrying the specified status codes and exception types.
+     *
+     * @param retryableStatusCodes Status codes of error responses to reads that are retried.
+     * @param retryableExceptions Types of exceptions that are retried when they, or an exception
+     *        in their chain of causes, made a read fail.
+     * @param writeRetryableStatusCodes Status codes of error responses to writes that are retried.
+     * @param writeRetryableExceptions Types of exceptions that are retried when they, or an
+     *        exception in their chain of causes, made a write fail.
+     */
+    public DefaultRetryCondition(Collection<Integer> retryableStatusCodes,
+            Collection<? extends Class<? extends Throwable>> retryableExceptions,
+            Collection<Integer> writeRetryableStatusCodes,
+            Collection<? extends Class<? extends Throwable>> writeRetryableExceptions) {
+        this.retryableStatusCodes = new HashSet<Integer>(retryableStatusCodes);
+        this.retryableExceptions = new ArrayList<Class<? extends Throwable>>(retryableExceptions);
+        this.writeRetryableStatusCodes = new HashSet<Integer>(writeRetryableStatusCodes);
+        this.writeRetryableExceptions =
+                new ArrayList<Class<? extends Throwable>>(writeRetryableExceptions);
+    }
+
+    public boolean shouldRetry(Request request, boolean idempotent, ClientException exception,
+            int retriesAttempted) {
+        if (exception instanceof ServiceException) {
+            int statusCode = ((ServiceException) exception).getStatusCode();
+            return idempotent ? retryableStatusCodes.contains(statusCode)
+                    : writeRetryableStatusCodes.contains(statusCode);
+        }
+        return isCausedBy(exception, idempotent ? retryableExceptions : writeRetryableExceptions);
+    }
+
+    private static boolean isCausedBy(ClientException exception,
+            List<Class<? extends Throwable>> types) {
+        for (Throwable t = exception; t != null; t = t.getCause()) {
+            for (Class<? extends Throwable> type : types) {
+                if (type.isInstance(t)) {
+                    return true;
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+}
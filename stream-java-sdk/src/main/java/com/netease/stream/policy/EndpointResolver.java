@@ -0,0 +1,20 @@
+package com.netease.stream.policy;
+
+import java.util.List;
+
+/**
+ * Interface for providing the streamproxy endpoints a {@link LoadBalancer} spreads requests over.
+ * Implementations may return a fixed list, or look the endpoints up in a name service or a
+ * configuration system so nodes can be added and removed while the client runs.
+ */
+public interface EndpointResolver {
+
+    /**
+     * Returns the current endpoints. The load balancer calls this method when it is created and
+     * then periodically from a request thread, so it should return quickly.
+     *
+     * @return The endpoints, each a host with optional port, such as "10.0.0.1:8079".
+     */
+    public List<String> resolve();
+
+}
@@ -0,0 +1,42 @@
+package com.netease.stream.policy;
+
+import java.io.IOException;
+
+import com.netease.stream.exception.ServiceException;
+
+/**
+ * Classification of request failures shared by the policies tracking the health of hosts.
+ */
+final class Failures {
+
+    private Failures() {}
+
+    /**
+     * Returns whether a failure shows the host is unhealthy: an I/O error or a server error
+     * response. Other failures, such as 4xx responses, show it is up.
+     */
+    static boolean isUnavailable(Throwable failure) {
+        if (failure instanceof ServiceException) {
+            return ((ServiceException) failure).getStatusCode() >= 500;
+        }
+        for (Throwable t = failure; t != null && t.getCause() != t; t = t.getCause()) {
+            if (t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether a failure shows the host is overloaded: an I/O error, or a throttling or
+     * server error response.
+     */
+    static boolean isOverload(Throwable failure) {
+        if (failure instanceof ServiceException
+                && ((ServiceException) failure).getStatusCode() == 429) {
+            return true;
+        }
+        return isUnavailable(failure);
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.netease.stream.policy;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Policy sending a second copy of a slow idempotent read, to cut the tail latency a single slow
+ * proxy node causes.
+ * <p>
+ * A read which has not completed after the hedging delay is sent again, freshly signed, on
+ * another connection; the first response wins and the other request is cancelled. The delay is
+ * the configured percentile of the latencies of the recent reads of the same operation, bounded
+ * by the minimum and maximum delay, so only the slowest reads are sent twice. Until enough reads
+ * completed, the maximum delay is used.
+ * <p>
+ * Hedged reads are received whole before the response handler runs, since the handler must only
+ * see the response which won. A policy keeps the latencies, clients sharing it share them.
+ */
+public class HedgingPolicy {
+
+    public static final double DEFAULT_PERCENTILE = 95;
+
+    public static final long DEFAULT_MIN_DELAY_MILLIS = 5;
+
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 1000;
+
+    /** Number of recent latencies the delay is computed from. */
+    private static final int WINDOW_SIZE = 256;
+
+    /** Number of latencies needed before the delay follows them. */
+    private static final int MIN_SAMPLES = 20;
+
+    /** Number of latencies after which the delay is computed again. */
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final double percentile;
+
+    private final long minDelayNanos;
+
+    private final long maxDelayNanos;
+
+    private final ConcurrentMap<String, LatencyWindow> windows =
+            new ConcurrentHashMap<String, LatencyWindow>();
+
+    /**
+     * Constructs a new hedging policy with the default settings.
+     */
+    public HedgingPolicy() {
+        this(DEFAULT_PERCENTILE, DEFAULT_MIN_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Constructs a new hedging policy.
+     *
+     * @param percentile The percentile, between 0 and 100, of the recent latencies after which a
+     *        read is hedged.
+     * @param minDelayMillis The minimum time (in milliseconds) before a read is hedged.
+     * @param maxDelayMillis The maximum time (in milliseconds) before a read is hedged.
+     */
+    public HedgingPolicy(double percentile, long minDelayMillis, long maxDelayMillis) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be in (0, 100]");
+        }
+        if (minDelayMillis < 0 || maxDelayMillis < minDelayMillis) {
+            throw new IllegalArgumentException("Delays must satisfy 0 <= min <= max");
+        }
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    }
+
+    /**
+     * Returns the time after which a read is hedged.
+     *
+     * @param operation The operation of the read, its resource path.
+     * @return The hedging delay, in nanoseconds.
+     */
+    public long getDelayNanos(String operation) {
+        LatencyWindow window = windows.get(operation);
+        return window != null ? window.delayNanos : maxDelayNanos;
+    }
+
+    /**
+     * Records the latency of a completed read.
+     *
+     * @param operation The operation of the read, its resource path.
+     * @param latencyNanos The time from sending the read to receiving its response.
+     */
+    public void recordLatency(String operation, long latencyNanos) {
+        LatencyWindow window = windows.get(operation);
+        if (window == null) {
+            LatencyWindow created = new LatencyWindow();
+            window = windows.putIfAbsent(operation, created);
+            if (window == null) {
+                window = created;
+            }
+        }
+        window.record(latencyNanos);
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public long getMinDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(minDelayNanos);
+    }
+
+    public long getMaxDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxDelayNanos);
+    }
+
+    /** Recent latencies of one operation, in a ring buffer. */
+    private final class LatencyWindow {
+
+        final AtomicLongArray samples = new AtomicLongArray(WINDOW_SIZE);
+
+        final AtomicLong count = new AtomicLong();
+
+        volatile long delayNanos = maxDelayNanos;
+
+        void record(long latencyNanos) {
+            long n = count.getAndIncrement();
+            samples.set((int) (n % WINDOW_SIZE), latencyNanos);
+            n++;
+            if (n >= MIN_SAMPLES && n % RECOMPUTE_INTERVAL == 0) {
+                recompute((int) Math.min(n, WINDOW_SIZE));
+            }
+        }
+
+        /** Computes the delay from a snapshot of the window, racing writers are harmless. */
+        private void recompute(int size) {
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * size) - 1;
+            long value = sorted[Math.max(0, index)];
+            delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+        }
+    }
+
+}
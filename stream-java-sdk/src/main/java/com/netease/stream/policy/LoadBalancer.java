@@ -0,0 +1,402 @@
+package com.netease.stream.policy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.netease.stream.exception.ClientException;
+
+/**
+ * Spreads the stream requests of a client over several streamproxy endpoints, and fails over to
+ * another endpoint when one goes down.
+ * <p>
+ * The endpoints come from an {@link EndpointResolver}, asked again every
+ * {@link #REFRESH_INTERVAL_MILLIS} milliseconds; if it fails, the previous endpoints are kept. Each
+ * request picks a healthy endpoint with the {@link LoadBalancingStrategy}, and retries pick
+ * another one. An endpoint whose last requests failed with an I/O error or a 5xx response
+ * {@link #getEjectionThreshold()} times in a row is ejected for {@link #getEjectionMillis()},
+ * twice as long each time it is ejected again, up to eight times as long, and then gets requests
+ * again. If every endpoint is ejected, they are all used rather than failing every request.
+ * <p>
+ * A load balancer keeps the health of the endpoints, clients sharing it share it.
+ */
+public class LoadBalancer {
+
+    public static final int DEFAULT_EJECTION_THRESHOLD = 3;
+
+    public static final long DEFAULT_EJECTION_MILLIS = 30 * 1000;
+
+    /** Time after which the resolver is asked for the endpoints again. */
+    public static final long REFRESH_INTERVAL_MILLIS = 10 * 1000;
+
+    private static final Log log = LogFactory.getLog(LoadBalancer.class);
+
+    /** Weight of a sample in the recent average latency of an endpoint. */
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    /** Largest shift of the ejection time of an endpoint ejected again and again. */
+    private static final int MAX_EJECTION_SHIFT = 3;
+
+    private final EndpointResolver resolver;
+
+    private final LoadBalancingStrategy strategy;
+
+    private final int ejectionThreshold;
+
+    private final long ejectionNanos;
+
+    /** Current endpoints by host, so they keep their health across refreshes. */
+    private final ConcurrentMap<String, Node> nodesByHost = new ConcurrentHashMap<String, Node>();
+
+    private volatile Node[] nodes;
+
+    private final AtomicLong nextRefreshNanos = new AtomicLong();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Constructs a new load balancer sending requests to the specified endpoints in turn.
+     *
+     * @param endpoints The endpoints, each a host with optional port.
+     */
+    public LoadBalancer(List<String> endpoints) {
+        this(new StaticEndpointResolver(endpoints), LoadBalancingStrategy.ROUND_ROBIN);
+    }
+
+    /**
+     * Constructs a new load balancer with the default ejection settings.
+     *
+     * @param resolver The resolver providing the endpoints.
+     * @param strategy How the endpoint of a request is picked.
+     */
+    public LoadBalancer(EndpointResolver resolver, LoadBalancingStrategy strategy) {
+        this(resolver, strategy, DEFAULT_EJECTION_THRESHOLD, DEFAULT_EJECTION_MILLIS);
+    }
+
+    /**
+     * Constructs a new load balancer.
+     *
+     * @param resolver The resolver providing the endpoints.
+     * @param strategy How the endpoint of a request is picked.
+     * @param ejectionThreshold The number of failures in a row ejecting an endpoint.
+     * @param ejectionMillis The time (in milliseconds) an endpoint is first ejected for.
+     * @throws ClientException If the resolver provides no endpoint.
+     */
+    public LoadBalancer(EndpointResolver resolver, LoadBalancingStrategy strategy,
+            int ejectionThreshold, long ejectionMillis) {
+        if (ejectionThreshold < 1 || ejectionMillis < 0) {
+            throw new IllegalArgumentException(
+                    "The ejection threshold must be positive, the ejection time not negative");
+        }
+        this.resolver = resolver;
+        this.strategy = strategy;
+        this.ejectionThreshold = ejectionThreshold;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMillis);
+        this.nodes = toNodes(resolver.resolve());
+        if (nodes.length == 0) {
+            throw new ClientException("No streamproxy endpoint resolved");
+        }
+        nextRefreshNanos.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(
+                REFRESH_INTERVAL_MILLIS));
+    }
+
+    /**
+     * Picks the endpoint of a new request.
+     *
+     * @return The host, with optional port, to send the request to.
+     */
+    public String select() {
+        return select(null);
+    }
+
+    /**
+     * Picks the endpoint of a retry, another one than the endpoint which failed if possible.
+     *
+     * @param avoid The host the previous attempt was sent to, or null.
+     * @return The host, with optional port, to send the request to.
+     */
+    public String select(String avoid) {
+        Node[] current = refresh();
+        long now = System.nanoTime();
+        Node node = pick(current, avoid, now, false);
+        if (node == null && avoid != null) {
+            node = pick(current, null, now, false);
+        }
+        if (node == null) {
+            node = pick(current, avoid, now, true);
+        }
+        return node.host;
+    }
+
+    /**
+     * Returns whether a host is one of the endpoints of this load balancer, so requests to it may
+     * fail over to the others.
+     *
+     * @param host The host, with optional port.
+     * @return true if the host is an endpoint.
+     */
+    public boolean contains(String host) {
+        return nodesByHost.containsKey(host);
+    }
+
+    /**
+     * Returns whether an endpoint is currently ejected.
+     *
+     * @param host The host, with optional port.
+     * @return true if the endpoint gets no requests while another one is healthy.
+     */
+    public boolean isEjected(String host) {
+        Node node = nodesByHost.get(host);
+        return node != null && node.isEjected(System.nanoTime());
+    }
+
+    /**
+     * Returns the current endpoints.
+     *
+     * @return The hosts, with optional ports, requests are spread over.
+     */
+    public List<String> getEndpoints() {
+        Node[] current = nodes;
+        List<String> hosts = new ArrayList<String>(current.length);
+        for (Node node : current) {
+            hosts.add(node.host);
+        }
+        return Collections.unmodifiableList(hosts);
+    }
+
+    /**
+     * Records a request sent to an endpoint, until its outcome is released.
+     *
+     * @param host The host, with optional port, the request is sent to.
+     * @return The permit to release once the request completed, or null if the host is not an
+     *         endpoint of this load balancer.
+     */
+    public Permit start(String host) {
+        Node node = nodesByHost.get(host);
+        if (node == null) {
+            return null;
+        }
+        node.outstanding.incrementAndGet();
+        return new Permit(node);
+    }
+
+    public EndpointResolver getResolver() {
+        return resolver;
+    }
+
+    public LoadBalancingStrategy getStrategy() {
+        return strategy;
+    }
+
+    public int getEjectionThreshold() {
+        return ejectionThreshold;
+    }
+
+    public long getEjectionMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(ejectionNanos);
+    }
+
+    /**
+     * Returns the endpoints, asking the resolver again first if they are due for a refresh. Only
+     * the thread winning the refresh calls the resolver, the others go on with the current ones.
+     */
+    private Node[] refresh() {
+        long due = nextRefreshNanos.get();
+        long now = System.nanoTime();
+        if (now - due < 0 || !nextRefreshNanos.compareAndSet(due,
+                now + TimeUnit.MILLISECONDS.toNanos(REFRESH_INTERVAL_MILLIS))) {
+            return nodes;
+        }
+        try {
+            Node[] resolved = toNodes(resolver.resolve());
+            if (resolved.length > 0) {
+                nodes = resolved;
+                nodesByHost.values().retainAll(Arrays.asList(resolved));
+            } else {
+                log.warn("No streamproxy endpoint resolved, keeping the previous endpoints");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Unable to resolve streamproxy endpoints, keeping the previous endpoints: "
+                    + e.getMessage(), e);
+        }
+        return nodes;
+    }
+
+    /**
+     * Turns resolved hosts into endpoints, keeping the state of the endpoints already known.
+     */
+    private Node[] toNodes(List<String> hosts) {
+        List<Node> resolved = new ArrayList<Node>(hosts.size());
+        for (String host : hosts) {
+            Node node = nodesByHost.get(host);
+            if (node == null) {
+                Node created = new Node(host);
+                node = nodesByHost.putIfAbsent(host, created);
+                if (node == null) {
+                    node = created;
+                }
+            }
+            if (!resolved.contains(node)) {
+                resolved.add(node);
+            }
+        }
+        return resolved.toArray(new Node[resolved.size()]);
+    }
+
+    /**
+     * Picks an endpoint among those eligible with the strategy.
+     *
+     * @return The endpoint, or null if none is eligible.
+     */
+    private Node pick(Node[] candidates, String avoid, long now, boolean includeEjected) {
+        int n = candidates.length;
+        switch (strategy) {
+            case LEAST_OUTSTANDING: {
+                // Start the scan at the next position so ties are spread evenly.
+                int start = next.getAndIncrement() & Integer.MAX_VALUE;
+                Node best = null;
+                for (int i = 0; i < n; i++) {
+                    Node node = candidates[(start + i) % n];
+                    if (isEligible(node, avoid, now, includeEjected) && (best == null
+                            || node.outstanding.get() < best.outstanding.get())) {
+                        best = node;
+                    }
+                }
+                return best;
+            }
+            case POWER_OF_TWO_CHOICES: {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Node first = scan(candidates, random.nextInt(n), avoid, now, includeEjected,
+                        null);
+                if (first == null) {
+                    return null;
+                }
+                Node second = scan(candidates, random.nextInt(n), avoid, now, includeEjected,
+                        first);
+                return second == null || first.score() <= second.score() ? first : second;
+            }
+            default:
+                return scan(candidates, next.getAndIncrement() & Integer.MAX_VALUE, avoid, now,
+                        includeEjected, null);
+        }
+    }
+
+    /**
+     * Returns the first eligible endpoint from a position on, other than the excluded one.
+     */
+    private Node scan(Node[] candidates, int start, String avoid, long now,
+            boolean includeEjected, Node excluded) {
+        int n = candidates.length;
+        for (int i = 0; i < n; i++) {
+            Node node = candidates[(start + i) % n];
+            if (node != excluded && isEligible(node, avoid, now, includeEjected)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEligible(Node node, String avoid, long now,
+            boolean includeEjected) {
+        return !node.host.equals(avoid) && (includeEjected || !node.isEjected(now));
+    }
+
+    /**
+     * One request sent to an endpoint, to be released exactly once.
+     */
+    public static final class Permit {
+
+        private final Node node;
+
+        private final long startNanos = System.nanoTime();
+
+        private Permit(Node node) {
+            this.node = node;
+        }
+
+        /**
+         * Records the outcome of the request with its endpoint.
+         *
+         * @param failure The exception the request failed with, or null if it succeeded.
+         */
+        public void release(Throwable failure) {
+            node.onResult(failure, System.nanoTime() - startNanos);
+        }
+
+        /**
+         * Releases the permit of a request whose outcome is unknown, such as a hedged request
+         * cancelled once its copy won, without recording an outcome.
+         */
+        public void cancel() {
+            node.outstanding.decrementAndGet();
+        }
+    }
+
+    /** One endpoint and its health. */
+    private final class Node {
+
+        final String host;
+
+        final AtomicInteger outstanding = new AtomicInteger();
+
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        /** Number of times the endpoint was ejected since it last succeeded. */
+        final AtomicInteger ejections = new AtomicInteger();
+
+        volatile long ejectedUntilNanos;
+
+        volatile boolean ejected;
+
+        /** Recent average latency, racy updates only blur it. */
+        volatile double latencyNanos;
+
+        Node(String host) {
+            this.host = host;
+        }
+
+        boolean isEjected(long now) {
+            return ejected && now - ejectedUntilNanos < 0;
+        }
+
+        double score() {
+            return latencyNanos * (outstanding.get() + 1);
+        }
+
+        void onResult(Throwable failure, long latency) {
+            outstanding.decrementAndGet();
+            if (failure == null || !Failures.isUnavailable(failure)) {
+                consecutiveFailures.set(0);
+                ejections.set(0);
+                if (failure == null) {
+                    double average = latencyNanos;
+                    latencyNanos = average == 0 ? latency
+                            : average + (latency - average) * LATENCY_WEIGHT;
+                }
+                return;
+            }
+            if (consecutiveFailures.incrementAndGet() < ejectionThreshold) {
+                return;
+            }
+            consecutiveFailures.set(0);
+            int shift = Math.min(ejections.getAndIncrement(), MAX_EJECTION_SHIFT);
+            long duration = ejectionNanos << shift;
+            ejectedUntilNanos = System.nanoTime() + duration;
+            ejected = true;
+            log.warn("Ejected streamproxy endpoint " + host + " for "
+                    + TimeUnit.NANOSECONDS.toMillis(duration) + " ms after " + ejectionThreshold
+                    + " failures in a row");
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.netease.stream.policy;
+
+/**
+ * How a {@link LoadBalancer} picks the endpoint of a request among the healthy ones.
+ */
+public enum LoadBalancingStrategy {
+
+    /** Each endpoint in turn. */
+    ROUND_ROBIN,
+
+    /** The endpoint with the fewest requests in flight from this client. */
+    LEAST_OUTSTANDING,
+
+    /**
+     * The better of two endpoints picked at random, scored by their recent average latency times
+     * their requests in flight. Cheap, and keeps away from slow nodes without herding every
+     * client onto the same fast one.
+     */
+    POWER_OF_TWO_CHOICES
+}
@@ -0,0 +1,55 @@
+package com.netease.stream.policy;
+
+/**
+ * Limits of the requests sent for one topic or subscription: a number of requests per second and a
+ * number of request body bytes per second. Bursts of up to one second worth of either are admitted
+ * at once.
+ */
+public class RateLimit {
+
+    /** No limit at all. */
+    public static final RateLimit UNLIMITED = new RateLimit(0, 0);
+
+    private final double requestsPerSecond;
+
+    private final double bytesPerSecond;
+
+    /**
+     * Constructs a new rate limit.
+     *
+     * @param requestsPerSecond The number of requests per second, 0 for no limit.
+     * @param bytesPerSecond The number of request body bytes per second, 0 for no limit.
+     */
+    public RateLimit(double requestsPerSecond, double bytesPerSecond) {
+        if (requestsPerSecond < 0 || bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Rate limits must not be negative");
+        }
+        this.requestsPerSecond = requestsPerSecond;
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Returns the number of requests per second.
+     *
+     * @return The request rate, 0 if not limited.
+     */
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    /**
+     * Returns the number of request body bytes per second.
+     *
+     * @return The byte rate, 0 if not limited.
+     */
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "{requestsPerSecond: " + requestsPerSecond + ", bytesPerSecond: " + bytesPerSecond
+                + "}";
+    }
+
+}
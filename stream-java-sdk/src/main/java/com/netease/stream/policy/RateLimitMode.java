@@ -0,0 +1,19 @@
+package com.netease.stream.policy;
+
+/**
+ * What happens to a request whose rate limit is exhausted.
+ */
+public enum RateLimitMode {
+
+    /**
+     * The request is sent once the limit admits it: blocking operations wait, asynchronous
+     * operations return a future that completes later, without holding a thread meanwhile.
+     */
+    WAIT,
+
+    /**
+     * The request is not sent, the operation fails with a
+     * {@link com.netease.stream.exception.RateLimitExceededException} right away.
+     */
+    FAIL_FAST
+}
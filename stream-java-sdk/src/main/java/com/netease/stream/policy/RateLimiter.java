@@ -0,0 +1,150 @@
+package com.netease.stream.policy;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.netease.stream.exception.RateLimitExceededException;
+
+/**
+ * Client-side rate limiter keeping the requests of each topic or subscription within a
+ * {@link RateLimit}, so one busy producer can not exhaust a proxy quota shared with other
+ * services.
+ * <p>
+ * Requests are limited by the name of their topic (putRecords, getOffset) or subscription
+ * (getLogs, getSubscriptionPosition). getRecords requests carry no topic name; they share the
+ * limit of the key {@link #GET_RECORDS_KEY}. Request bodies count towards the byte limit, response
+ * bodies do not.
+ * <p>
+ * Each key has its own lock-free {@link TokenBucket}s, so admitting a request costs a map lookup
+ * and a compare-and-set per limit. A limiter may be shared by several clients, which then share
+ * the limits.
+ */
+public class RateLimiter {
+
+    /** The key limiting getRecords requests. */
+    public static final String GET_RECORDS_KEY = "getRecords";
+
+    private final RateLimit defaultLimit;
+
+    private final RateLimitMode mode;
+
+    /** Limits differing from the default, by key. */
+    private final ConcurrentMap<String, RateLimit> limits =
+            new ConcurrentHashMap<String, RateLimit>();
+
+    private final ConcurrentMap<String, Buckets> buckets = new ConcurrentHashMap<String, Buckets>();
+
+    /**
+     * Constructs a new rate limiter.
+     *
+     * @param defaultLimit The limit of every key without a limit of its own.
+     * @param mode What happens to requests whose limit is exhausted.
+     */
+    public RateLimiter(RateLimit defaultLimit, RateLimitMode mode) {
+        if (defaultLimit == null || mode == null) {
+            throw new IllegalArgumentException("The default limit and mode must be specified.");
+        }
+        this.defaultLimit = defaultLimit;
+        this.mode = mode;
+    }
+
+    /**
+     * Sets the limit of one topic or subscription, and returns this limiter so that additional
+     * calls may be chained together.
+     *
+     * @param key The topic or subscription name.
+     * @param limit The limit of the key.
+     * @return This rate limiter.
+     */
+    public RateLimiter withLimit(String key, RateLimit limit) {
+        limits.put(key, limit);
+        buckets.remove(key);
+        return this;
+    }
+
+    /**
+     * Returns the limit of a topic or subscription.
+     *
+     * @param key The topic or subscription name.
+     * @return The limit of the key, or the default limit.
+     */
+    public RateLimit getLimit(String key) {
+        RateLimit limit = limits.get(key);
+        return limit != null ? limit : defaultLimit;
+    }
+
+    /**
+     * Returns what happens to requests whose limit is exhausted.
+     *
+     * @return The rate limit mode.
+     */
+    public RateLimitMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Admits a request. In {@link RateLimitMode#WAIT} mode the request is always admitted, and the
+     * caller has to wait the returned time before sending it; in {@link RateLimitMode#FAIL_FAST}
+     * mode a request that can not be sent now is refused.
+     *
+     * @param key The topic or subscription name of the request.
+     * @param bytes The size of the request body.
+     * @return The time to wait before sending the request, in nanoseconds.
+     * @throws RateLimitExceededException In fail fast mode, if the limit is exhausted.
+     */
+    public long acquire(String key, long bytes) throws RateLimitExceededException {
+        Buckets limit = getBuckets(key);
+        if (mode == RateLimitMode.WAIT) {
+            return Math.max(reserve(limit.requests, 1), reserve(limit.bytes, bytes));
+        }
+        if (limit.requests != null && !limit.requests.tryAcquire(1)) {
+            throw exceeded(key, limit.requests.getWaitNanos(1));
+        }
+        if (limit.bytes != null && bytes > 0 && !limit.bytes.tryAcquire(bytes)) {
+            long wait = limit.bytes.getWaitNanos(bytes);
+            if (limit.requests != null) {
+                limit.requests.release(1);
+            }
+            throw exceeded(key, wait);
+        }
+        return 0;
+    }
+
+    private static long reserve(TokenBucket bucket, long permits) {
+        return bucket == null || permits <= 0 ? 0 : bucket.reserve(permits);
+    }
+
+    private static RateLimitExceededException exceeded(String key, long waitNanos) {
+        return new RateLimitExceededException(key, (waitNanos + 999999) / 1000000);
+    }
+
+    private Buckets getBuckets(String key) {
+        Buckets limit = buckets.get(key);
+        if (limit == null) {
+            Buckets created = new Buckets(getLimit(key));
+            limit = buckets.putIfAbsent(key, created);
+            if (limit == null) {
+                limit = created;
+            }
+        }
+        return limit;
+    }
+
+    /** Token buckets of one key, null for limits that are not set. */
+    private static final class Buckets {
+
+        final TokenBucket requests;
+
+        final TokenBucket bytes;
+
+        Buckets(RateLimit limit) {
+            this.requests = createBucket(limit.getRequestsPerSecond());
+            this.bytes = createBucket(limit.getBytesPerSecond());
+        }
+
+        private static TokenBucket createBucket(double perSecond) {
+            return perSecond > 0 ? new TokenBucket(perSecond, Math.max(perSecond, 1)) : null;
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.netease.stream.policy;
+
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.http.Request;
+
+/**
+ * Classifies failed requests into those worth sending again and those that will fail again.
+ */
+public interface RetryCondition {
+
+    /**
+     * Returns whether the failed request should be sent again.
+     *
+     * @param request The request that failed.
+     * @param idempotent Whether the request is a read, which may be sent again even if the proxy
+     *        processed it; a write sent again after the proxy processed it is written twice.
+     * @param exception The failure: a ServiceException for an error response, a ClientException
+     *        caused by an IOException if the request could not be sent or the response could not
+     *        be read.
+     * @param retriesAttempted The number of times the request has been retried already.
+     * @return true to retry the request.
+     */
+    public boolean shouldRetry(Request request, boolean idempotent, ClientException exception,
+            int retriesAttempted);
+
+}
@@ -0,0 +1,138 @@
+package com.netease.stream.policy;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.http.Request;
+
+/**
+ * Policy deciding whether a failed request is sent again, and how long to wait before. The wait
+ * grows exponentially from the base delay with every retry, up to the maximum delay, and is drawn
+ * at random between zero and that bound ("full jitter"), so clients failing together during a
+ * proxy deploy do not all come back at the same moment.
+ * <p>
+ * Every retry is signed again, with a new Date header.
+ */
+public class RetryPolicy {
+
+    /** The default number of attempts, including the first one. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /** The default delay (in milliseconds) bounding the wait before the first retry. */
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 100;
+
+    /** The default maximum delay (in milliseconds) between two attempts. */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 10 * 1000;
+
+    /**
+     * Policy retrying I/O errors, throttling and 5xx responses of reads, and the failures of
+     * writes the proxy did not process, up to three attempts.
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(DEFAULT_MAX_ATTEMPTS,
+            DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, new DefaultRetryCondition());
+
+    /** Policy sending every request once. */
+    public static final RetryPolicy NO_RETRY = new RetryPolicy(1, 0, 0,
+            new DefaultRetryCondition());
+
+    private final int maxAttempts;
+
+    private final long baseDelayMillis;
+
+    private final long maxDelayMillis;
+
+    private final RetryCondition retryCondition;
+
+    /**
+     * Constructs a new retry policy.
+     *
+     * @param maxAttempts The maximum number of attempts, including the first one.
+     * @param baseDelayMillis The delay (in milliseconds) bounding the wait before the first retry,
+     *        doubled with every further retry.
+     * @param maxDelayMillis The maximum delay (in milliseconds) between two attempts.
+     * @param retryCondition The condition deciding which failures are retried.
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis,
+            RetryCondition retryCondition) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+        }
+        if (baseDelayMillis < 0 || maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Retry delays must not be negative");
+        }
+        if (retryCondition == null) {
+            throw new IllegalArgumentException("The retry condition must be specified.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.retryCondition = retryCondition;
+    }
+
+    /**
+     * Returns whether the failed request should be sent again.
+     *
+     * @param request The request that failed.
+     * @param idempotent Whether the request is a read.
+     * @param exception The failure.
+     * @param retriesAttempted The number of times the request has been retried already.
+     * @return true if attempts are left and the retry condition accepts the failure.
+     */
+    public boolean shouldRetry(Request request, boolean idempotent, ClientException exception,
+            int retriesAttempted) {
+        return retriesAttempted + 1 < maxAttempts
+                && retryCondition.shouldRetry(request, idempotent, exception, retriesAttempted);
+    }
+
+    /**
+     * Returns the time to wait before the next retry: a random delay between zero and the base
+     * delay doubled for every retry attempted, capped at the maximum delay.
+     *
+     * @param retriesAttempted The number of times the request has been retried already.
+     * @return The delay in milliseconds.
+     */
+    public long getDelayMillis(int retriesAttempted) {
+        long ceiling = baseDelayMillis << Math.min(retriesAttempted, 30);
+        if (ceiling > maxDelayMillis || ceiling < 0) {
+            ceiling = maxDelayMillis;
+        }
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Returns the maximum number of attempts, including the first one.
+     *
+     * @return The maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns the delay (in milliseconds) bounding the wait before the first retry.
+     *
+     * @return The base delay in milliseconds.
+     */
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    /**
+     * Returns the maximum delay (in milliseconds) between two attempts.
+     *
+     * @return The maximum delay in milliseconds.
+     */
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    /**
+     * Returns the condition deciding which failures are retried.
+     *
+     * @return The retry condition.
+     */
+    public RetryCondition getRetryCondition() {
+        return retryCondition;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.netease.stream.policy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Simple implementation of EndpointResolver that just wraps a fixed list of endpoints.
+ */
+public class StaticEndpointResolver implements EndpointResolver {
+
+    private final List<String> endpoints;
+
+    public StaticEndpointResolver(List<String> endpoints) {
+        this.endpoints = Collections.unmodifiableList(new ArrayList<String>(endpoints));
+    }
+
+    public List<String> resolve() {
+        return endpoints;
+    }
+
+}
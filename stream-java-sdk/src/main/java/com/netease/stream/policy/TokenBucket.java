@@ -0,0 +1,116 @@
+package com.netease.stream.policy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, refilled at a fixed rate up to its capacity.
+ * <p>
+ * The bucket is kept as a single timestamp, the time at which it will be full again (the
+ * "generic cell rate algorithm"): taking permits moves the timestamp forward by their cost, and
+ * the bucket holds as many permits as the timestamp lies less than its capacity ahead of now. A
+ * permit therefore costs one compare-and-set, without locks or a refill thread.
+ */
+public class TokenBucket {
+
+    /** Largest cost in nanoseconds, keeping timestamp arithmetic clear of overflow. */
+    private static final long MAX_COST_NANOS = Long.MAX_VALUE / 4;
+
+    private final double nanosPerPermit;
+
+    /** The capacity of the bucket, as the time it takes to refill it. */
+    private final long capacityNanos;
+
+    /** The time at which the bucket will be full, in System.nanoTime() terms. */
+    private final AtomicLong fullAt = new AtomicLong(System.nanoTime());
+
+    /**
+     * Constructs a new, full token bucket.
+     *
+     * @param permitsPerSecond The rate the bucket is refilled at.
+     * @param capacity The number of permits the bucket holds when full, that is the largest burst.
+     */
+    public TokenBucket(double permitsPerSecond, double capacity) {
+        if (permitsPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("The rate and capacity must be positive");
+        }
+        this.nanosPerPermit = 1e9 / permitsPerSecond;
+        this.capacityNanos = cost(capacity);
+    }
+
+    /**
+     * Takes the permits if the bucket holds them now.
+     *
+     * @param permits The number of permits to take.
+     * @return true if the permits were taken, false if the bucket holds too few.
+     */
+    public boolean tryAcquire(long permits) {
+        return acquire(permits, false) == 0;
+    }
+
+    /**
+     * Takes the permits whether or not the bucket holds them now, and returns how long the caller
+     * has to wait until they would have been available. Waiting callers are served in the order of
+     * their reservations.
+     *
+     * @param permits The number of permits to take.
+     * @return The time to wait in nanoseconds, 0 if the permits are available now.
+     */
+    public long reserve(long permits) {
+        return acquire(permits, true);
+    }
+
+    /**
+     * Returns how long a caller would have to wait for the permits, without taking them.
+     *
+     * @param permits The number of permits.
+     * @return The time to wait in nanoseconds, 0 if the permits are available now.
+     */
+    public long getWaitNanos(long permits) {
+        long now = System.nanoTime();
+        return waitNanos(fullAt.get(), now, cost(permits));
+    }
+
+    /**
+     * Puts permits taken before back into the bucket, for a request that was not sent after all.
+     *
+     * @param permits The number of permits to put back.
+     */
+    public void release(long permits) {
+        fullAt.addAndGet(-cost(permits));
+    }
+
+    private long acquire(long permits, boolean reserve) {
+        long cost = cost(permits);
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long wait = waitNanos(current, now, cost);
+            if (wait > 0 && !reserve) {
+                return wait;
+            }
+            long start = current - now > 0 ? current : now;
+            if (fullAt.compareAndSet(current, start + cost)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * The wait until the bucket holds permits of the specified cost. A request costing more than
+     * the capacity is admitted once the bucket is full, instead of never.
+     */
+    private long waitNanos(long fullAt, long now, long cost) {
+        long debt = fullAt - now;
+        if (debt <= 0) {
+            return 0;
+        }
+        long wait = debt - Math.max(0, capacityNanos - cost);
+        return wait > 0 ? wait : 0;
+    }
+
+    private long cost(double permits) {
+        double nanos = permits * nanosPerPermit;
+        return nanos >= MAX_COST_NANOS ? MAX_COST_NANOS : (long) Math.ceil(nanos);
+    }
+
+}
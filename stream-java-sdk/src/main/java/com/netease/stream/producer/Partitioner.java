@@ -0,0 +1,20 @@
+package com.netease.stream.producer;
+
+import java.util.Map;
+
+/**
+ * Chooses the partition a record is written to when it is handed to
+ * {@link StreamProducer#send(String, Map)} without an explicit partition id.
+ */
+public interface Partitioner {
+
+    /**
+     * Returns the partition id the specified record should be written to.
+     *
+     * @param topicName The topic the record is written to.
+     * @param record The record being sent.
+     * @return The partition id, must not be negative.
+     */
+    public int partition(String topicName, Map<String, String> record);
+
+}
@@ -0,0 +1,275 @@
+package com.netease.stream.producer;
+
+/**
+ * Producer configuration options such as batch size, linger time and buffer limits.
+ */
+public class ProducerConfiguration {
+
+    /** The default maximum number of records in one putRecords batch. */
+    public static final int DEFAULT_MAX_BATCH_RECORDS = 1000;
+
+    /** The default maximum estimated size (in bytes) of one putRecords batch. */
+    public static final int DEFAULT_MAX_BATCH_BYTES = 1024 * 1024;
+
+    /** The default time (in milliseconds) a record may wait for its batch to fill up. */
+    public static final long DEFAULT_LINGER_MILLIS = 100;
+
+    /** The default maximum number of records buffered and not yet acknowledged. */
+    public static final int DEFAULT_MAX_BUFFERED_RECORDS = 100 * 1000;
+
+    /** The default time (in milliseconds) send blocks when the buffer is full. */
+    public static final long DEFAULT_MAX_BLOCK_MILLIS = 60 * 1000;
+
+    /** The default number of threads sending batches. */
+    public static final int DEFAULT_SENDER_THREADS = 4;
+
+    /** The maximum number of records in one putRecords batch. */
+    private int maxBatchRecords = DEFAULT_MAX_BATCH_RECORDS;
+
+    /**
+     * The maximum estimated size (in bytes) of one putRecords batch. The estimate counts the
+     * characters of the record keys and values, not the exact encoded request size.
+     */
+    private int maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+
+    /** The amount of time (in milliseconds) a record may wait for its batch to fill up. */
+    private long lingerMillis = DEFAULT_LINGER_MILLIS;
+
+    /** The maximum number of records buffered and not yet acknowledged by the server. */
+    private int maxBufferedRecords = DEFAULT_MAX_BUFFERED_RECORDS;
+
+    /** The amount of time (in milliseconds) send blocks waiting for buffer space. */
+    private long maxBlockMillis = DEFAULT_MAX_BLOCK_MILLIS;
+
+    /** The number of threads sending batches to the server concurrently. */
+    private int senderThreads = DEFAULT_SENDER_THREADS;
+
+    /** The partitioner used for records sent without an explicit partition id. */
+    private Partitioner partitioner = new RoundRobinPartitioner(1);
+
+    public ProducerConfiguration() {}
+
+    public ProducerConfiguration(ProducerConfiguration other) {
+        this.maxBatchRecords = other.maxBatchRecords;
+        this.maxBatchBytes = other.maxBatchBytes;
+        this.lingerMillis = other.lingerMillis;
+        this.maxBufferedRecords = other.maxBufferedRecords;
+        this.maxBlockMillis = other.maxBlockMillis;
+        this.senderThreads = other.senderThreads;
+        this.partitioner = other.partitioner;
+    }
+
+    /**
+     * Returns the maximum number of records in one putRecords batch.
+     *
+     * @return The maximum number of records in one putRecords batch.
+     */
+    public int getMaxBatchRecords() {
+        return maxBatchRecords;
+    }
+
+    /**
+     * Sets the maximum number of records in one putRecords batch.
+     *
+     * @param maxBatchRecords The maximum number of records in one putRecords batch.
+     */
+    public void setMaxBatchRecords(int maxBatchRecords) {
+        this.maxBatchRecords = maxBatchRecords;
+    }
+
+    /**
+     * Sets the maximum number of records in one putRecords batch and returns the updated
+     * ProducerConfiguration object.
+     *
+     * @param maxBatchRecords The maximum number of records in one putRecords batch.
+     * @return The updated ProducerConfiguration object.
+     */
+    public ProducerConfiguration withMaxBatchRecords(int maxBatchRecords) {
+        setMaxBatchRecords(maxBatchRecords);
+        return this;
+    }
+
+    /**
+     * Returns the maximum estimated size (in bytes) of one putRecords batch.
+     *
+     * @return The maximum estimated size (in bytes) of one putRecords batch.
+     */
+    public int getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    /**
+     * Sets the maximum estimated size (in bytes) of one putRecords batch.
+     *
+     * @param maxBatchBytes The maximum estimated size (in bytes) of one putRecords batch.
+     */
+    public void setMaxBatchBytes(int maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    /**
+     * Sets the maximum estimated size (in bytes) of one putRecords batch and returns the updated
+     * ProducerConfiguration object.
+     *
+     * @param maxBatchBytes The maximum estimated size (in bytes) of one putRecords batch.
+     * @return The updated ProducerConfiguration object.
+     */
+    public ProducerConfiguration withMaxBatchBytes(int maxBatchBytes) {
+        setMaxBatchBytes(maxBatchBytes);
+        return this;
+    }
+
+    /**
+     * Returns the amount of time (in milliseconds) a record may wait for its batch to fill up
+     * before the batch is sent anyway.
+     *
+     * @return The linger time in milliseconds.
+     */
+    public long getLingerMillis() {
+        return lingerMillis;
+    }
+
+    /**
+     * Sets the amount of time (in milliseconds) a record may wait for its batch to fill up before
+     * the batch is sent anyway.
+     *
+     * @param lingerMillis The linger time in milliseconds.
+     */
+    public void setLingerMillis(long lingerMillis) {
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * Sets the linger time (in milliseconds) and returns the updated ProducerConfiguration object.
+     *
+     * @param lingerMillis The linger time in milliseconds.
+     * @return The updated ProducerConfiguration object.
+     */
+    public ProducerConfiguration withLingerMillis(long lingerMillis) {
+        setLingerMillis(lingerMillis);
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of records buffered and not yet acknowledged by the server.
+     *
+     * @return The maximum number of buffered records.
+     */
+    public int getMaxBufferedRecords() {
+        return maxBufferedRecords;
+    }
+
+    /**
+     * Sets the maximum number of records buffered and not yet acknowledged by the server. Once
+     * this limit is reached, send blocks until earlier batches complete.
+     *
+     * @param maxBufferedRecords The maximum number of buffered records.
+     */
+    public void setMaxBufferedRecords(int maxBufferedRecords) {
+        this.maxBufferedRecords = maxBufferedRecords;
+    }
+
+    /**
+     * Sets the maximum number of buffered records and returns the updated ProducerConfiguration
+     * object.
+     *
+     * @param maxBufferedRecords The maximum number of buffered records.
+     * @return The updated ProducerConfiguration object.
+     */
+    public ProducerConfiguration withMaxBufferedRecords(int maxBufferedRecords) {
+        setMaxBufferedRecords(maxBufferedRecords);
+        return this;
+    }
+
+    /**
+     * Returns the amount of time (in milliseconds) send blocks waiting for buffer space.
+     *
+     * @return The maximum blocking time in milliseconds.
+     */
+    public long getMaxBlockMillis() {
+        return maxBlockMillis;
+    }
+
+    /**
+     * Sets the amount of time (in milliseconds) send blocks waiting for buffer space before
+     * giving up with a ClientException.
+     *
+     * @param maxBlockMillis The maximum blocking time in milliseconds.
+     */
+    public void setMaxBlockMillis(long maxBlockMillis) {
+        this.maxBlockMillis = maxBlockMillis;
+    }
+
+    /**
+     * Sets the maximum blocking time (in milliseconds) and returns the updated
+     * ProducerConfiguration object.
+     *
+     * @param maxBlockMillis The maximum blocking time in milliseconds.
+     * @return The updated ProducerConfiguration object.
+     */
+    public ProducerConfiguration withMaxBlockMillis(long maxBlockMillis) {
+        setMaxBlockMillis(maxBlockMillis);
+        return this;
+    }
+
+    /**
+     * Returns the number of threads sending batches to the server concurrently.
+     *
+     * @return The number of sender threads.
+     */
+    public int getSenderThreads() {
+        return senderThreads;
+    }
+
+    /**
+     * Sets the number of threads sending batches to the server concurrently. This should not
+     * exceed the maximum number of connections of the underlying client.
+     *
+     * @param senderThreads The number of sender threads.
+     */
+    public void setSenderThreads(int senderThreads) {
+        this.senderThreads = senderThreads;
+    }
+
+    /**
+     * Sets the number of sender threads and returns the updated ProducerConfiguration object.
+     *
+     * @param senderThreads The number of sender threads.
+     * @return The updated ProducerConfiguration object.
+     */
+    public ProducerConfiguration withSenderThreads(int senderThreads) {
+        setSenderThreads(senderThreads);
+        return this;
+    }
+
+    /**
+     * Returns the partitioner used for records sent without an explicit partition id.
+     *
+     * @return The partitioner.
+     */
+    public Partitioner getPartitioner() {
+        return partitioner;
+    }
+
+    /**
+     * Sets the partitioner used for records sent without an explicit partition id. The default
+     * partitioner writes every record to partition 0.
+     *
+     * @param partitioner The partitioner.
+     */
+    public void setPartitioner(Partitioner partitioner) {
+        this.partitioner = partitioner;
+    }
+
+    /**
+     * Sets the partitioner and returns the updated ProducerConfiguration object.
+     *
+     * @param partitioner The partitioner.
+     * @return The updated ProducerConfiguration object.
+     */
+    public ProducerConfiguration withPartitioner(Partitioner partitioner) {
+        setPartitioner(partitioner);
+        return this;
+    }
+
+}
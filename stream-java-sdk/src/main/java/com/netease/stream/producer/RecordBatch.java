@@ -0,0 +1,105 @@
+package com.netease.stream.producer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.netease.stream.model.PutRecordsResult;
+
+/**
+ * A batch of records bound for one partition of one topic, together with the futures of the
+ * records it contains. Not thread safe, access is guarded by the owning producer.
+ */
+class RecordBatch {
+
+    private final String topicName;
+    private final int partitionId;
+    private final long createdMillis;
+    private final List<Map<String, String>> records;
+    private final List<CompletableFuture<PutRecordsResult>> futures;
+    private int estimatedBytes;
+
+    RecordBatch(String topicName, int partitionId, int capacity, long createdMillis) {
+        this.topicName = topicName;
+        this.partitionId = partitionId;
+        this.createdMillis = createdMillis;
+        this.records = new ArrayList<Map<String, String>>(capacity);
+        this.futures = new ArrayList<CompletableFuture<PutRecordsResult>>(capacity);
+    }
+
+    void add(Map<String, String> record, CompletableFuture<PutRecordsResult> future,
+            int recordBytes) {
+        records.add(record);
+        futures.add(future);
+        estimatedBytes += recordBytes;
+    }
+
+    /**
+     * Completes the future of every record in this batch with the result of the request.
+     *
+     * @param result The result of the putRecords request carrying this batch.
+     */
+    void complete(PutRecordsResult result) {
+        for (CompletableFuture<PutRecordsResult> future : futures) {
+            future.complete(result);
+        }
+    }
+
+    /**
+     * Fails the future of every record in this batch.
+     *
+     * @param cause The reason the batch could not be written.
+     */
+    void fail(Throwable cause) {
+        for (CompletableFuture<PutRecordsResult> future : futures) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    String getTopicName() {
+        return topicName;
+    }
+
+    int getPartitionId() {
+        return partitionId;
+    }
+
+    long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    List<Map<String, String>> getRecords() {
+        return records;
+    }
+
+    int size() {
+        return records.size();
+    }
+
+    int getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Estimates the encoded size of a record: the characters of its keys and values plus the
+     * quotes, colons and commas around them.
+     *
+     * @param record The record to measure.
+     * @return The estimated size in bytes.
+     */
+    static int estimateSize(Map<String, String> record) {
+        int size = 2;
+        for (Map.Entry<String, String> entry : record.entrySet()) {
+            size += 6;
+            if (entry.getKey() != null) {
+                size += entry.getKey().length();
+            }
+            if (entry.getValue() != null) {
+                size += entry.getValue().length();
+            }
+        }
+        return size;
+    }
+
+}
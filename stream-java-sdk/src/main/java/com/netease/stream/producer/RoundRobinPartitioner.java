@@ -0,0 +1,36 @@
+package com.netease.stream.producer;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple implementation of Partitioner that spreads records evenly over a fixed number of
+ * partitions.
+ */
+public class RoundRobinPartitioner implements Partitioner {
+
+    private final int partitionCount;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Constructs a new RoundRobinPartitioner over partitions <code>0</code> to
+     * <code>partitionCount - 1</code>.
+     *
+     * @param partitionCount The number of partitions of the topics written to.
+     */
+    public RoundRobinPartitioner(int partitionCount) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("The partition count must be positive.");
+        }
+        this.partitionCount = partitionCount;
+    }
+
+    public int partition(String topicName, Map<String, String> record) {
+        if (partitionCount == 1) {
+            return 0;
+        }
+        return (counter.getAndIncrement() & Integer.MAX_VALUE) % partitionCount;
+    }
+
+}
@@ -0,0 +1,366 @@
+package com.netease.stream.producer;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.netease.stream.client.StreamClient;
+import com.netease.stream.exception.ClientException;
+import com.netease.stream.model.PutRecordsResult;
+import com.netease.stream.util.CommonUtils;
+import com.netease.stream.util.NamedThreadFactory;
+
+/**
+ * Asynchronous, batching producer on top of {@link StreamClient#putRecords}.
+ * <p>
+ * Records handed to {@link #send(String, Map)} are buffered per topic and partition and written
+ * with a single putRecords request once the batch is full by record count or estimated size, or
+ * once its oldest record has waited for the configured linger time. Each record gets a future that
+ * completes with the result of the batch it was written in.
+ * <p>
+ * A producer is thread safe and is intended to be shared by all threads emitting records. It does
+ * not own the client passed to it; callers should {@link #close()} the producer before shutting
+ * the client down.
+ */
+public class StreamProducer implements Closeable {
+
+    /** Shared logger for producer events */
+    private static final Log log = LogFactory.getLog(StreamProducer.class);
+
+    /** Client used to send the batches. */
+    private final StreamClient client;
+
+    /** The producer configuration */
+    private final ProducerConfiguration config;
+
+    /** The batch currently being filled, per topic and partition. */
+    private final ConcurrentMap<TopicPartition, Slot> slots =
+            new ConcurrentHashMap<TopicPartition, Slot>();
+
+    /** Limits the number of records buffered and not yet acknowledged. */
+    private final Semaphore bufferPermits;
+
+    /** Batches which have been handed to the sender but not completed yet. */
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+
+    /** Threads sending full or expired batches. */
+    private final ExecutorService sender;
+
+    /** Timer sending batches whose linger time expired. */
+    private final ScheduledExecutorService lingerTimer;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new producer sending through the specified client with the default producer
+     * configuration.
+     *
+     * @param client The client used to send the batches.
+     */
+    public StreamProducer(StreamClient client) {
+        this(client, new ProducerConfiguration());
+    }
+
+    /**
+     * Constructs a new producer sending through the specified client.
+     *
+     * @param client The client used to send the batches.
+     * @param config The producer configuration.
+     */
+    public StreamProducer(StreamClient client, ProducerConfiguration config) {
+        CommonUtils commonUtils = new CommonUtils();
+        commonUtils.assertParameterNotNull(client, "The client parameter must be specified.");
+        commonUtils.assertParameterNotNull(config, "The config parameter must be specified.");
+
+        this.client = client;
+        this.config = new ProducerConfiguration(config);
+        this.bufferPermits = new Semaphore(this.config.getMaxBufferedRecords());
+        this.sender =
+                Executors.newFixedThreadPool(this.config.getSenderThreads(),
+                        new NamedThreadFactory("stream-producer-sender"));
+        this.lingerTimer =
+                Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory(
+                        "stream-producer-linger"));
+
+        long tick = Math.max(1, this.config.getLingerMillis() / 10);
+        lingerTimer.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                try {
+                    sendExpiredBatches(System.currentTimeMillis());
+                } catch (Throwable t) {
+                    log.warn("Unable to send expired batches", t);
+                }
+            }
+        }, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sends a record to the partition chosen by the configured {@link Partitioner}.
+     *
+     * @param topicName topic name.
+     * @param record record to upload.
+     * @return A future completed with the result of the batch the record was written in.
+     * @throws ClientException If the producer is closed or no buffer space became available in
+     *         time.
+     */
+    public CompletableFuture<PutRecordsResult> send(String topicName, Map<String, String> record)
+            throws ClientException {
+        new CommonUtils().assertParameterNotNull(record,
+                "The record parameter must be specified.");
+        return send(topicName, config.getPartitioner().partition(topicName, record), record);
+    }
+
+    /**
+     * Sends a record to the specified partition.
+     *
+     * @param topicName topic name.
+     * @param partitionId partition id.
+     * @param record record to upload.
+     * @return A future completed with the result of the batch the record was written in.
+     * @throws ClientException If the producer is closed or no buffer space became available in
+     *         time.
+     */
+    public CompletableFuture<PutRecordsResult> send(String topicName, int partitionId,
+            Map<String, String> record) throws ClientException {
+        CommonUtils commonUtils = new CommonUtils();
+        commonUtils
+                .assertParameterNotNull(topicName, "The topic name parameter must be specified.");
+        commonUtils.assertParameterNotNull(record, "The record parameter must be specified.");
+        if (closed) {
+            throw new ClientException("The producer has been closed.");
+        }
+
+        acquireBufferPermit();
+        CompletableFuture<PutRecordsResult> future = new CompletableFuture<PutRecordsResult>();
+        int recordBytes = RecordBatch.estimateSize(record);
+
+        TopicPartition key = new TopicPartition(topicName, partitionId);
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            Slot created = new Slot();
+            slot = slots.putIfAbsent(key, created);
+            if (slot == null) {
+                slot = created;
+            }
+        }
+
+        slot.lock.lock();
+        try {
+            if (closed) {
+                // close() may have swept the slots already, nothing would send a new batch.
+                bufferPermits.release();
+                throw new ClientException("The producer has been closed.");
+            }
+            RecordBatch batch = slot.batch;
+            if (batch != null
+                    && batch.getEstimatedBytes() + recordBytes > config.getMaxBatchBytes()) {
+                dispatch(batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch =
+                        new RecordBatch(topicName, partitionId, Math.min(
+                                config.getMaxBatchRecords(), 1024), System.currentTimeMillis());
+                slot.batch = batch;
+            }
+            batch.add(record, future, recordBytes);
+            if (batch.size() >= config.getMaxBatchRecords()
+                    || batch.getEstimatedBytes() >= config.getMaxBatchBytes()) {
+                dispatch(batch);
+                slot.batch = null;
+            }
+        } finally {
+            slot.lock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * Sends all buffered records immediately and waits until every batch sent so far has
+     * completed. Failures are reported through the futures of the individual records.
+     */
+    public void flush() {
+        dispatchBufferedBatches();
+
+        List<CompletableFuture<Void>> pending = new ArrayList<CompletableFuture<Void>>(inFlight);
+        for (CompletableFuture<Void> batch : pending) {
+            try {
+                batch.join();
+            } catch (Exception e) {
+                // Reported through the futures of the records in the batch.
+            }
+        }
+    }
+
+    /**
+     * Sends all buffered records, waits for them to complete and releases the threads of this
+     * producer. The underlying client is left open. Records sent concurrently with the close
+     * either make it into the final flush or fail.
+     */
+    public void close() {
+        closed = true;
+        lingerTimer.shutdownNow();
+        // A tick already running may still dispatch a batch, which the flush has to see.
+        awaitTermination(lingerTimer);
+        flush();
+        sender.shutdown();
+        // Fails whatever was still appended before the senders stopped accepting batches.
+        dispatchBufferedBatches();
+        awaitTermination(sender);
+    }
+
+    /**
+     * Waits until the tasks of an executor which has been shut down have completed. An interrupt
+     * stops the wait, leaving the thread interrupted.
+     */
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Hands the batch being filled of every topic and partition to the sender threads. */
+    private void dispatchBufferedBatches() {
+        for (Slot slot : slots.values()) {
+            slot.lock.lock();
+            try {
+                if (slot.batch != null) {
+                    dispatch(slot.batch);
+                    slot.batch = null;
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Sends every batch whose oldest record has waited for at least the linger time.
+     *
+     * @param now The current time in milliseconds.
+     */
+    private void sendExpiredBatches(long now) {
+        for (Slot slot : slots.values()) {
+            if (!slot.lock.tryLock()) {
+                // Somebody is appending to this batch right now, check it on the next tick.
+                continue;
+            }
+            try {
+                RecordBatch batch = slot.batch;
+                if (batch != null && now - batch.getCreatedMillis() >= config.getLingerMillis()) {
+                    dispatch(batch);
+                    slot.batch = null;
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Hands a batch to the sender threads. Must be called with the lock of its slot held.
+     *
+     * @param batch The batch to send.
+     */
+    private void dispatch(final RecordBatch batch) {
+        final CompletableFuture<Void> done = new CompletableFuture<Void>();
+        inFlight.add(done);
+        try {
+            sender.execute(new Runnable() {
+                public void run() {
+                    sendBatch(batch);
+                    inFlight.remove(done);
+                    done.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bufferPermits.release(batch.size());
+            batch.fail(new ClientException("The producer has been closed.", e));
+            inFlight.remove(done);
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Writes a batch with one putRecords request and completes the futures of its records.
+     *
+     * @param batch The batch to write.
+     */
+    private void sendBatch(RecordBatch batch) {
+        try {
+            batch.complete(client.putRecords(batch.getTopicName(), batch.getPartitionId(),
+                    batch.getRecords(), batch.size()));
+        } catch (Throwable t) {
+            log.warn("Unable to put " + batch.size() + " records to " + batch.getTopicName() + "/"
+                    + batch.getPartitionId() + ": " + t.getMessage());
+            batch.fail(t);
+        } finally {
+            bufferPermits.release(batch.size());
+        }
+    }
+
+    private void acquireBufferPermit() {
+        try {
+            if (!bufferPermits.tryAcquire(config.getMaxBlockMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ClientException("Unable to buffer record: "
+                        + config.getMaxBufferedRecords()
+                        + " records are already waiting to be sent");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting for buffer space", e);
+        }
+    }
+
+    /** The batch being filled for one topic and partition, with the lock guarding it. */
+    private static final class Slot {
+        final ReentrantLock lock = new ReentrantLock();
+        RecordBatch batch;
+    }
+
+    /** Key of the batches buffered by this producer. */
+    private static final class TopicPartition {
+        private final String topicName;
+        private final int partitionId;
+
+        TopicPartition(String topicName, int partitionId) {
+            this.topicName = topicName;
+            this.partitionId = partitionId;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * topicName.hashCode() + partitionId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TopicPartition)) {
+                return false;
+            }
+            TopicPartition other = (TopicPartition) obj;
+            return partitionId == other.partitionId && topicName.equals(other.topicName);
+        }
+    }
+
+}
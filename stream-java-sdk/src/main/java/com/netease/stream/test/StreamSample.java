@@ -6,8 +6,11 @@ import java.util.List;
 import java.util.Map;
 
 import com.netease.stream.client.StreamClient;
-import com.netease.stream.util.json.JSONArray;
-import com.netease.stream.util.json.JSONObject;
+import com.netease.stream.model.GetLogsResult;
+import com.netease.stream.model.GetRecordsResult;
+import com.netease.stream.model.OffsetResult;
+import com.netease.stream.model.PutRecordsResult;
+import com.netease.stream.model.SubscriptionPositionResult;
 
 public class StreamSample {
 
@@ -28,29 +31,25 @@ public class StreamSample {
         try {
             // get subscription position
             client = new StreamClient(accessKey, secretKey);
-            String ret = client.getSubscriptionPosition(positionType, subscriptionName);
+            SubscriptionPositionResult ret =
+                    client.getSubscriptionPosition(positionType, subscriptionName);
             System.out.println(ret);
 
             // get subscription logs
-            JSONObject retObject = new JSONObject(ret);
-            String logsPosition = retObject.getJSONObject("result").getString("position");
-            String logs = client.getLogs(logsPosition, limit, subscriptionName);
+            String logsPosition = ret.getPosition();
+            GetLogsResult logs = client.getLogs(logsPosition, limit, subscriptionName);
             System.out.println(logs);
 
             // cal number of subscription logs
-            JSONObject logsObject = new JSONObject(logs);
-            JSONArray subscription_logs =
-                    logsObject.getJSONObject("result").getJSONArray("subscription_logs");
-            System.out.println(subscription_logs.length());
+            System.out.println(logs.getSubscriptionLogs().size());
 
             // get offset
-            String offsetRet = client.getOffset(topicName, partitionId, offsetType);
+            OffsetResult offsetRet = client.getOffset(topicName, partitionId, offsetType);
             System.out.println(offsetRet);
 
             // get records
-            JSONObject offsetRetObject = new JSONObject(offsetRet);
-            String offset = offsetRetObject.getJSONObject("result").getString("offset");
-            String getRecordsRet = client.getRecords(offset, limit);
+            String offset = offsetRet.getOffset();
+            GetRecordsResult getRecordsRet = client.getRecords(offset, limit);
             System.out.println(getRecordsRet);
 
             // put records
@@ -60,12 +59,12 @@ public class StreamSample {
                 record.put("data", "hzx test now" + i + ".");
                 records.add(record);
             }
-            String putRecordsRet = client.putRecords(topicName, partitionId, records, count);
+            PutRecordsResult putRecordsRet =
+                    client.putRecords(topicName, partitionId, records, count);
             System.out.println(putRecordsRet);
 
             // get records
-            offsetRetObject = new JSONObject(offsetRet);
-            offset = offsetRetObject.getJSONObject("result").getString("offset");
+            offset = offsetRet.getOffset();
             getRecordsRet = client.getRecords(offset, limit);
             System.out.println(getRecordsRet);
 
@@ -0,0 +1,280 @@
+package com.netease.stream.util;
+
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writer encoding the body of a request as UTF-8 straight into a byte buffer, updating the MD5 of
+ * the body while it is written. Used with a {@link com.netease.stream.util.json.JSONWriter}, the
+ * body is serialized once and never exists as a String.
+ * <p>
+ * {@link #getInstance()} returns a writer of the calling thread whose buffer is kept between
+ * requests, so writing a body allocates nothing but the copy returned by {@link #toByteArray()}.
+ * Virtual threads share a few writers instead, see {@link ThreadCache}.
+ * A ContentWriter is not thread safe. Bodies sent compressed are turned into gzip with
+ * {@link #toGzipByteArray(int)}, with a deflater kept with the buffer.
+ */
+public class ContentWriter extends Writer {
+
+    /** Number of bytes written before they are added to the digest. */
+    private static final int DIGEST_CHUNK = 4096;
+
+    /** Larger buffers are released after use instead of being kept for the next request. */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** Header of a gzip member without optional fields, as written by GZIPOutputStream. */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0,
+            0, 0, 0};
+
+    private static final ThreadCache<ContentWriter> writers = new ThreadCache<ContentWriter>() {
+        @Override
+        protected ContentWriter create() throws NoSuchAlgorithmException {
+            return new ContentWriter();
+        }
+
+        @Override
+        protected void discard(ContentWriter writer) {
+            writer.end();
+        }
+    };
+
+    private final MessageDigest md5;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+    private int count;
+
+    /** Number of bytes already added to the digest. */
+    private int digested;
+
+    /** High surrogate written without its low surrogate yet. */
+    private char highSurrogate;
+
+    /** Raw deflater for gzip bodies, created with the first one. */
+    private Deflater deflater;
+
+    /**
+     * Constructs a new writer with an empty buffer.
+     *
+     * @throws NoSuchAlgorithmException If MD5 is not available.
+     */
+    public ContentWriter() throws NoSuchAlgorithmException {
+        this.md5 = MessageDigest.getInstance("MD5");
+    }
+
+    /**
+     * Returns the writer of the calling thread, reset and ready to write a new body. The writer is
+     * handed back with {@link #release()} once the body has been copied out of it.
+     *
+     * @return ContentWriter of the calling thread.
+     * @throws NoSuchAlgorithmException If MD5 is not available.
+     */
+    public static ContentWriter getInstance() throws NoSuchAlgorithmException {
+        ContentWriter writer = writers.acquire();
+        writer.reset();
+        return writer;
+    }
+
+    /**
+     * Hands back a writer returned by {@link #getInstance()}, which must not be used afterwards. A
+     * platform thread keeps its writer; a virtual thread returns it to the pool shared by virtual
+     * threads.
+     */
+    public void release() {
+        writers.release(this);
+    }
+
+    /**
+     * Discards the content written so far.
+     */
+    public void reset() {
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        count = 0;
+        digested = 0;
+        highSurrogate = 0;
+        md5.reset();
+    }
+
+    @Override
+    public void write(int c) {
+        ensureCapacity(4);
+        encode((char) c);
+        updateDigest(false);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        ensureCapacity(length * 3 + 4);
+        for (int i = offset; i < offset + length; i++) {
+            encode(chars[i]);
+        }
+        updateDigest(false);
+    }
+
+    @Override
+    public void write(String s, int offset, int length) {
+        ensureCapacity(length * 3 + 4);
+        for (int i = offset; i < offset + length; i++) {
+            encode(s.charAt(i));
+        }
+        updateDigest(false);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return The length of the body.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns a copy of the bytes written, sized to fit.
+     *
+     * @return The body.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Returns the MD5 of the bytes written, as hex string. Ends the body: nothing may be written
+     * afterwards until the writer is reset.
+     *
+     * @return The hex encoded MD5 of the body.
+     */
+    public String getMD5Hex() {
+        updateDigest(true);
+        return Md5Utils.getHex(md5.digest());
+    }
+
+    /**
+     * Returns the bytes written compressed as gzip. Ends the body: nothing may be written
+     * afterwards until the writer is reset.
+     *
+     * @param level The deflate level, from 1 (fastest) to 9 (smallest).
+     * @return The gzip compressed body.
+     */
+    public byte[] toGzipByteArray(int level) {
+        endBody();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        } else {
+            deflater.reset();
+            deflater.setLevel(level);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer, 0, count);
+
+        byte[] out = new byte[Math.max(count / 4, 64)];
+        System.arraycopy(GZIP_HEADER, 0, out, 0, GZIP_HEADER.length);
+        int n = GZIP_HEADER.length;
+        deflater.setInput(buffer, 0, count);
+        deflater.finish();
+        while (!deflater.finished()) {
+            if (n == out.length) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            n += deflater.deflate(out, n, out.length - n);
+        }
+        out = Arrays.copyOf(out, n + 8);
+        writeIntLE(out, n, (int) crc.getValue());
+        writeIntLE(out, n + 4, count);
+        return out;
+    }
+
+    /** Frees the native memory of the deflater, rather than leaving it to the garbage collector. */
+    private void end() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+    }
+
+    private static void writeIntLE(byte[] b, int offset, int value) {
+        b[offset] = (byte) value;
+        b[offset + 1] = (byte) (value >> 8);
+        b[offset + 2] = (byte) (value >> 16);
+        b[offset + 3] = (byte) (value >> 24);
+    }
+
+    private void encode(char c) {
+        byte[] b = buffer;
+        int n = count;
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                b[n++] = (byte) (0xf0 | (codePoint >> 18));
+                b[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                b[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                b[n++] = (byte) (0x80 | (codePoint & 0x3f));
+                count = n;
+                return;
+            }
+            // Unpaired surrogate, encoded as '?' like String.getBytes does.
+            b[n++] = '?';
+        }
+        if (c < 0x80) {
+            b[n++] = (byte) c;
+        } else if (c < 0x800) {
+            b[n++] = (byte) (0xc0 | (c >> 6));
+            b[n++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            b[n++] = '?';
+        } else {
+            b[n++] = (byte) (0xe0 | (c >> 12));
+            b[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            b[n++] = (byte) (0x80 | (c & 0x3f));
+        }
+        count = n;
+    }
+
+    /**
+     * Adds the bytes written since the last update to the digest, while they are still in the
+     * cache, once a chunk has been written or the body is complete.
+     */
+    private void updateDigest(boolean complete) {
+        if (complete) {
+            endBody();
+        }
+        if (count - digested >= DIGEST_CHUNK || (complete && count > digested)) {
+            md5.update(buffer, digested, count - digested);
+            digested = count;
+        }
+    }
+
+    /** Encodes a trailing high surrogate, whose low surrogate never came. */
+    private void endBody() {
+        if (highSurrogate != 0) {
+            ensureCapacity(1);
+            buffer[count++] = '?';
+            highSurrogate = 0;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (count + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + extra));
+        }
+    }
+
+}
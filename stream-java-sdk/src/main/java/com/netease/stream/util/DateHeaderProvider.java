@@ -0,0 +1,55 @@
+package com.netease.stream.util;
+
+/**
+ * Provides the value of the Date header signed into every request.
+ * <p>
+ * The header has a resolution of one second, so the formatted value is cached and only formatted
+ * again once the second changes. The cache is a single immutable holder published through a
+ * volatile field: readers never lock, and threads racing at a second boundary at worst format the
+ * same value twice.
+ */
+public class DateHeaderProvider {
+
+    private static final DateHeaderProvider instance = new DateHeaderProvider();
+
+    private final DateUtils dateUtils = new DateUtils();
+
+    private volatile CachedDate cached;
+
+    /**
+     * Returns the provider shared by all signers.
+     *
+     * @return DateHeaderProvider.
+     */
+    public static DateHeaderProvider getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the Date header value for the current time.
+     *
+     * @return The RFC 1123 string representing the current second.
+     */
+    public String currentDate() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedDate current = cached;
+        if (current != null && current.second == second) {
+            return current.text;
+        }
+        String text = dateUtils.formatRfc1123Date(second * 1000);
+        cached = new CachedDate(second, text);
+        return text;
+    }
+
+    /** A formatted Date header value together with the second it represents. */
+    private static final class CachedDate {
+        private final long second;
+        private final String text;
+
+        CachedDate(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+
+}
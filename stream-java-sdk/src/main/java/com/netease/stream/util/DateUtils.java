@@ -1,11 +1,10 @@
 package com.netease.stream.util;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
-import java.util.TimeZone;
 
+import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
 
@@ -29,9 +28,10 @@ public class DateUtils {
     private static final DateTimeFormatter rfc822DateFormat = DateTimeFormat.forPattern(
             "EEE, dd MMM yyyy HH:mm:ss ZZZ").withLocale(Locale.US);
 
-    // RFC1123 日期格式
-    private static final SimpleDateFormat rfc1123DateFormat = new SimpleDateFormat(
-            "EEE, dd MMM yyyy HH:mm:ss z", Locale.US);
+    // RFC1123 日期格式, 按东八区时间输出, 与服务端签名校验保持一致
+    private static final DateTimeFormatter rfc1123DateFormat = DateTimeFormat
+            .forPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'").withLocale(Locale.US)
+            .withZone(DateTimeZone.forOffsetHours(8));
 
     /** RFC 822 format */
     /**
@@ -93,9 +93,17 @@ public class DateUtils {
      * @return The RFC 822 string representing the specified date.
      */
     public String formatRfc1123Date(Date date) {
-        rfc1123DateFormat.setTimeZone(TimeZone.getTimeZone("GMT+8"));
-        String rfc1123Datestr = rfc1123DateFormat.format(date);
-        return rfc1123Datestr.substring(0, rfc1123Datestr.indexOf("+"));
+        return formatRfc1123Date(date.getTime());
+    }
+
+    /**
+     * Formats the specified time as an RFC 1123 string. Safe to call from any number of threads.
+     * 
+     * @param millis The time to format, in milliseconds since the epoch.
+     * @return The RFC 1123 string representing the specified time.
+     */
+    public String formatRfc1123Date(long millis) {
+        return rfc1123DateFormat.print(millis);
     }
 
 }
@@ -1,7 +1,6 @@
 package com.netease.stream.util;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
@@ -14,6 +13,14 @@ import org.apache.commons.codec.binary.Hex;
  */
 public class Md5Utils {
 
+    /** MD5 digest engine of each thread. */
+    private static final ThreadCache<MessageDigest> md5 = new ThreadCache<MessageDigest>() {
+        @Override
+        protected MessageDigest create() throws NoSuchAlgorithmException {
+            return MessageDigest.getInstance("MD5");
+        }
+    };
+
     /**
      * Computes the MD5 hash of the data in the given input stream and returns it as an array of
      * bytes.
@@ -26,8 +33,9 @@ public class Md5Utils {
     public static byte[] computeMD5Hash(InputStream is) throws NoSuchAlgorithmException,
             IOException {
         BufferedInputStream bis = new BufferedInputStream(is);
+        MessageDigest messageDigest = md5.acquire();
         try {
-            MessageDigest messageDigest = MessageDigest.getInstance("MD5");
+            messageDigest.reset();
             byte[] buffer = new byte[16384];
             int bytesRead = -1;
             while ((bytesRead = bis.read(buffer, 0, buffer.length)) != -1) {
@@ -35,6 +43,7 @@ public class Md5Utils {
             }
             return messageDigest.digest();
         } finally {
+            md5.release(messageDigest);
             try {
                 bis.close();
             } catch (Exception e) {
@@ -52,9 +61,30 @@ public class Md5Utils {
      * @throws IOException IOException.
      */
     public static byte[] computeMD5Hash(byte[] data) throws NoSuchAlgorithmException, IOException {
-        return computeMD5Hash(new ByteArrayInputStream(data));
+        return computeMD5Hash(data, 0, data.length);
     }
 
+    /**
+     * Computes the MD5 hash of a range of the given data and returns it as an array of bytes. The
+     * digest engine of the calling thread is reused, so no buffers or streams are allocated.
+     * 
+     * @param data Needed to compute with MD5.
+     * @param offset Offset of the first byte to hash.
+     * @param length Number of bytes to hash.
+     * @return byte[] Computed with MD5.
+     * @throws NoSuchAlgorithmException NoSuchAlgorithmException.
+     */
+    public static byte[] computeMD5Hash(byte[] data, int offset, int length)
+            throws NoSuchAlgorithmException {
+        MessageDigest messageDigest = md5.acquire();
+        try {
+            messageDigest.reset();
+            messageDigest.update(data, offset, length);
+            return messageDigest.digest();
+        } finally {
+            md5.release(messageDigest);
+        }
+    }
 
     /**
      * Get hex string
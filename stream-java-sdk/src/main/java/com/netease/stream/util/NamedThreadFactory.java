@@ -0,0 +1,31 @@
+package com.netease.stream.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory creating daemon threads named after the SDK component that owns them, so they
+ * can be told apart in thread dumps.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    /**
+     * Constructs a new NamedThreadFactory.
+     *
+     * @param prefix The prefix of the thread names, a sequence number is appended to it.
+     */
+    public NamedThreadFactory(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + "-" + threadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+}
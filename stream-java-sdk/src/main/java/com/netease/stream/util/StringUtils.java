@@ -1,9 +1,10 @@
 package com.netease.stream.util;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 
 import com.netease.stream.exception.ClientException;
 import com.netease.stream.http.Request;
@@ -13,6 +14,9 @@ import com.netease.stream.http.Request;
  */
 public class StringUtils {
 
+    /** Charset of all response bodies sent by the service. */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
     /**
      * Calculate the canonical string for a REST/HTTP request.
      * 
@@ -44,13 +48,38 @@ public class StringUtils {
      * @return string Converted string returned.
      */
     public String convertStreamToString(InputStream is) {
+        return convertStreamToString(is, -1);
+    }
 
-        BufferedReader reader = new BufferedReader(new InputStreamReader(is));
-        StringBuilder sb = new StringBuilder();
-        String line = null;
+    /**
+     * Covert stream to string, decoding it as UTF-8. The stream is read in blocks straight into
+     * the result, no intermediate line strings are created.
+     * 
+     * @param is Input stream needed to be converted.
+     * @param sizeHint Expected number of bytes in the stream, or -1 if not known.
+     * @return string Converted string returned.
+     */
+    public String convertStreamToString(InputStream is, long sizeHint) {
+        int capacity = sizeHint > 0 && sizeHint < Integer.MAX_VALUE ? (int) sizeHint : 1024;
+        StringBuilder sb = new StringBuilder(capacity);
+        appendStream(is, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Decodes the stream as UTF-8 and appends it to the specified builder. The stream is closed
+     * afterwards.
+     * 
+     * @param is Input stream needed to be converted.
+     * @param sb Builder the decoded characters are appended to.
+     */
+    public static void appendStream(InputStream is, StringBuilder sb) {
+        Reader reader = new InputStreamReader(is, UTF8);
+        char[] buffer = new char[4096];
         try {
-            while ((line = reader.readLine()) != null) {
-                sb.append(line + "\n");
+            int read;
+            while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+                sb.append(buffer, 0, read);
             }
         } catch (IOException e) {
             throw new ClientException(e.getMessage(), e);
@@ -61,11 +90,5 @@ public class StringUtils {
                 throw new ClientException(e.getMessage(), e);
             }
         }
-        if (sb.length() > 0) {
-            return sb.substring(0, sb.length() - 1);
-        } else {
-            return "";
-        }
-
     }
 }
@@ -0,0 +1,94 @@
+package com.netease.stream.util;
+
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Cache of an object which is expensive to create, such as an initialized Mac or a buffer, reused
+ * by every request a thread runs.
+ * <p>
+ * A platform thread keeps its own object, like a ThreadLocal. A virtual thread typically runs a
+ * single operation, so an object kept per thread would be created for every request and dropped
+ * with the thread; virtual threads borrow the objects from a pool shared by all of them instead.
+ * The pool is bounded, objects returned to a full pool are discarded.
+ *
+ * @param <T> The type of the cached objects.
+ */
+public abstract class ThreadCache<T> {
+
+    /**
+     * Objects are only held while running on a carrier thread, so a few per processor are enough
+     * to serve all virtual threads.
+     */
+    private static final int DEFAULT_POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final ThreadLocal<T> local = new ThreadLocal<T>();
+
+    private final BlockingQueue<T> pool;
+
+    /**
+     * Constructs a new cache pooling up to two objects per processor for virtual threads.
+     */
+    protected ThreadCache() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Constructs a new cache.
+     *
+     * @param poolSize The maximum number of objects pooled for virtual threads.
+     */
+    protected ThreadCache(int poolSize) {
+        this.pool = new ArrayBlockingQueue<T>(poolSize);
+    }
+
+    /**
+     * Returns the object of the calling platform thread, or an object taken from the pool on a
+     * virtual thread. The object must be handed back with {@link #release(Object)} by the same
+     * thread, and not be used after.
+     *
+     * @return The cached object, or a new one.
+     * @throws NoSuchAlgorithmException If the object needs an algorithm which is not available.
+     */
+    public T acquire() throws NoSuchAlgorithmException {
+        if (VirtualThreads.isVirtual(Thread.currentThread())) {
+            T value = pool.poll();
+            return value != null ? value : create();
+        }
+        T value = local.get();
+        if (value == null) {
+            value = create();
+            local.set(value);
+        }
+        return value;
+    }
+
+    /**
+     * Hands back an object returned by {@link #acquire()}. On a platform thread, the object stays
+     * with the thread.
+     *
+     * @param value The object.
+     */
+    public void release(T value) {
+        if (VirtualThreads.isVirtual(Thread.currentThread()) && !pool.offer(value)) {
+            discard(value);
+        }
+    }
+
+    /**
+     * Creates a new object.
+     *
+     * @return The object.
+     * @throws NoSuchAlgorithmException If the object needs an algorithm which is not available.
+     */
+    protected abstract T create() throws NoSuchAlgorithmException;
+
+    /**
+     * Releases the resources of an object which does not fit in the pool. Does nothing by default.
+     *
+     * @param value The object.
+     */
+    protected void discard(T value) {}
+
+}
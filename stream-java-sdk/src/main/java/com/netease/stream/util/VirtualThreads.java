@@ -0,0 +1,115 @@
+package com.netease.stream.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.netease.stream.exception.ClientException;
+
+/**
+ * Factory for virtual threads, available from Java 21. The SDK is compiled for older releases, so
+ * the virtual thread API is looked up reflectively; {@link #isSupported()} tells whether the
+ * running JVM provides it.
+ * <p>
+ * The request path of the SDK waits on java.util.concurrent locks rather than monitors, so a
+ * virtual thread blocked on a pooled connection or a response does not pin its carrier thread.
+ */
+public class VirtualThreads {
+
+    /** Thread.ofVirtual(), or null before Java 21. */
+    private static final Method ofVirtual = findMethod(Thread.class, "ofVirtual");
+
+    /** Executors.newVirtualThreadPerTaskExecutor(), or null before Java 21. */
+    private static final Method newVirtualThreadPerTaskExecutor = findMethod(Executors.class,
+            "newVirtualThreadPerTaskExecutor");
+
+    /** Thread.isVirtual(), or null before Java 21. */
+    private static final Method isVirtual = findMethod(Thread.class, "isVirtual");
+
+    private static final boolean supported = Runtime.version().feature() >= 21
+            && ofVirtual != null && newVirtualThreadPerTaskExecutor != null && isVirtual != null;
+
+    private VirtualThreads() {}
+
+    /**
+     * Returns whether the running JVM supports virtual threads.
+     *
+     * @return true from Java 21 on.
+     */
+    public static boolean isSupported() {
+        // Java 19 and 20 have the methods as preview API, which fails unless enabled.
+        return supported;
+    }
+
+    /**
+     * Returns whether a thread is a virtual thread.
+     *
+     * @param thread The thread.
+     * @return true if the thread is virtual, always false before Java 21.
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (!supported) {
+            return false;
+        }
+        try {
+            return (Boolean) isVirtual.invoke(thread);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a factory for virtual threads named after the SDK component that owns them.
+     *
+     * @param prefix The prefix of the thread names, a sequence number is appended to it.
+     * @return The thread factory.
+     * @throws ClientException If the running JVM does not support virtual threads.
+     */
+    public static ThreadFactory newThreadFactory(String prefix) throws ClientException {
+        assertSupported();
+        try {
+            Object builder = ofVirtual.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder,
+                    prefix + "-", 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            throw new ClientException("Unable to create virtual thread factory: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task. The caller owns the
+     * executor and shuts it down when done.
+     *
+     * @return The executor.
+     * @throws ClientException If the running JVM does not support virtual threads.
+     */
+    public static ExecutorService newThreadPerTaskExecutor() throws ClientException {
+        assertSupported();
+        try {
+            return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (Exception e) {
+            throw new ClientException("Unable to create virtual thread executor: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private static void assertSupported() {
+        if (!isSupported()) {
+            throw new ClientException("Virtual threads require Java 21 or later, running on "
+                    + System.getProperty("java.version"));
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
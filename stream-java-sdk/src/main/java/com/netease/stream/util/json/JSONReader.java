@@ -0,0 +1,552 @@
+package com.netease.stream.util.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * JSONReader reads a JSON text one token at a time, the reading counterpart of {@link JSONWriter}.
+ * Unlike {@link JSONTokener}, it does not build a tree of JSONObjects and JSONArrays: the caller
+ * pulls the tokens it is interested in and skips the rest, so a large array can be processed one
+ * element at a time with memory bounded by the element. For example,
+ *
+ * <pre>
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *     if (reader.nextName().equals(&quot;records&quot;)) {
+ *         reader.beginArray();
+ *         while (reader.hasNext()) {
+ *             process(reader.nextValue());
+ *         }
+ *         reader.endArray();
+ *     } else {
+ *         reader.skipValue();
+ *     }
+ * }
+ * reader.endObject();
+ * </pre>
+ * <p>
+ * Objects and arrays can be nested up to 64 levels deep. A JSONReader is not thread safe.
+ */
+public class JSONReader implements Closeable {
+
+    /** The kinds of tokens returned by {@link JSONReader#peek()}. */
+    public enum Token {
+        BEGIN_ARRAY, END_ARRAY, BEGIN_OBJECT, END_OBJECT, NAME, STRING, NUMBER, BOOLEAN, NULL,
+        END_DOCUMENT
+    }
+
+    private static final int maxdepth = 64;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[8192];
+
+    private int pos;
+
+    private int limit;
+
+    /** The number of characters consumed before the buffer, for error messages. */
+    private long bufferOffset;
+
+    /**
+     * The scope stack. Values: 'a' (empty array), 'A' (array), 'o' (empty object), 'O' (object),
+     * 'k' (after a name), 'i' (initial), 'd' (done).
+     */
+    private final char[] stack = new char[maxdepth + 1];
+
+    /** The stack top index. The document scope is always at the bottom. */
+    private int top;
+
+    /** The token peeked but not consumed yet, or null. */
+    private Token peeked;
+
+    /** The text of the peeked name, string, number or boolean. */
+    private String peekedText;
+
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Make a fresh JSONReader reading one JSON text from a reader.
+     *
+     * @param reader A reader.
+     */
+    public JSONReader(Reader reader) {
+        if (reader == null) {
+            throw new NullPointerException("reader");
+        }
+        this.reader = reader;
+        this.stack[0] = 'i';
+        this.top = 1;
+    }
+
+    /**
+     * Make a fresh JSONReader reading one UTF-8 encoded JSON text from a stream.
+     *
+     * @param in An input stream.
+     */
+    public JSONReader(InputStream in) {
+        this(new InputStreamReader(in, UTF8));
+    }
+
+    /**
+     * Returns the kind of the next token without consuming it.
+     *
+     * @return The kind of the next token.
+     * @throws JSONException If the text is not valid JSON.
+     */
+    public Token peek() throws JSONException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int c;
+        switch (stack[top - 1]) {
+            case 'a':
+                stack[top - 1] = 'A';
+                c = nextClean();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                back(c);
+                return peeked = readValue();
+            case 'A':
+                c = nextClean();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                return peeked = readValue();
+            case 'o':
+            case 'O':
+                c = nextClean();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (stack[top - 1] == 'O') {
+                    if (c != ',') {
+                        throw syntaxError("Expected ',' or '}'");
+                    }
+                    c = nextClean();
+                }
+                if (c != '"') {
+                    throw syntaxError("Expected a name");
+                }
+                peekedText = readString();
+                stack[top - 1] = 'k';
+                return peeked = Token.NAME;
+            case 'k':
+                if (nextClean() != ':') {
+                    throw syntaxError("Expected ':' after a name");
+                }
+                stack[top - 1] = 'O';
+                return peeked = readValue();
+            case 'i':
+                stack[top - 1] = 'd';
+                return peeked = readValue();
+            default:
+                if (nextClean() != -1) {
+                    throw syntaxError("Expected end of text");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+    }
+
+    /**
+     * Determine if the current array or object has another element.
+     *
+     * @return true if an element follows.
+     * @throws JSONException If the text is not valid JSON.
+     */
+    public boolean hasNext() throws JSONException {
+        Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT
+                && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Consume the beginning of an array.
+     *
+     * @throws JSONException If the next token is not the beginning of an array.
+     */
+    public void beginArray() throws JSONException {
+        expect(Token.BEGIN_ARRAY);
+    }
+
+    /**
+     * Consume the end of the current array.
+     *
+     * @throws JSONException If the next token is not the end of an array.
+     */
+    public void endArray() throws JSONException {
+        expect(Token.END_ARRAY);
+        top -= 1;
+    }
+
+    /**
+     * Consume the beginning of an object.
+     *
+     * @throws JSONException If the next token is not the beginning of an object.
+     */
+    public void beginObject() throws JSONException {
+        expect(Token.BEGIN_OBJECT);
+    }
+
+    /**
+     * Consume the end of the current object.
+     *
+     * @throws JSONException If the next token is not the end of an object.
+     */
+    public void endObject() throws JSONException {
+        expect(Token.END_OBJECT);
+        top -= 1;
+    }
+
+    /**
+     * Consume the name of the next member of the current object.
+     *
+     * @return The name.
+     * @throws JSONException If the next token is not a name.
+     */
+    public String nextName() throws JSONException {
+        expect(Token.NAME);
+        return peekedText;
+    }
+
+    /**
+     * Consume a string value. Numbers and booleans are returned as they appear in the text.
+     *
+     * @return The string.
+     * @throws JSONException If the next token is not a string, number or boolean.
+     */
+    public String nextString() throws JSONException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER && token != Token.BOOLEAN) {
+            throw syntaxError("Expected a string but was " + token);
+        }
+        peeked = null;
+        return peekedText;
+    }
+
+    /**
+     * Consume a boolean value.
+     *
+     * @return The boolean.
+     * @throws JSONException If the next token is not a boolean.
+     */
+    public boolean nextBoolean() throws JSONException {
+        expect(Token.BOOLEAN);
+        return peekedText.equals("true");
+    }
+
+    /**
+     * Consume a long value. Strings holding a number are accepted too.
+     *
+     * @return The long.
+     * @throws JSONException If the next token is not a number which fits in a long.
+     */
+    public long nextLong() throws JSONException {
+        Token token = peek();
+        if (token != Token.NUMBER && token != Token.STRING) {
+            throw syntaxError("Expected a number but was " + token);
+        }
+        try {
+            long value = Long.parseLong(peekedText);
+            peeked = null;
+            return value;
+        } catch (NumberFormatException e) {
+            throw syntaxError("Expected a long but was " + peekedText);
+        }
+    }
+
+    /**
+     * Consume a null value.
+     *
+     * @throws JSONException If the next token is not null.
+     */
+    public void nextNull() throws JSONException {
+        expect(Token.NULL);
+    }
+
+    /**
+     * Consume the next value and return it in the form {@link JSONTokener#nextValue()} does: a
+     * JSONObject, JSONArray, String, Boolean, Number or {@link JSONObject#NULL}. Use this for
+     * values small enough to be held as a tree, such as one element of a large array.
+     *
+     * @return The value.
+     * @throws JSONException If the text is not valid JSON.
+     */
+    public Object nextValue() throws JSONException {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                beginObject();
+                JSONObject object = new JSONObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    object.put(name, nextValue());
+                }
+                endObject();
+                return object;
+            case BEGIN_ARRAY:
+                beginArray();
+                JSONArray array = new JSONArray();
+                while (hasNext()) {
+                    array.put(nextValue());
+                }
+                endArray();
+                return array;
+            case STRING:
+                return nextString();
+            case NUMBER:
+            case BOOLEAN:
+                return JSONObject.stringToValue(nextString());
+            case NULL:
+                nextNull();
+                return JSONObject.NULL;
+            default:
+                throw syntaxError("Expected a value but was " + peek());
+        }
+    }
+
+    /**
+     * Skip the next value, including all nested arrays and objects, without building it.
+     *
+     * @throws JSONException If the text is not valid JSON.
+     */
+    public void skipValue() throws JSONException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth += 1;
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth += 1;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth -= 1;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth -= 1;
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Expected a value");
+                default:
+                    peeked = null;
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException If the reader can not be closed.
+     */
+    public void close() throws IOException {
+        peeked = Token.END_DOCUMENT;
+        reader.close();
+    }
+
+    /**
+     * Make a JSONException to signal a syntax error.
+     *
+     * @param message The error message.
+     * @return A JSONException object, suitable for throwing
+     */
+    public JSONException syntaxError(String message) {
+        return new JSONException(message + toString());
+    }
+
+    /**
+     * Make a printable string of this JSONReader.
+     *
+     * @return " at {index}"
+     */
+    public String toString() {
+        return " at " + (bufferOffset + pos);
+    }
+
+    private void expect(Token token) throws JSONException {
+        if (peek() != token) {
+            throw syntaxError("Expected " + token + " but was " + peek());
+        }
+        peeked = null;
+    }
+
+    private void push(char scope) throws JSONException {
+        if (top > maxdepth) {
+            throw syntaxError("Nesting too deep");
+        }
+        stack[top] = scope;
+        top += 1;
+    }
+
+    /**
+     * Reads the first token of a value.
+     */
+    private Token readValue() throws JSONException {
+        int c = nextClean();
+        switch (c) {
+            case '{':
+                push('o');
+                return Token.BEGIN_OBJECT;
+            case '[':
+                push('a');
+                return Token.BEGIN_ARRAY;
+            case '"':
+                peekedText = readString();
+                return Token.STRING;
+            case -1:
+                throw syntaxError("Unexpected end of text");
+        }
+
+        text.setLength(0);
+        while (c != -1 && c > ' ' && ",:]}[{\"".indexOf(c) < 0) {
+            text.append((char) c);
+            c = read();
+        }
+        back(c);
+        String s = text.toString();
+        peekedText = s;
+        if (s.equals("true") || s.equals("false")) {
+            return Token.BOOLEAN;
+        }
+        if (s.equals("null")) {
+            return Token.NULL;
+        }
+        char first = s.length() > 0 ? s.charAt(0) : 0;
+        if (first == '-' || (first >= '0' && first <= '9')) {
+            return Token.NUMBER;
+        }
+        throw syntaxError("Unexpected value '" + s + "'");
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has been consumed. Runs without escapes are
+     * copied from the buffer in one go.
+     */
+    private String readString() throws JSONException {
+        text.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos];
+                if (c == '"') {
+                    text.append(buffer, start, pos - start);
+                    pos += 1;
+                    return text.toString();
+                }
+                if (c == '\\' || c == '\n' || c == '\r') {
+                    break;
+                }
+                pos += 1;
+            }
+            text.append(buffer, start, pos - start);
+            if (pos == limit) {
+                if (!fill()) {
+                    throw syntaxError("Unterminated string");
+                }
+                continue;
+            }
+            int c = read();
+            if (c != '\\') {
+                throw syntaxError("Unterminated string");
+            }
+            c = read();
+            switch (c) {
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 't':
+                    text.append('\t');
+                    break;
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 'u':
+                    int value = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = read();
+                        int hex = digit == -1 ? -1 : JSONTokener.dehexchar((char) digit);
+                        if (hex < 0) {
+                            throw syntaxError("Illegal escape.");
+                        }
+                        value = (value << 4) + hex;
+                    }
+                    text.append((char) value);
+                    break;
+                case '"':
+                case '\'':
+                case '\\':
+                case '/':
+                    text.append((char) c);
+                    break;
+                default:
+                    throw syntaxError("Illegal escape.");
+            }
+        }
+    }
+
+    /**
+     * Get the next character, skipping whitespace.
+     *
+     * @return The character, or -1 at the end of the text.
+     */
+    private int nextClean() throws JSONException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+        }
+    }
+
+    private int read() throws JSONException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    /**
+     * Back up one character read by {@link #read()}, which is always still in the buffer.
+     */
+    private void back(int c) {
+        if (c != -1) {
+            pos -= 1;
+        }
+    }
+
+    private boolean fill() throws JSONException {
+        bufferOffset += limit;
+        pos = 0;
+        limit = 0;
+        try {
+            int n = reader.read(buffer, 0, buffer.length);
+            if (n > 0) {
+                limit = n;
+            }
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        return limit > 0;
+    }
+
+}